@@ -27,8 +27,11 @@ public class CorsGlobalConfig {
         corsConfig.setAllowedHeaders(Arrays.asList("*"));
         // Allow credentials (cookies, auth headers)
         corsConfig.setAllowCredentials(true);
-        // Expose critical headers to frontend
-        corsConfig.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With"));
+        // Expose critical headers to frontend: paging metadata of the list endpoints, validators and
+        // Retry-After for cached media and certificates, file names and ranges of downloads
+        corsConfig.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With",
+                "X-Page", "X-Page-Size", "X-Has-Next", "X-Next-Cursor", "X-Total-Count",
+                "ETag", "Last-Modified", "Retry-After", "Content-Disposition", "Content-Range", "Accept-Ranges"));
         // Cache preflight for 1 hour
         corsConfig.setMaxAge(3600L);
 
@@ -0,0 +1,13 @@
+package com.secureauth.productservice.client;
+
+import com.secureauth.productservice.client.dto.OperatorContextDTO;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.List;
+
+@FeignClient(name = "secure-product-api", contextId = "operatorContextClient", path = "/api/operator/context")
+public interface OperatorContextClient {
+    @GetMapping("/directory")
+    List<OperatorContextDTO> directory();
+}
@@ -0,0 +1,18 @@
+package com.secureauth.productservice.client.dto;
+
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+public class OperatorContextDTO {
+    private Long userId;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private Set<String> departments;
+    private Set<String> functions;
+    private Set<String> operations;
+    private Set<String> roles;
+}
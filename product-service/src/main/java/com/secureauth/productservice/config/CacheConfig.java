@@ -0,0 +1,22 @@
+package com.secureauth.productservice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caffeine-backed caches for the small reference tables (gage types, sub-types,
+ * manufacturers, in-house calibration machines). Names and the spec live in
+ * application.properties; the services evict on every write.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String GAGE_TYPES = "gageTypes";
+    public static final String GAGE_SUB_TYPES = "gageSubTypes";
+    public static final String MANUFACTURERS = "manufacturers";
+    public static final String CALIBRATION_MACHINES = "inhouseCalibrationMachines";
+
+    // Key of the cached full list in each cache; single rows are keyed by id
+    public static final String ALL = "'all'";
+}
@@ -0,0 +1,65 @@
+package com.secureauth.productservice.config;
+
+import com.secureauth.productservice.service.BlobStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * One-off move of calibration media bytes from the {@code calibration_media.file_data}
+ * BYTEA column into the blob store, one row at a time. The column is made nullable first, so
+ * new rows (which no longer carry the bytes) can be inserted even while a run is unfinished;
+ * rows already copied are skipped on the next run. Afterwards the column is renamed, which
+ * keeps the old data around until someone drops it by hand. A failure stops startup.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyCalibrationMediaMigrator implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+
+    @Override
+    public void run(String... args) {
+        try {
+            Integer present = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM information_schema.columns WHERE table_name = 'calibration_media' AND column_name = 'file_data'",
+                    Integer.class);
+            if (present == null || present == 0) {
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE calibration_media ALTER COLUMN file_data DROP NOT NULL");
+            log.info("Migrating calibration media into the blob store");
+            // Ids first, then one value per query: the driver materialises a bytea value
+            // whole, so at most one file is in memory at a time
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM calibration_media WHERE blob_key IS NULL AND file_data IS NOT NULL ORDER BY id",
+                    Long.class);
+            for (Long id : ids) {
+                jdbcTemplate.query("SELECT file_data FROM calibration_media WHERE id = ?", rs -> {
+                    try (InputStream in = rs.getBinaryStream(1)) {
+                        BlobStore.StoredBlob blob = blobStore.put(in);
+                        jdbcTemplate.update("UPDATE calibration_media SET blob_key = ?, file_size = ? WHERE id = ?",
+                                blob.getKey(), blob.getSize(), id);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, id);
+            }
+            jdbcTemplate.execute("ALTER TABLE calibration_media RENAME COLUMN file_data TO file_data_migrated");
+            log.info("Migrated {} calibration media files", ids.size());
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Legacy calibration media migration failed", e);
+        }
+    }
+}
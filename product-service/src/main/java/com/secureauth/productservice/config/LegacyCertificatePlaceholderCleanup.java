@@ -0,0 +1,44 @@
+package com.secureauth.productservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Clears the text placeholders earlier versions stored in {@code calibration_history.certificate}
+ * where no certificate was uploaded: the plain-text stub written on inward, and the Base64 text
+ * of the stub written by complete-calibration. Both now read as "no upload", so the records get
+ * a rendered PDF. Matching rows are few and the update is idempotent. A failure stops startup.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyCertificatePlaceholderCleanup implements CommandLineRunner {
+
+    private static final byte[] INWARD_STUB = "Calibration Certificate\nInstrument:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] COMPLETE_STUB = Base64.getEncoder()
+            .encode("Calibration Certificate for Gage SN:".getBytes(StandardCharsets.US_ASCII));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            int cleared = jdbcTemplate.update("UPDATE calibration_history SET certificate = NULL "
+                            + "WHERE substring(certificate FROM 1 FOR ?) = ? OR substring(certificate FROM 1 FOR ?) = ?",
+                    INWARD_STUB.length, INWARD_STUB, COMPLETE_STUB.length, COMPLETE_STUB);
+            if (cleared > 0) {
+                log.info("Cleared {} placeholder calibration certificates", cleared);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Clearing placeholder calibration certificates failed", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.secureauth.productservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the Base64 barcode/QR columns from {@code gages}. The images are now rendered on
+ * demand from the serial number, so the stored copies carry nothing worth keeping, and
+ * Hibernate's ddl-auto never drops columns by itself.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyGageCodeColumnCleanup implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            jdbcTemplate.execute("ALTER TABLE gages DROP COLUMN IF EXISTS barcode_image, DROP COLUMN IF EXISTS qr_code_image");
+        } catch (Exception e) {
+            log.error("Dropping legacy gage code columns failed: {}", e.getMessage());
+        }
+    }
+}
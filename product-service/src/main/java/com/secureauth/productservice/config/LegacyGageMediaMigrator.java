@@ -0,0 +1,105 @@
+package com.secureauth.productservice.config;
+
+import com.secureauth.productservice.entity.GageMedia;
+import com.secureauth.productservice.service.GageMediaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * One-off move of the Base64 media that used to live in {@code gage_images},
+ * {@code gage_videos} and {@code gages.gage_manual} into the blob store.
+ * Each table is copied and renamed in one transaction, so a failed run leaves no media rows
+ * behind and is simply repeated on the next start. Migrated tables/columns are renamed rather
+ * than dropped, so the old data stays available until someone removes it by hand. A failure
+ * stops startup; the application must not run against half-moved media.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyGageMediaMigrator implements CommandLineRunner {
+
+    private static final String INSERT_MEDIA =
+            "INSERT INTO gage_media (gage_id, kind, blob_key, content_type, file_size, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GageMediaService gageMediaService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(String... args) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> migrateCollection("gage_images", "image_data", GageMedia.Kind.IMAGE));
+            transaction.executeWithoutResult(status -> migrateCollection("gage_videos", "video_data", GageMedia.Kind.VIDEO));
+            transaction.executeWithoutResult(status -> migrateManuals());
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Legacy gage media migration failed", e);
+        }
+    }
+
+    private void migrateCollection(String table, String column, GageMedia.Kind kind) {
+        if (!tableExists(table)) {
+            return;
+        }
+        log.info("Migrating {} into the blob store", table);
+        int[] migrated = {0};
+        streamingTemplate().query("SELECT gage_id, " + column + " FROM " + table, rs -> {
+            String data = rs.getString(2);
+            if (data != null && !data.isBlank()) {
+                insert(rs.getLong(1), kind, data);
+                migrated[0]++;
+            }
+        });
+        jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + table + "_migrated");
+        log.info("Migrated {} {} rows", migrated[0], table);
+    }
+
+    private void migrateManuals() {
+        Integer present = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.columns WHERE table_name = 'gages' AND column_name = 'gage_manual'",
+                Integer.class);
+        if (present == null || present == 0) {
+            return;
+        }
+        log.info("Migrating gage manuals into the blob store");
+        int[] migrated = {0};
+        streamingTemplate().query("SELECT id, gage_manual FROM gages WHERE gage_manual IS NOT NULL", rs -> {
+            String data = rs.getString(2);
+            if (!data.isBlank()) {
+                insert(rs.getLong(1), GageMedia.Kind.MANUAL, data);
+                migrated[0]++;
+            }
+        });
+        jdbcTemplate.execute("ALTER TABLE gages RENAME COLUMN gage_manual TO gage_manual_migrated");
+        log.info("Migrated {} gage manuals", migrated[0]);
+    }
+
+    private void insert(long gageId, GageMedia.Kind kind, String base64) {
+        GageMedia media = gageMediaService.storeBase64(kind, base64);
+        jdbcTemplate.update(INSERT_MEDIA, gageId, kind.name(), media.getBlobKey(), media.getContentType(),
+                media.getFileSize(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // Small fetch size so rows are not all pulled at once; a single video can be tens of megabytes of
+    // text. The driver only honours it with autocommit off, i.e. inside the migration transaction.
+    private JdbcTemplate streamingTemplate() {
+        JdbcTemplate template = new JdbcTemplate(jdbcTemplate.getDataSource());
+        template.setFetchSize(10);
+        return template;
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, "public." + table));
+    }
+}
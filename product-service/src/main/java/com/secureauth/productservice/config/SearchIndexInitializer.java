@@ -0,0 +1,54 @@
+package com.secureauth.productservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the pg_trgm extension and the trigram GIN indexes used by the gage search query
+ * ({@code GageRepository.searchRankedIds}). Hibernate's ddl-auto cannot express expression
+ * or GIN indexes, so they are created here; every statement is idempotent. The search query
+ * uses the extension's {@code %} operator and {@code similarity()}, so a missing extension stops
+ * startup; the indexes only make it faster and are best-effort.
+ */
+@Component
+@Order(1)
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexInitializer implements CommandLineRunner {
+
+    private static final String EXTENSION = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+
+    private static final List<String> INDEXES = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_gages_serial_trgm ON gages USING gin (lower(serial_number) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_gages_model_trgm ON gages USING gin (lower(model_number) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_gage_types_name_trgm ON gage_types USING gin (lower(name) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_gage_sub_types_name_trgm ON gage_sub_types USING gin (lower(name) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_manufacturers_name_trgm ON manufacturers USING gin (lower(name) gin_trgm_ops)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            jdbcTemplate.execute(EXTENSION);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Gage search needs the pg_trgm extension; install it or grant "
+                    + "the application user the right to create it", e);
+        }
+        for (String statement : INDEXES) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (Exception e) {
+                // Search keeps working without the indexes, only slower
+                log.error("Search index setup failed for [{}]: {}", statement, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.secureauth.productservice.config;
 
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.multipart.MultipartResolver;
 import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 
@@ -13,4 +15,23 @@ public class WebConfig {
         StandardServletMultipartResolver resolver = new StandardServletMultipartResolver();
         return resolver;
     }
-} 
\ No newline at end of file
+
+    /**
+     * ETag / If-None-Match for the reference-data endpoints. The body comes from the cache,
+     * so hashing it is cheap, and a browser revalidating an unchanged dropdown list gets a 304
+     * without the payload. The controllers send Cache-Control: no-cache so browsers do revalidate.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> referenceDataEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns(
+                "/api/gage-types/*",
+                "/api/gage-sub-types/*",
+                "/api/inhouse-calibration-machines/*",
+                "/api/manufacturers",
+                "/api/manufacturers/*");
+        registration.setName("referenceDataEtagFilter");
+        return registration;
+    }
+}
@@ -7,25 +7,42 @@ import com.secureauth.productservice.entity.CalibrationMedia;
 import com.secureauth.productservice.entity.CalibrationSchedule;
 import com.secureauth.productservice.entity.Gage;
 import com.secureauth.productservice.entity.InhouseCalibrationMachine;
+import com.secureauth.productservice.entity.MediaRendition;
 import com.secureauth.productservice.exception.ResourceNotFoundException;
 import com.secureauth.productservice.repository.CalibrationHistoryRepository;
 import com.secureauth.productservice.repository.CalibrationLabTechHistoryRepository;
 import com.secureauth.productservice.repository.CalibrationScheduleRepository;
 import com.secureauth.productservice.repository.GageRepository;
 import com.secureauth.productservice.repository.InhouseCalibrationMachineRepository;
+import com.secureauth.productservice.service.CalibrationCertificateService;
+import com.secureauth.productservice.service.CalibrationCertificateTemplate;
 import com.secureauth.productservice.service.CalibrationHistoryService;
 import com.secureauth.productservice.service.CalibrationService;
+import com.secureauth.productservice.service.CertificateExportService;
 import com.secureauth.productservice.service.GageService;
+import com.secureauth.productservice.service.MediaThumbnailService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/calibration-manager")
@@ -55,6 +72,18 @@ public class CalibrationController {
     @Autowired
     private GageService gageService;
 
+    @Autowired
+    private MediaThumbnailService mediaThumbnailService;
+
+    @Autowired
+    private CalibrationCertificateService calibrationCertificateService;
+
+    @Autowired
+    private CertificateExportService certificateExportService;
+
+    @Value("${app.certificates.wait-ms:5000}")
+    private long certificateWaitMillis;
+
     @PostMapping("/gages/{gageId}/records")
     public ResponseEntity<CalibrationHistory> addCalibrationRecord(
             @PathVariable Long gageId,
@@ -173,45 +202,59 @@ public class CalibrationController {
     }
 
     @GetMapping("/schedules/{id}/serial-number-photo")
-    public ResponseEntity<byte[]> getSerialNumberPhoto(@PathVariable Long id) {
-        CalibrationSchedule schedule = calibrationScheduleRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Schedule not found"));
-
-        if (schedule.getSerialNumberPhoto() == null) {
-            return ResponseEntity.notFound().build();
-        }
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_TYPE, schedule.getSerialNumberPhotoContentType())
-                .body(schedule.getSerialNumberPhoto());
+    public ResponseEntity<Resource> getSerialNumberPhoto(@PathVariable Long id,
+                                                   @RequestParam(value = "size", required = false) Integer size,
+                                                   WebRequest webRequest) {
+        return schedulePhoto(id, CalibrationSchedule.PhotoView.SERIAL_NUMBER, size, webRequest);
     }
 
     @GetMapping("/schedules/{id}/front-view-photo")
-    public ResponseEntity<byte[]> getFrontViewPhoto(@PathVariable Long id) {
-        CalibrationSchedule schedule = calibrationScheduleRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Schedule not found"));
-
-        if (schedule.getFrontViewPhoto() == null) {
-            return ResponseEntity.notFound().build();
-        }
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_TYPE, schedule.getFrontViewPhotoContentType())
-                .body(schedule.getFrontViewPhoto());
+    public ResponseEntity<Resource> getFrontViewPhoto(@PathVariable Long id,
+                                                   @RequestParam(value = "size", required = false) Integer size,
+                                                   WebRequest webRequest) {
+        return schedulePhoto(id, CalibrationSchedule.PhotoView.FRONT_VIEW, size, webRequest);
     }
 
     @GetMapping("/schedules/{id}/back-view-photo")
-    public ResponseEntity<byte[]> getBackViewPhoto(@PathVariable Long id) {
-        CalibrationSchedule schedule = calibrationScheduleRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Schedule not found"));
+    public ResponseEntity<Resource> getBackViewPhoto(@PathVariable Long id,
+                                                   @RequestParam(value = "size", required = false) Integer size,
+                                                   WebRequest webRequest) {
+        return schedulePhoto(id, CalibrationSchedule.PhotoView.BACK_VIEW, size, webRequest);
+    }
 
-        if (schedule.getBackViewPhoto() == null) {
+    // With size=, the smallest thumbnail covering that many pixels is served once rendered.
+    // Validators come from the schedule timestamps, so a revalidation is answered with a 304
+    // before the photo column is read. A Resource body gives Range/206 and Accept-Ranges.
+    private ResponseEntity<Resource> schedulePhoto(Long id, CalibrationSchedule.PhotoView view, Integer size,
+                                                   WebRequest webRequest) {
+        if (size != null && size > 0) {
+            MediaRendition rendition = calibrationService.getSchedulePhotoRendition(id, view, size).orElse(null);
+            if (rendition != null) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(rendition.getContentType()))
+                        .eTag("\"" + rendition.getBlobKey() + "\"")
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(mediaThumbnailService.load(rendition));
+            }
+        }
+        LocalDateTime modified = calibrationService.getSchedulePhotoLastModified(id);
+        long lastModified = modified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String etag = "\"schedule-" + id + "-" + view.name().toLowerCase() + "-" + lastModified + "\"";
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        CalibrationScheduleRepository.Photo photo = calibrationService.getSchedulePhoto(id, view).orElse(null);
+        if (photo == null) {
             return ResponseEntity.notFound().build();
         }
-
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_TYPE, schedule.getBackViewPhotoContentType())
-                .body(schedule.getBackViewPhoto());
+                .contentType(photo.getContentType() != null
+                        ? MediaType.parseMediaType(photo.getContentType())
+                        : MediaType.APPLICATION_OCTET_STREAM)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(new ByteArrayResource(photo.getData()));
     }
 
     @PostMapping("/gages/{gageId}/send")
@@ -284,15 +327,81 @@ public class CalibrationController {
         return ResponseEntity.ok(response);
     }
 
+    // Streamed from the blob store; returning a Resource lets Spring answer Range requests
     @GetMapping("/media/{mediaId}/download")
-    public ResponseEntity<byte[]> downloadMedia(@PathVariable Long mediaId) {
+    public ResponseEntity<Resource> downloadMedia(@PathVariable Long mediaId) {
         CalibrationMedia media = calibrationHistoryService.getMediaById(mediaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Media not found with id " + mediaId));
+        Resource resource = calibrationHistoryService.loadMedia(media);
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + media.getFileName() + "\"")
+        String fileName = media.getFileName() != null ? media.getFileName() : media.getFileType() + "-" + mediaId;
+        // Inline so a video opened directly can be played and seeked; a blob key never changes
+        // content, so the hash is a strong validator
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().filename(fileName).build().toString())
                 .contentType(MediaType.parseMediaType(media.getMimeType()))
-                .body(media.getFileData());
+                .eTag("\"" + media.getBlobKey() + "\"")
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate());
+        if (media.getUploadedAt() != null) {
+            response.lastModified(media.getUploadedAt().atStartOfDay(ZoneId.systemDefault()));
+        }
+        return response.body(resource);
+    }
+
+    // The certificate uploaded with complete-calibration if there is one, otherwise served from the
+    // certificate store; a missing certificate is rendered on the worker pool and waited for
+    // briefly, after that the client is asked to come back
+    @GetMapping("/history/{historyId}/certificate")
+    public ResponseEntity<Resource> downloadCertificate(@PathVariable Long historyId) {
+        Optional<CalibrationCertificateService.UploadedCertificate> uploaded =
+                calibrationCertificateService.findUploaded(historyId);
+        if (uploaded.isPresent()) {
+            CalibrationCertificateService.UploadedCertificate certificate = uploaded.get();
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                            .filename(CalibrationCertificateTemplate.certificateNumber(historyId) + "." + certificate.extension())
+                            .build().toString())
+                    .contentType(MediaType.parseMediaType(certificate.contentType()))
+                    .eTag("\"" + certificate.sha256() + "\"")
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(new ByteArrayResource(certificate.content()));
+        }
+        return calibrationCertificateService.getOrRender(historyId, certificateWaitMillis)
+                .map(certificate -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                                .filename(CalibrationCertificateTemplate.certificateNumber(historyId) + ".pdf")
+                                .build().toString())
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .eTag("\"" + certificate.getBlobKey() + "\"")
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(calibrationCertificateService.load(certificate)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .header(HttpHeaders.RETRY_AFTER, "2")
+                        .build());
+    }
+
+    @PostMapping("/history/{historyId}/certificate/regenerate")
+    public ResponseEntity<ApiResponse> regenerateCertificate(@PathVariable Long historyId) {
+        calibrationCertificateService.regenerate(historyId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse("success", "Certificate is being regenerated", historyId));
+    }
+
+    // Audit export; the ZIP is written while the certificates are read, in (calibration date, id) chunks
+    @GetMapping("/certificates/export")
+    public ResponseEntity<StreamingResponseBody> exportCertificates(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String department) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String departmentFilter = department != null && !department.isBlank() ? department.trim() : null;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(CertificateExportService.fileName(from, to)).build().toString())
+                .body(out -> certificateExportService.writeZip(from, to, departmentFilter, out));
     }
 
     @GetMapping("/gages/{gageId}/schedules")
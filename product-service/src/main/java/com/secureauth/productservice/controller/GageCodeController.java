@@ -0,0 +1,83 @@
+package com.secureauth.productservice.controller;
+
+import com.secureauth.productservice.exception.ResourceNotFoundException;
+import com.secureauth.productservice.repository.GageRepository;
+import com.secureauth.productservice.service.GageCodeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Barcode and QR images for a gage, rendered on demand:
+ * {@code /api/gages/{serial}/barcode.png|svg?width=&height=} and
+ * {@code /api/gages/{serial}/qrcode.png|svg?size=}.
+ */
+@RestController
+@RequestMapping("/api/gages/{serialNumber}")
+@RequiredArgsConstructor
+public class GageCodeController {
+
+    private final GageCodeService gageCodeService;
+    private final GageRepository gageRepository;
+
+    @GetMapping("/barcode.{format}")
+    public ResponseEntity<byte[]> getBarcode(
+            @PathVariable String serialNumber,
+            @PathVariable String format,
+            @RequestParam(value = "width", required = false) Integer width,
+            @RequestParam(value = "height", required = false) Integer height,
+            WebRequest webRequest) {
+        return code(GageCodeService.Kind.BARCODE, serialNumber, format,
+                GageCodeService.clampSize(width, GageCodeService.DEFAULT_BARCODE_WIDTH),
+                GageCodeService.clampSize(height, GageCodeService.DEFAULT_BARCODE_HEIGHT), webRequest);
+    }
+
+    @GetMapping("/qrcode.{format}")
+    public ResponseEntity<byte[]> getQrCode(
+            @PathVariable String serialNumber,
+            @PathVariable String format,
+            @RequestParam(value = "size", required = false) Integer size,
+            WebRequest webRequest) {
+        int side = GageCodeService.clampSize(size, GageCodeService.DEFAULT_QR_SIZE);
+        return code(GageCodeService.Kind.QR, serialNumber, format, side, side, webRequest);
+    }
+
+    private ResponseEntity<byte[]> code(GageCodeService.Kind kind, String serialNumber, String format,
+                                        int width, int height, WebRequest webRequest) {
+        GageCodeService.Format imageFormat = parseFormat(format);
+        if (imageFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!gageRepository.existsBySerialNumber(serialNumber)) {
+            throw new ResourceNotFoundException("Gage not found with serial number: " + serialNumber);
+        }
+        // The image is a pure function of its inputs, so a matching ETag needs no rendering at all
+        String etag = gageCodeService.etag(kind, imageFormat, serialNumber, width, height);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        GageCodeService.RenderedCode rendered = gageCodeService.render(kind, imageFormat, serialNumber, width, height);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(rendered.contentType()))
+                .eTag(rendered.etag())
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate())
+                .body(rendered.bytes());
+    }
+
+    private static GageCodeService.Format parseFormat(String format) {
+        try {
+            return GageCodeService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -5,22 +5,27 @@ import com.secureauth.productservice.entity.CalibrationHistory;
 import com.secureauth.productservice.entity.Gage;
 import com.secureauth.productservice.entity.ServiceProvider;
 import com.secureauth.productservice.exception.ResourceNotFoundException;
+import com.secureauth.productservice.exception.ScanDecodeRejectedException;
 import com.secureauth.productservice.service.GageService;
 import com.secureauth.productservice.service.GageTypeService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import jakarta.validation.Valid;
-import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -33,9 +38,6 @@ public class GageController {
     @Autowired
     private GageTypeService gageTypeService;
 
-    @Autowired
-    private com.secureauth.productservice.service.DailySchedulerService dailySchedulerService;
-
     // =============== BARCODE SCAN BY TEXT ===============
     @GetMapping("/scan/{serialNumber}")
     public ResponseEntity<GageScanResponse> getGageByBarcodeScan(@PathVariable String serialNumber) {
@@ -60,7 +62,19 @@ public class GageController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
 
-        GageScanResponse response = gageService.getGageDetailsByBarcodeImage(barcodeImage);
+        GageScanResponse response;
+        try {
+            response = gageService.getGageDetailsByBarcodeImage(barcodeImage);
+        } catch (ScanDecodeRejectedException e) {
+            // Decode pool saturated: shed load and let the client retry
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .body(GageScanResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .scanTime(java.time.LocalDateTime.now())
+                            .build());
+        }
         if (response.getSuccess()) {
             return ResponseEntity.ok(response);
         } else {
@@ -68,6 +82,25 @@ public class GageController {
         }
     }
 
+    // =============== BATCH SCAN (AUDITS) ===============
+    // Serials as JSON, or several barcode photos as multipart; one lookup query per request
+    @PostMapping(value = "/scan/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<GageBatchScanResponse> batchScan(@Valid @RequestBody GageBatchScanRequest request) {
+        return ResponseEntity.ok(gageService.getGageDetailsByBarcodeScans(request.getSerialNumbers()));
+    }
+
+    @PostMapping(value = "/scan/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<GageBatchScanResponse> batchScanImages(
+            @RequestParam("barcodeImages") List<MultipartFile> barcodeImages) {
+        try {
+            return ResponseEntity.ok(gageService.getGageDetailsByBarcodeImages(barcodeImages));
+        } catch (ScanDecodeRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .build();
+        }
+    }
+
     // =============== CRUD OPERATIONS ===============
     @PostMapping
     public ResponseEntity<GageResponse> createGage(@Valid @RequestBody GageRequest gageRequest) {
@@ -115,40 +148,6 @@ public class GageController {
             @RequestParam(value = "gageManual", required = false) MultipartFile gageManual) {
 
         try {
-            List<String> base64Images = null;
-            if (gageImages != null && !gageImages.isEmpty()) {
-                base64Images = gageImages.stream()
-                        .filter(file -> !file.isEmpty())
-                        .map(file -> {
-                            try {
-                                return Base64.getEncoder().encodeToString(file.getBytes());
-                            } catch (IOException e) {
-                                throw new RuntimeException("Failed to read image file", e);
-                            }
-                        })
-                        .collect(Collectors.toList());
-            }
-
-            // ✅ Process optional videos
-            List<String> base64Videos = null;
-            if (gageVideos != null && !gageVideos.isEmpty()) {
-                base64Videos = gageVideos.stream()
-                        .filter(file -> !file.isEmpty())
-                        .map(file -> {
-                            try {
-                                return Base64.getEncoder().encodeToString(file.getBytes());
-                            } catch (IOException e) {
-                                throw new RuntimeException("Failed to read video file", e);
-                            }
-                        })
-                        .collect(Collectors.toList());
-            }
-
-            String base64Manual = null;
-            if (gageManual != null && !gageManual.isEmpty()) {
-                base64Manual = Base64.getEncoder().encodeToString(gageManual.getBytes());
-            }
-
             Gage.CodeType selectedCodeType = parseCodeType(codeTypeStr);
 
             GageRequest gageRequest = GageRequest.builder()
@@ -168,16 +167,13 @@ public class GageController {
                     .criticality(criticality)
                     .location(location)
                     .notes(notes)
-                    .gageImages(base64Images) // ✅ Updated field
-                    .gageVideos(base64Videos) // ✅ New video field
-                    .gageManual(base64Manual)
                     .codeType(selectedCodeType)
                     .build();
 
-            GageResponse createdGage = gageService.createGage(gageRequest);
+            GageResponse createdGage = gageService.createGage(gageRequest, gageImages, gageVideos, gageManual);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdGage);
 
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Failed to process the uploaded files."));
         } catch (Exception e) {
@@ -209,40 +205,6 @@ public class GageController {
             @RequestParam(value = "gageManual", required = false) MultipartFile gageManual) {
 
         try {
-            List<String> base64Images = null;
-            if (gageImages != null && !gageImages.isEmpty()) {
-                base64Images = gageImages.stream()
-                        .filter(file -> !file.isEmpty())
-                        .map(file -> {
-                            try {
-                                return Base64.getEncoder().encodeToString(file.getBytes());
-                            } catch (IOException e) {
-                                throw new RuntimeException("Failed to read image file", e);
-                            }
-                        })
-                        .collect(Collectors.toList());
-            }
-
-            // ✅ Process optional videos
-            List<String> base64Videos = null;
-            if (gageVideos != null && !gageVideos.isEmpty()) {
-                base64Videos = gageVideos.stream()
-                        .filter(file -> !file.isEmpty())
-                        .map(file -> {
-                            try {
-                                return Base64.getEncoder().encodeToString(file.getBytes());
-                            } catch (IOException e) {
-                                throw new RuntimeException("Failed to read video file", e);
-                            }
-                        })
-                        .collect(Collectors.toList());
-            }
-
-            String base64Manual = null;
-            if (gageManual != null && !gageManual.isEmpty()) {
-                base64Manual = Base64.getEncoder().encodeToString(gageManual.getBytes());
-            }
-
             Gage.CodeType selectedCodeType = parseCodeType(codeTypeStr);
 
             GageRequest gageRequest = GageRequest.builder()
@@ -260,16 +222,13 @@ public class GageController {
                     .criticality(criticality)
                     .location(location)
                     .notes(notes)
-                    .gageImages(base64Images)
-                    .gageVideos(base64Videos)
-                    .gageManual(base64Manual)
                     .codeType(selectedCodeType)
                     .build();
 
-            GageResponse createdGage = gageService.createGage(gageRequest);
+            GageResponse createdGage = gageService.createGage(gageRequest, gageImages, gageVideos, gageManual);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdGage);
 
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Failed to process the uploaded files."));
         } catch (Exception e) {
@@ -298,9 +257,25 @@ public class GageController {
         }
     }
 
+    // Returns the slim summary by default; fields=media (or all) adds the heavy data.
+    // page/size/sort or after=<id> switch to paged results, see pagedResponse for the headers
     @GetMapping
-    public ResponseEntity<List<GageResponse>> getAllGages() {
-        List<GageResponse> gages = gageService.getAllGages();
+    public ResponseEntity<List<GageResponse>> getAllGages(
+            @RequestParam(value = "fields", required = false) List<String> fields,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        Set<String> requested = fields == null ? Collections.emptySet() : fields.stream()
+                .map(f -> f.trim().toLowerCase())
+                .filter(f -> !f.isEmpty())
+                .collect(Collectors.toSet());
+        GagePageRequest pageRequest = toPageRequest(page, size, sort, after, withTotal);
+        if (pageRequest != null) {
+            return pagedResponse(gageService.getAllGages(requested, pageRequest));
+        }
+        List<GageResponse> gages = gageService.getAllGages(requested);
         return ResponseEntity.ok(gages);
     }
 
@@ -390,40 +365,6 @@ public class GageController {
             @RequestParam(value = "gageManual", required = false) MultipartFile gageManual) {
 
         try {
-            List<String> base64Images = null;
-            if (gageImages != null && !gageImages.isEmpty()) {
-                base64Images = gageImages.stream()
-                        .filter(file -> !file.isEmpty())
-                        .map(file -> {
-                            try {
-                                return Base64.getEncoder().encodeToString(file.getBytes());
-                            } catch (IOException e) {
-                                throw new RuntimeException("Failed to read image file", e);
-                            }
-                        })
-                        .collect(Collectors.toList());
-            }
-
-            // ✅ Process optional videos for reissue
-            List<String> base64Videos = null;
-            if (gageVideos != null && !gageVideos.isEmpty()) {
-                base64Videos = gageVideos.stream()
-                        .filter(file -> !file.isEmpty())
-                        .map(file -> {
-                            try {
-                                return Base64.getEncoder().encodeToString(file.getBytes());
-                            } catch (IOException e) {
-                                throw new RuntimeException("Failed to read video file", e);
-                            }
-                        })
-                        .collect(Collectors.toList());
-            }
-
-            String base64Manual = null;
-            if (gageManual != null && !gageManual.isEmpty()) {
-                base64Manual = Base64.getEncoder().encodeToString(gageManual.getBytes());
-            }
-
             Gage.CodeType selectedCodeType = parseCodeType(codeTypeStr);
 
             GageRequest gageRequest = GageRequest.builder()
@@ -443,17 +384,14 @@ public class GageController {
                     .criticality(criticality)
                     .location(location)
                     .notes(notes)
-                    .gageImages(base64Images) // ✅ Updated field
-                    .gageVideos(base64Videos) // ✅ New video field
-                    .gageManual(base64Manual)
                     .codeType(selectedCodeType)
                     .status(Gage.Status.ISSUED)
                     .build();
 
-            GageResponse reissuedGage = gageService.createGage(gageRequest);
+            GageResponse reissuedGage = gageService.createGage(gageRequest, gageImages, gageVideos, gageManual);
             return ResponseEntity.status(HttpStatus.CREATED).body(reissuedGage);
 
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Failed to process the uploaded files."));
         } catch (Exception e) {
@@ -485,40 +423,6 @@ public class GageController {
             @RequestParam(value = "gageManual", required = false) MultipartFile gageManual) {
 
         try {
-            List<String> base64Images = null;
-            if (gageImages != null && !gageImages.isEmpty()) {
-                base64Images = gageImages.stream()
-                        .filter(file -> !file.isEmpty())
-                        .map(file -> {
-                            try {
-                                return Base64.getEncoder().encodeToString(file.getBytes());
-                            } catch (IOException e) {
-                                throw new RuntimeException("Failed to read image file", e);
-                            }
-                        })
-                        .collect(Collectors.toList());
-            }
-
-            // ✅ Process optional videos for reissue
-            List<String> base64Videos = null;
-            if (gageVideos != null && !gageVideos.isEmpty()) {
-                base64Videos = gageVideos.stream()
-                        .filter(file -> !file.isEmpty())
-                        .map(file -> {
-                            try {
-                                return Base64.getEncoder().encodeToString(file.getBytes());
-                            } catch (IOException e) {
-                                throw new RuntimeException("Failed to read video file", e);
-                            }
-                        })
-                        .collect(Collectors.toList());
-            }
-
-            String base64Manual = null;
-            if (gageManual != null && !gageManual.isEmpty()) {
-                base64Manual = Base64.getEncoder().encodeToString(gageManual.getBytes());
-            }
-
             Gage.CodeType selectedCodeType = parseCodeType(codeTypeStr);
 
             GageRequest gageRequest = GageRequest.builder()
@@ -536,17 +440,14 @@ public class GageController {
                     .criticality(criticality)
                     .location(location)
                     .notes(notes)
-                    .gageImages(base64Images)
-                    .gageVideos(base64Videos)
-                    .gageManual(base64Manual)
                     .codeType(selectedCodeType)
                     .status(Gage.Status.ISSUED)
                     .build();
 
-            GageResponse reissuedGage = gageService.createGage(gageRequest);
+            GageResponse reissuedGage = gageService.createGage(gageRequest, gageImages, gageVideos, gageManual);
             return ResponseEntity.status(HttpStatus.CREATED).body(reissuedGage);
 
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Failed to process the uploaded files."));
         } catch (Exception e) {
@@ -556,10 +457,23 @@ public class GageController {
     }
 
     // =============== SEARCH AND FILTER OPERATIONS ===============
+    // Ranked search over serial, model, type, sub-type and manufacturer; page or size switch to
+    // paged results, without them every match is returned
     @GetMapping("/search")
-    public ResponseEntity<List<GageResponse>> searchGages(@RequestParam String searchTerm) {
-        List<GageResponse> gages = gageService.searchGages(searchTerm);
-        return ResponseEntity.ok(gages);
+    public ResponseEntity<List<GageResponse>> searchGages(
+            @RequestParam String searchTerm,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        if (page == null && size == null) {
+            return ResponseEntity.ok(gageService.searchGages(searchTerm));
+        }
+        GagePageRequest pageRequest = GagePageRequest.builder()
+                .page(page)
+                .size(size)
+                .withTotal(withTotal)
+                .build();
+        return pagedResponse(gageService.searchGages(searchTerm, pageRequest));
     }
 
     @GetMapping("/type/{gageTypeId}")
@@ -576,7 +490,17 @@ public class GageController {
 
 
     @GetMapping("/location/{location}")
-    public ResponseEntity<List<GageResponse>> getGagesByLocation(@PathVariable Gage.Location location) {
+    public ResponseEntity<List<GageResponse>> getGagesByLocation(
+            @PathVariable Gage.Location location,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        GagePageRequest pageRequest = toPageRequest(page, size, sort, after, withTotal);
+        if (pageRequest != null) {
+            return pagedResponse(gageService.getGagesByLocation(location, pageRequest));
+        }
         List<GageResponse> gages = gageService.getGagesByLocation(location);
         return ResponseEntity.ok(gages);
     }
@@ -588,7 +512,17 @@ public class GageController {
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<GageResponse>> getGagesByStatus(@PathVariable Gage.Status status) {
+    public ResponseEntity<List<GageResponse>> getGagesByStatus(
+            @PathVariable Gage.Status status,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        GagePageRequest pageRequest = toPageRequest(page, size, sort, after, withTotal);
+        if (pageRequest != null) {
+            return pagedResponse(gageService.getGagesByStatus(status, pageRequest));
+        }
         List<GageResponse> gages = gageService.getGagesByStatus(status);
         return ResponseEntity.ok(gages);
     }
@@ -652,18 +586,6 @@ public class GageController {
         return ResponseEntity.ok(Gage.CodeType.values());
     }
 
-    // =============== MANUAL TRIGGER FOR DAILY UPDATE ===============
-    @PostMapping("/admin/update-remaining-days")
-    public ResponseEntity<?> manualUpdateRemainingDays() {
-        try {
-            dailySchedulerService.manualUpdateGagesRemainingDays();
-            return ResponseEntity.ok(new SuccessResponse("Remaining days updated successfully for all gages"));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse("Failed to update remaining days: " + e.getMessage()));
-        }
-    }
-
     // =============== GAGE USAGE OPERATIONS ===============
     @GetMapping("/usage/validate")
     public ResponseEntity<GageUsageResponse> validateGageForUsage(
@@ -692,6 +614,14 @@ public class GageController {
             } else {
                 return ResponseEntity.badRequest().body(response);
             }
+        } catch (ConcurrencyFailureException e) {
+            // Still conflicting after the service's retries; safe for the client to resubmit
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(GageUsageResponse.builder()
+                            .serialNumber(usageRequest.getSerialNumber())
+                            .isValidSerial(false)
+                            .validationMessage("Gage is being updated concurrently, please retry")
+                            .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(GageUsageResponse.builder()
@@ -703,10 +633,22 @@ public class GageController {
     }
 
     @GetMapping("/by-type/{gageTypeName}")
-    public ResponseEntity<List<GageResponse>> getGagesByTypeName(@PathVariable String gageTypeName) {
+    public ResponseEntity<List<GageResponse>> getGagesByTypeName(
+            @PathVariable String gageTypeName,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
         try {
+            GagePageRequest pageRequest = toPageRequest(page, size, sort, after, withTotal);
+            if (pageRequest != null) {
+                return pagedResponse(gageService.getGagesByType(gageTypeName, pageRequest));
+            }
             List<GageResponse> gages = gageService.getGagesByType(gageTypeName);
             return ResponseEntity.ok(gages);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -726,15 +668,56 @@ public class GageController {
     public ResponseEntity<List<GageResponse>> getFilteredGages(
             @RequestParam(required = false) String department,
             @RequestParam(required = false) String function,
-            @RequestParam(required = false) String operation) {
+            @RequestParam(required = false) String operation,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
         try {
+            GagePageRequest pageRequest = toPageRequest(page, size, sort, after, withTotal);
+            if (pageRequest != null) {
+                return pagedResponse(gageService.getFilteredGages(department, function, operation, pageRequest));
+            }
             List<GageResponse> gages = gageService.getFilteredGages(department, function, operation);
             return ResponseEntity.ok(gages);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // =============== PAGING HELPERS ===============
+    // Without page, size or after the endpoints keep returning the whole list
+    private GagePageRequest toPageRequest(Integer page, Integer size, String sort, Long after, boolean withTotal) {
+        if (page == null && size == null && after == null) {
+            return null;
+        }
+        return GagePageRequest.builder()
+                .page(page)
+                .size(size)
+                .sort(sort)
+                .after(after)
+                .withTotal(withTotal)
+                .build();
+    }
+
+    // The body stays a plain array so existing clients keep working; paging metadata goes in headers
+    private ResponseEntity<List<GageResponse>> pagedResponse(GagePage page) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Page", String.valueOf(page.getPage()));
+        headers.add("X-Page-Size", String.valueOf(page.getSize()));
+        headers.add("X-Has-Next", String.valueOf(page.isHasNext()));
+        if (page.getNextCursor() != null) {
+            headers.add("X-Next-Cursor", String.valueOf(page.getNextCursor()));
+        }
+        if (page.getTotalElements() != null) {
+            headers.add("X-Total-Count", String.valueOf(page.getTotalElements()));
+        }
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
     // =============== INNER CLASSES ===============
     @Data
     @AllArgsConstructor
@@ -6,6 +6,10 @@ import com.secureauth.productservice.service.GageIssueService;
 import com.secureauth.productservice.service.GageFilteringService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +24,9 @@ public class GageIssueController {
     @Autowired private GageIssueService gageIssueService;
     @Autowired private GageFilteringService gageFilteringService;
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     @PostMapping
     public ResponseEntity<GageIssueDTO> create(@Valid @RequestBody GageIssueDTO dto) {
         // Normalize optional fields to avoid validation/parsing surprises
@@ -74,22 +81,24 @@ public class GageIssueController {
     public ResponseEntity<List<GageIssueDTO>> getOperatorFilteredIssues(
             @RequestParam Set<String> departments,
             @RequestParam(required = false) Set<String> functions,
-            @RequestParam(required = false) Set<String> operations) {
+            @RequestParam(required = false) Set<String> operations,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size) {
         
         try {
-            // Use the existing filtering service to get filtered gage issues
-            List<GageIssue> filteredIssues = gageFilteringService.getFilteredGagesForOperator(
+            Page<GageIssue> filteredIssues = gageFilteringService.getFilteredGagesForOperator(
                     departments, 
                     functions != null ? functions : Set.of(), 
-                    operations != null ? operations : Set.of()
+                    operations != null ? operations : Set.of(),
+                    toPageable(page, size)
             );
             
             // Convert to DTOs
-            List<GageIssueDTO> filteredDTOs = filteredIssues.stream()
+            List<GageIssueDTO> filteredDTOs = filteredIssues.getContent().stream()
                     .map(gageIssueService::mapToDTO)
                     .toList();
             
-            return ResponseEntity.ok(filteredDTOs);
+            return ResponseEntity.ok().headers(pageHeaders(filteredIssues)).body(filteredDTOs);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -102,22 +111,24 @@ public class GageIssueController {
     public ResponseEntity<List<GageIssueDTO>> getOperatorFilteredIssuesByPriority(
             @RequestParam Set<String> departments,
             @RequestParam(required = false) Set<String> functions,
-            @RequestParam(required = false) Set<String> operations) {
+            @RequestParam(required = false) Set<String> operations,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size) {
         
         try {
-            // Use the existing filtering service to get filtered gage issues by priority
-            List<GageIssue> filteredIssues = gageFilteringService.getFilteredGagesByPriority(
+            Page<GageIssue> filteredIssues = gageFilteringService.getFilteredGagesByPriority(
                     departments, 
                     functions != null ? functions : Set.of(), 
-                    operations != null ? operations : Set.of()
+                    operations != null ? operations : Set.of(),
+                    toPageable(page, size)
             );
             
             // Convert to DTOs
-            List<GageIssueDTO> filteredDTOs = filteredIssues.stream()
+            List<GageIssueDTO> filteredDTOs = filteredIssues.getContent().stream()
                     .map(gageIssueService::mapToDTO)
                     .toList();
             
-            return ResponseEntity.ok(filteredDTOs);
+            return ResponseEntity.ok().headers(pageHeaders(filteredIssues)).body(filteredDTOs);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -160,6 +171,25 @@ public class GageIssueController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
 
+    // =============== PAGING HELPERS ===============
+    // Without page or size the whole filtered list is returned, as before
+    private static Pageable toPageable(Integer page, Integer size) {
+        if (page == null && size == null) {
+            return Pageable.unpaged();
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        return PageRequest.of(page == null ? 0 : Math.max(0, page), pageSize);
+    }
 
+    private static HttpHeaders pageHeaders(Page<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getPageable().isPaged()) {
+            headers.add("X-Page", String.valueOf(page.getNumber()));
+            headers.add("X-Page-Size", String.valueOf(page.getSize()));
+            headers.add("X-Has-Next", String.valueOf(page.hasNext()));
+            headers.add("X-Total-Count", String.valueOf(page.getTotalElements()));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,86 @@
+package com.secureauth.productservice.controller;
+
+import com.secureauth.productservice.dto.GageMediaResponse;
+import com.secureauth.productservice.entity.GageMedia;
+import com.secureauth.productservice.entity.MediaRendition;
+import com.secureauth.productservice.service.GageMediaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gage images, videos and manuals. Downloads are streamed straight from the blob store;
+ * returning a {@link Resource} lets Spring serve HTTP Range requests for video seeking.
+ */
+@RestController
+@RequestMapping("/api/gages/{gageId}/media")
+@RequiredArgsConstructor
+public class GageMediaController {
+
+    private final GageMediaService gageMediaService;
+
+    @GetMapping
+    public ResponseEntity<List<GageMediaResponse>> getMedia(@PathVariable Long gageId) {
+        return ResponseEntity.ok(gageMediaService.getMedia(gageId));
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<GageMediaResponse> uploadMedia(
+            @PathVariable Long gageId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "kind", defaultValue = "IMAGE") GageMedia.Kind kind) {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        GageMedia media = gageMediaService.attach(gageId, kind, file);
+        return ResponseEntity.status(HttpStatus.CREATED).body(gageMediaService.toResponse(gageId, media));
+    }
+
+    @GetMapping("/{mediaId}")
+    public ResponseEntity<Resource> downloadMedia(@PathVariable Long gageId, @PathVariable Long mediaId,
+                                                  @RequestParam(value = "size", required = false) Integer size) {
+        GageMedia media = gageMediaService.getMedia(gageId, mediaId);
+        // size= asks for the smallest thumbnail covering that many pixels; until the image's
+        // thumbnails are rendered the original is served
+        MediaRendition rendition = size != null && size > 0
+                ? gageMediaService.findRendition(media, size).orElse(null)
+                : null;
+        if (rendition != null) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(rendition.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().build().toString())
+                    .eTag("\"" + rendition.getBlobKey() + "\"")
+                    .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate())
+                    .body(gageMediaService.load(rendition));
+        }
+        Resource resource = gageMediaService.load(media);
+
+        ContentDisposition disposition = ContentDisposition.inline()
+                .filename(media.getFileName() != null ? media.getFileName() : media.getKind().name().toLowerCase() + "-" + mediaId)
+                .build();
+
+        // Content never changes for a key, so the hash is a strong validator
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(media.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .eTag("\"" + media.getBlobKey() + "\"")
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate())
+                .body(resource);
+    }
+
+    @DeleteMapping("/{mediaId}")
+    public ResponseEntity<Void> deleteMedia(@PathVariable Long gageId, @PathVariable Long mediaId) {
+        gageMediaService.deleteMedia(gageId, mediaId);
+        return ResponseEntity.noContent().build();
+    }
+}
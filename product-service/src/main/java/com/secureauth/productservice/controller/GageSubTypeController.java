@@ -4,6 +4,7 @@ import com.secureauth.productservice.dto.GageSubTypeRequest;
 import com.secureauth.productservice.dto.GageSubTypeResponse;
 import com.secureauth.productservice.service.GageSubTypeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,12 +25,12 @@ public class GageSubTypeController {
 
     @GetMapping("/{id}")
     public ResponseEntity<GageSubTypeResponse> getGageSubTypeById(@PathVariable Long id) {
-        return ResponseEntity.ok(gageSubTypeService.getGageSubTypeById(id));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(gageSubTypeService.getGageSubTypeById(id));
     }
 
     @GetMapping("/all")
     public ResponseEntity<List<GageSubTypeResponse>> getAllGageSubTypes() {
-        return ResponseEntity.ok(gageSubTypeService.getAllGageSubTypes());
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(gageSubTypeService.getAllGageSubTypes());
     }
 
     @PutMapping("/{id}")
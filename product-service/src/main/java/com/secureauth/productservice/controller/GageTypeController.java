@@ -4,6 +4,7 @@ import com.secureauth.productservice.dto.GageTypeRequest;
 import com.secureauth.productservice.dto.GageTypeResponse;
 import com.secureauth.productservice.service.GageTypeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,12 +25,12 @@ public class GageTypeController {
 
     @GetMapping("/{id}")
     public ResponseEntity<GageTypeResponse> getGageTypeById(@PathVariable Long id) {
-        return ResponseEntity.ok(gageTypeService.getGageTypeById(id));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(gageTypeService.getGageTypeById(id));
     }
 
     @GetMapping("/all")
     public ResponseEntity<List<GageTypeResponse>> getAllGageTypes() {
-        return ResponseEntity.ok(gageTypeService.getAllGageTypes());
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(gageTypeService.getAllGageTypes());
     }
 
     @PutMapping("/{id}")
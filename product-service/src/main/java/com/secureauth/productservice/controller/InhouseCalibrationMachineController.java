@@ -4,6 +4,7 @@ import com.secureauth.productservice.dto.InhouseCalibrationMachineRequest;
 import com.secureauth.productservice.dto.InhouseCalibrationMachineResponse;
 import com.secureauth.productservice.service.InhouseCalibrationMachineService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,12 +25,14 @@ public class InhouseCalibrationMachineController {
 
     @GetMapping("/{id}")
     public ResponseEntity<InhouseCalibrationMachineResponse> getInhouseCalibrationMachineById(@PathVariable Long id) {
-        return ResponseEntity.ok(inhouseCalibrationMachineService.getInhouseCalibrationMachineById(id));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(inhouseCalibrationMachineService.getInhouseCalibrationMachineById(id));
     }
 
     @GetMapping("/all")
     public ResponseEntity<List<InhouseCalibrationMachineResponse>> getAllInhouseCalibrationMachines() {
-        return ResponseEntity.ok(inhouseCalibrationMachineService.getAllInhouseCalibrationMachines());
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(inhouseCalibrationMachineService.getAllInhouseCalibrationMachines());
     }
 
     @PutMapping("/{id}")
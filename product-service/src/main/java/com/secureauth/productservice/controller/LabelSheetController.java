@@ -0,0 +1,69 @@
+package com.secureauth.productservice.controller;
+
+import com.secureauth.productservice.entity.Gage;
+import com.secureauth.productservice.service.LabelSheetService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+/**
+ * Printable label sheets. GET selects gages by filter (status, location, gage type) or by
+ * an {@code ids} list; POST takes the id list in the body for selections too long for a URL.
+ * The document is streamed page by page while it is generated.
+ */
+@RestController
+@RequestMapping("/api/gages/labels")
+@RequiredArgsConstructor
+public class LabelSheetController {
+
+    private final LabelSheetService labelSheetService;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> getLabels(
+            @RequestParam(value = "format", defaultValue = "pdf") String formatParam,
+            @RequestParam(value = "codes", defaultValue = "auto") String codesParam,
+            @RequestParam(value = "ids", required = false) List<Long> ids,
+            @RequestParam(value = "status", required = false) Gage.Status status,
+            @RequestParam(value = "location", required = false) Gage.Location location,
+            @RequestParam(value = "gageTypeName", required = false) String gageTypeName) {
+        LabelSheetService.Format format = LabelSheetService.Format.valueOf(formatParam.trim().toUpperCase());
+        LabelSheetService.CodeChoice codes = LabelSheetService.CodeChoice.valueOf(codesParam.trim().toUpperCase());
+        if (ids != null && !ids.isEmpty()) {
+            return stream(format, out -> labelSheetService.writeByIds(ids, codes, format, out));
+        }
+        return stream(format, out -> labelSheetService.writeByFilter(status, location, gageTypeName, codes, format, out));
+    }
+
+    @PostMapping
+    public ResponseEntity<StreamingResponseBody> getLabelsForIds(
+            @RequestBody List<Long> ids,
+            @RequestParam(value = "format", defaultValue = "pdf") String formatParam,
+            @RequestParam(value = "codes", defaultValue = "auto") String codesParam) {
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        LabelSheetService.Format format = LabelSheetService.Format.valueOf(formatParam.trim().toUpperCase());
+        LabelSheetService.CodeChoice codes = LabelSheetService.CodeChoice.valueOf(codesParam.trim().toUpperCase());
+        return stream(format, out -> labelSheetService.writeByIds(ids, codes, format, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> stream(LabelSheetService.Format format,
+                                                                StreamingResponseBody body) {
+        String fileName = "gage-labels." + format.name().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(LabelSheetService.contentType(format)))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
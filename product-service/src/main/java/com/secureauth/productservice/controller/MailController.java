@@ -1,5 +1,7 @@
 package com.secureauth.productservice.controller;
 
+import com.secureauth.productservice.entity.EmailOutbox;
+import com.secureauth.productservice.service.EmailOutboxService;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -8,7 +10,6 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.web.bind.annotation.*;
 
-import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -23,6 +24,9 @@ public class MailController {
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
             "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$"
     );
@@ -346,17 +350,20 @@ public class MailController {
         private List<MultipartFile> attachments; // ← New field
     }
 
-    // Method for sending HTML emails directly (used by services)
-    public void sendHtmlEmail(String to, String subject, String htmlContent) throws MessagingException {
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+    // Method for sending HTML emails (queued in the outbox, delivered by EmailDispatcher)
+    public void sendHtmlEmail(String to, String subject, String htmlContent) {
+        emailOutboxService.enqueueHtml(to, subject, htmlContent);
+    }
 
-        helper.setFrom("rms2@qsutra.com");
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(htmlContent, true); // true indicates HTML content
+    // Outbox inspection, e.g. ?status=DEAD for emails that ran out of retries
+    @GetMapping("/outbox")
+    public List<EmailOutbox> getOutbox(@RequestParam(value = "status", defaultValue = "DEAD") EmailOutbox.Status status) {
+        return emailOutboxService.findByStatus(status);
+    }
 
-        mailSender.send(mimeMessage);
+    @PostMapping("/outbox/{id}/retry")
+    public EmailOutbox retryOutboxEmail(@PathVariable Long id) {
+        return emailOutboxService.retry(id);
     }
 
     @GetMapping("/test")
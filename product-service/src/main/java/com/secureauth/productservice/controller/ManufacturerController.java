@@ -7,6 +7,7 @@ import com.secureauth.productservice.entity.Gage; // Add this import if not pres
 import com.secureauth.productservice.service.ManufacturerService;
 import com.secureauth.productservice.exception.ResourceNotFoundException; // Add this import
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -50,7 +51,7 @@ public class ManufacturerController {
     public ResponseEntity<ManufacturerResponse> getManufacturerById(@PathVariable Long id) {
         try {
             ManufacturerResponse manufacturer = manufacturerService.getManufacturerById(id);
-            return ResponseEntity.ok(manufacturer);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(manufacturer);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -72,7 +73,7 @@ public class ManufacturerController {
             logger.info("Fetching all manufacturers...");
             List<ManufacturerResponse> manufacturers = manufacturerService.getAllManufacturers();
             logger.info("Successfully fetched {} manufacturers", manufacturers.size());
-            return ResponseEntity.ok(manufacturers);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(manufacturers);
         } catch (Exception e) {
             logger.error("Error fetching all manufacturers: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -0,0 +1,26 @@
+package com.secureauth.productservice.controller;
+
+import com.secureauth.productservice.service.OperatorDirectoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Change notifications from secure-product-api: user, department, function or operation
+ * edits make the cached operator directory stale.
+ */
+@RestController
+@RequestMapping("/api/operator-directory")
+@RequiredArgsConstructor
+public class OperatorDirectoryController {
+
+    private final OperatorDirectoryService operatorDirectoryService;
+
+    @PostMapping("/invalidate")
+    public ResponseEntity<Void> invalidate() {
+        operatorDirectoryService.invalidate();
+        return ResponseEntity.noContent().build();
+    }
+}
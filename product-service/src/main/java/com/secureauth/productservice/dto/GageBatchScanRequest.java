@@ -0,0 +1,16 @@
+package com.secureauth.productservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GageBatchScanRequest {
+
+    @NotEmpty(message = "At least one serial number is required")
+    private List<String> serialNumbers;
+}
@@ -0,0 +1,31 @@
+package com.secureauth.productservice.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GageBatchScanResponse {
+
+    private int requested; // Distinct serials looked up
+    private int foundCount;
+
+    // Hits, in the order the serials were scanned
+    @Builder.Default
+    private List<GageScanResponse> found = new ArrayList<>();
+
+    // Serials with no matching gage
+    @Builder.Default
+    private List<String> notFound = new ArrayList<>();
+
+    // Image uploads only: file names whose barcode could not be decoded
+    @Builder.Default
+    private List<String> undecoded = new ArrayList<>();
+
+    private LocalDateTime scanTime;
+}
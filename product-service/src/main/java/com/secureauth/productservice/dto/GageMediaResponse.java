@@ -0,0 +1,21 @@
+package com.secureauth.productservice.dto;
+
+import com.secureauth.productservice.entity.GageMedia;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GageMediaResponse {
+
+    private Long id;
+    private GageMedia.Kind kind;
+    private String fileName;
+    private String contentType;
+    private Long fileSize;
+    private String url; // Streaming download endpoint
+    private LocalDateTime createdAt;
+}
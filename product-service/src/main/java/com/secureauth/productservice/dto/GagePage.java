@@ -0,0 +1,19 @@
+package com.secureauth.productservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GagePage {
+
+    private List<GageResponse> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private Long nextCursor; // Pass as "after" to fetch the next keyset page
+    private Long totalElements; // Only when requested with withTotal=true
+}
@@ -0,0 +1,27 @@
+package com.secureauth.productservice.dto;
+
+import lombok.*;
+
+/**
+ * Paging parameters for gage list endpoints. Either offset paging ({@code page}/{@code sort})
+ * or keyset paging ({@code after} = last id of the previous page, ordered by id) is used;
+ * {@code after} wins when both are present.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GagePageRequest {
+
+    private Integer page;
+    private Integer size;
+    private String sort; // "property" or "property,desc"
+    private Long after;
+
+    // Counting is a second query, so totals are only computed on request
+    private boolean withTotal;
+
+    public boolean isKeyset() {
+        return after != null;
+    }
+}
@@ -42,7 +42,7 @@ public class GageRequest {
     @NotNull(message = "Location is required")
     private Gage.Location location;
 
-    // ✅ Updated: support multiple images
+    // Base64 media accepted for JSON clients; decoded into the blob store on save
     private List<String> gageImages = new ArrayList<>();
 
     // ✅ New: optional videos
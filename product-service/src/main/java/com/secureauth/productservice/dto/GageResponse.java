@@ -43,20 +43,15 @@ public class GageResponse {
 
     private String notes;
 
-    // ✅ Updated: support multiple images
-    private List<String> gageImages = new ArrayList<>();
-
-    // ✅ New: optional videos
-    private List<String> gageVideos = new ArrayList<>();
-
-    // Manual (still single file)
-    private String gageManual;
+    // Images, videos and manual as references; bytes are streamed from /api/gages/{id}/media/{mediaId}
+    private List<GageMediaResponse> media = new ArrayList<>();
 
     // Calibration History
     private List<CalibrationHistoryResponse> calibrationHistory;
 
-    private String barcodeImage;
-    private String qrCodeImage;
+    // Rendered on demand; null when the gage's code type excludes that code
+    private String barcodeUrl;
+    private String qrCodeUrl;
 
     // Audit fields
     private LocalDate createdAt;
@@ -36,17 +36,11 @@ public class GageScanResponse {
     private Integer remainingDays;
     private String notes;
 
-    // ✅ Updated: support multiple images
-    private List<String> gageImages = new ArrayList<>();
+    // Media references; bytes are streamed from /api/gages/{id}/media/{mediaId}
+    private List<GageMediaResponse> media = new ArrayList<>();
 
-    // ✅ New: optional videos
-    private List<String> gageVideos = new ArrayList<>();
-
-    // Optional: keep gageImage for backward compatibility (but it will be null/unused)
-    // private String gageImage;
-
-    private String barcodeImage;
-    private String qrCodeImage;
+    private String barcodeUrl;
+    private String qrCodeUrl;
     private LocalDateTime scanTime;
 
     @Builder.Default
@@ -0,0 +1,50 @@
+package com.secureauth.productservice.dto;
+
+import com.secureauth.productservice.entity.Gage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Scalar-only view of a gage, populated by a JPQL constructor expression in
+ * {@link com.secureauth.productservice.repository.GageRepository}. It never touches
+ * media, barcode/QR images or calibration history, so list endpoints stay small.
+ * Constructor argument order must match {@code GageRepository.SUMMARY_SELECT}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GageSummary {
+
+    private Long id;
+    private String serialNumber;
+    private String modelNumber;
+    private Long gageTypeId;
+    private String gageTypeName;
+    private Long gageSubTypeId;
+    private String gageSubTypeName;
+    private Long inhouseCalibrationMachineId;
+    private String inhouseCalibrationMachineName;
+    private Gage.UsageFrequency usageFrequency;
+    private Gage.Criticality criticality;
+    private Gage.Location location;
+    private Gage.Status status;
+    private String measurementRange;
+    private String accuracy;
+    private LocalDate purchaseDate;
+    private Long manufacturerId;
+    private String manufacturerName;
+    private Integer calibrationInterval;
+    private LocalDate nextCalibrationDate;
+    private Integer maxUsersNumber;
+    private LocalDate pendingCalibrationDate;
+    private Integer usageDaysConsumed;
+    private Gage.CodeType codeType;
+    private String notes;
+
+    public Integer getRemainingDays() {
+        return Gage.remainingDaysFor(nextCalibrationDate, usageDaysConsumed);
+    }
+}
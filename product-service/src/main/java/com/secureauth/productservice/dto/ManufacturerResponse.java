@@ -10,7 +10,7 @@ import java.util.stream.Collectors;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ManufacturerResponse {
 
     private Long id;
@@ -29,19 +29,13 @@ public class ManufacturerResponse {
     private Set<Long> gageIds; // Only IDs to avoid circular references
     
     public static ManufacturerResponse fromEntity(Manufacturer manufacturer) {
-        Set<Long> gageIds = null;
-        try {
-            // Safely handle the gages relationship to prevent LazyInitializationException
-            if (manufacturer.getGages() != null && !manufacturer.getGages().isEmpty()) {
-                gageIds = manufacturer.getGages().stream()
-                    .map(gage -> gage.getId())
-                    .collect(Collectors.toSet());
-            }
-        } catch (Exception e) {
-            // If we can't access gages (e.g., LazyInitializationException), set to null
-            gageIds = null;
-        }
-        
+        return fromEntity(manufacturer, gageIdsOf(manufacturer));
+    }
+
+    /**
+     * Variant for callers that already know the gage ids, so the gages collection is not loaded.
+     */
+    public static ManufacturerResponse fromEntity(Manufacturer manufacturer, Set<Long> gageIds) {
         return ManufacturerResponse.builder()
                 .id(manufacturer.getId())
                 .name(manufacturer.getName())
@@ -59,4 +53,20 @@ public class ManufacturerResponse {
                 .gageIds(gageIds)
                 .build();
     }
+
+    private static Set<Long> gageIdsOf(Manufacturer manufacturer) {
+        Set<Long> gageIds = null;
+        try {
+            // Safely handle the gages relationship to prevent LazyInitializationException
+            if (manufacturer.getGages() != null && !manufacturer.getGages().isEmpty()) {
+                gageIds = manufacturer.getGages().stream()
+                    .map(gage -> gage.getId())
+                    .collect(Collectors.toSet());
+            }
+        } catch (Exception e) {
+            // If we can't access gages (e.g., LazyInitializationException), set to null
+            gageIds = null;
+        }
+        return gageIds;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.secureauth.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A rendered calibration certificate PDF held in the blob store. There is one row per
+ * calibration history record and template version, so changing the certificate layout
+ * (a new template version) re-renders certificates lazily instead of serving stale ones.
+ * See {@code CalibrationCertificateService}.
+ */
+@Entity
+@Table(name = "calibration_certificates",
+        uniqueConstraints = @UniqueConstraint(name = "uk_certificate_history_version",
+                columnNames = {"calibration_history_id", "template_version"}),
+        indexes = @Index(name = "idx_certificate_blob_key", columnList = "blob_key"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalibrationCertificate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain id rather than an association: the worker writes rows without loading the history
+    @Column(name = "calibration_history_id", nullable = false)
+    private Long calibrationHistoryId;
+
+    @Column(name = "template_version", nullable = false)
+    private Integer templateVersion;
+
+    @Column(name = "blob_key", nullable = false, length = 64)
+    private String blobKey;
+
+    private Long fileSize;
+
+    @Column(nullable = false)
+    private LocalDateTime renderedAt;
+}
@@ -8,7 +8,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "calibration_history")
+@Table(name = "calibration_history", indexes = {
+        // Certificate export reads one calibration-date range at a time, in (date, id) keyset order
+        @Index(name = "idx_calibration_history_date_id", columnList = "calibrationDate, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -6,8 +6,15 @@ import lombok.*;
 
 import java.time.LocalDate;
 
+/**
+ * A document, image or video attached to a calibration record. The bytes live in the blob
+ * store under {@link #blobKey}; see {@code LegacyCalibrationMediaMigrator} for rows that
+ * still carry them in the old {@code file_data} column.
+ */
 @Entity
-@Table(name = "calibration_media")
+@Table(name = "calibration_media", indexes = {
+        @Index(name = "idx_calibration_media_blob_key", columnList = "blob_key")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,8 +38,9 @@ public class CalibrationMedia {
     @Column(nullable = false)
     private String mimeType;
 
-    @Column(columnDefinition = "BYTEA", nullable = false)
-    private byte[] fileData;
+    // SHA-256 of the content, hex encoded. Nullable only so the column can be added to existing tables
+    @Column(name = "blob_key", length = 64)
+    private String blobKey;
 
     private String description;
 
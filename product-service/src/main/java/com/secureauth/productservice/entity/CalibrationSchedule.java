@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "calibration_schedules")
+@Table(name = "calibration_schedules", indexes = {
+        @Index(name = "idx_calibration_schedules_email", columnList = "emailOutboxId")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -51,10 +53,13 @@ public class CalibrationSchedule {
     @Column(nullable = false)
     private ScheduleStatus status;
 
+    // Set by the mail dispatcher once the queued email (emailOutboxId) was delivered
     private Boolean emailSent;
 
     private LocalDateTime emailSentAt;
 
+    private Long emailOutboxId;
+
     // Audit fields
     @Column(nullable = false)
     private LocalDateTime createdAt;
@@ -102,4 +107,8 @@ public class CalibrationSchedule {
     public enum ScheduleStatus {
         SCHEDULED, IN_PROGRESS, COMPLETED, CANCELLED, RESCHEDULED
     }
+
+    public enum PhotoView {
+        SERIAL_NUMBER, FRONT_VIEW, BACK_VIEW
+    }
 }
\ No newline at end of file
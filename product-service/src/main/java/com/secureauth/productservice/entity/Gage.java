@@ -9,7 +9,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "gages")
+@Table(name = "gages", indexes = {
+        // Keyset paging of the filtered list endpoints: WHERE <filter> AND id > :after ORDER BY id
+        @Index(name = "idx_gages_status_id", columnList = "status, id"),
+        @Index(name = "idx_gages_location_id", columnList = "location, id"),
+        @Index(name = "idx_gages_type_id", columnList = "gage_type_id, id"),
+        // Search matches on sub-type and manufacturer names resolve through these
+        @Index(name = "idx_gages_sub_type", columnList = "gage_sub_type_id"),
+        @Index(name = "idx_gages_manufacturer", columnList = "manufacturer_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -68,35 +76,26 @@ public class Gage {
     private LocalDate nextCalibrationDate;
     private Integer maxUsersNumber;
     private LocalDate pendingCalibrationDate; // Auto-calculated based on criticality
-    private Integer remainingDays; // Daily countdown from today to next calibration date
+
+    // Usage days booked against the current calibration cycle; reset when the gage is recalibrated.
+    // Remaining days are derived from this and nextCalibrationDate on read, never stored.
+    @Builder.Default
+    private Integer usageDaysConsumed = 0;
+
+    // Bumped by every JPA write and by the usage reservation UPDATE in GageRepository, so a
+    // stale read-modify-write cannot silently overwrite usage booked in between
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
 
     @Column(columnDefinition = "TEXT")
     private String notes;
 
-    // ✅ MULTIPLE GAGE IMAGES (replaces single gageImage)
-    @ElementCollection
-    @CollectionTable(
-            name = "gage_images",
-            joinColumns = @JoinColumn(name = "gage_id")
-    )
-    @Column(name = "image_data", columnDefinition = "TEXT")
-    @Builder.Default
-    private List<String> gageImages = new ArrayList<>();
-
-    // ✅ OPTIONAL VIDEO UPLOAD
-    @ElementCollection
-    @CollectionTable(
-            name = "gage_videos",
-            joinColumns = @JoinColumn(name = "gage_id")
-    )
-    @Column(name = "video_data", columnDefinition = "TEXT")
+    // Images, videos and manual; bytes live in the blob store, only references are kept here
+    @OneToMany(mappedBy = "gage", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OrderBy("id ASC")
     @Builder.Default
-    private List<String> gageVideos = new ArrayList<>();
-
-    // Manual field (still single file)
-    @Lob
-    @Column(columnDefinition = "TEXT")
-    private String gageManual;
+    private List<GageMedia> media = new ArrayList<>();
 
     // Calibration History relationship
     @OneToMany(mappedBy = "gage", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
@@ -110,58 +109,40 @@ public class Gage {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
-        if (remainingDays == null) {
-            // Initialize remaining days if not set
-            calculateRemainingDays();
-        }
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
-        // Recalculate remaining days on update
-        calculateRemainingDays();
     }
 
-    @Lob
-    @Column(columnDefinition = "TEXT")
-    private String barcodeImage; // Base64-encoded PNG of the barcode
-
-    @Lob
-    @Column(columnDefinition = "TEXT")
-    private String qrCodeImage; // Base64 QR code
-
+    // Which codes the gage carries; the images are rendered on demand (see GageCodeService)
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @Builder.Default
     private CodeType codeType = CodeType.BARCODE_ONLY; // default
 
-    // Helper method to calculate remaining days until next calibration
-    private void calculateRemainingDays() {
-        if (nextCalibrationDate != null) {
-            LocalDate today = LocalDate.now();
-            if (nextCalibrationDate.isAfter(today)) {
-                this.remainingDays = (int) java.time.temporal.ChronoUnit.DAYS.between(today, nextCalibrationDate);
-            } else {
-                this.remainingDays = 0; // Overdue
-            }
-        }
+    // Remaining calibration budget: days until next calibration minus usage days already consumed
+    public Integer getRemainingDays() {
+        return remainingDaysFor(nextCalibrationDate, usageDaysConsumed);
     }
 
-    // Helper method to add image
-    public void addImage(String base64Image) {
-        if (this.gageImages == null) {
-            this.gageImages = new ArrayList<>();
+    public static Integer remainingDaysFor(LocalDate nextCalibrationDate, Integer usageDaysConsumed) {
+        if (nextCalibrationDate == null) {
+            return null;
         }
-        this.gageImages.add(base64Image);
+        long untilDue = java.time.temporal.ChronoUnit.DAYS.between(LocalDate.now(), nextCalibrationDate);
+        long consumed = usageDaysConsumed != null ? usageDaysConsumed : 0;
+        return (int) Math.max(0, untilDue - consumed); // 0 when overdue or fully consumed
     }
 
-    // Helper method to add video
-    public void addVideo(String base64Video) {
-        if (this.gageVideos == null) {
-            this.gageVideos = new ArrayList<>();
+    // Helper method to attach a media reference
+    public void addMedia(GageMedia item) {
+        if (this.media == null) {
+            this.media = new ArrayList<>();
         }
-        this.gageVideos.add(base64Video);
+        item.setGage(this);
+        this.media.add(item);
     }
 
     // Helper method to add calibration history
@@ -250,7 +231,7 @@ public class Gage {
                 ", criticality=" + criticality +
                 ", location=" + location +
                 ", nextCalibrationDate=" + nextCalibrationDate +
-                ", remainingDays=" + remainingDays +
+                ", remainingDays=" + getRemainingDays() +
                 '}';
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.secureauth.productservice.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -9,7 +10,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "gage_issues")
+@Table(name = "gage_issues", indexes = {
+        // Operator dashboards filter on department first, then function and operation
+        @Index(name = "idx_gage_issues_allocation", columnList = "department, functionName, operationName"),
+        // Latest issue per serial (current allocation lookups)
+        @Index(name = "idx_gage_issues_serial", columnList = "serialNumber, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -37,13 +43,16 @@ public class GageIssue {
 
     private String assignedTo;
 
+    // Two bags cannot be join-fetched together; batch-load them for list pages instead
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "gage_issue_tags", joinColumns = @JoinColumn(name = "issue_id"))
     @Column(name = "tag")
     private List<String> tags = new ArrayList<>();
 
     // For now, store attachment filenames or simple identifiers (no blob storage here)
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "gage_issue_attachments", joinColumns = @JoinColumn(name = "issue_id"))
     @Column(name = "attachment_name")
     private List<String> attachments = new ArrayList<>();
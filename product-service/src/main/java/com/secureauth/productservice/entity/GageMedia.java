@@ -0,0 +1,60 @@
+package com.secureauth.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reference to a gage image, video or manual held in the blob store.
+ * Only metadata lives in the database; the bytes are addressed by {@link #blobKey}.
+ */
+@Entity
+@Table(name = "gage_media", indexes = {
+        @Index(name = "idx_gage_media_gage", columnList = "gage_id"),
+        @Index(name = "idx_gage_media_blob_key", columnList = "blob_key")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GageMedia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "gage_id", nullable = false)
+    private Gage gage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Kind kind;
+
+    // SHA-256 of the content, hex encoded
+    @Column(name = "blob_key", nullable = false, length = 64)
+    private String blobKey;
+
+    private String fileName;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    private Long fileSize;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum Kind {
+        IMAGE,
+        VIDEO,
+        MANUAL
+    }
+}
@@ -0,0 +1,36 @@
+package com.secureauth.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of the usage recorded in {@link Job} rows for one gage serial number.
+ * Incremented in the same transaction as the job insert, so validation reads one row
+ * instead of summing the usage history; {@code GageUsageCounterService.reconcile}
+ * recomputes it from the jobs table to repair any drift.
+ */
+@Entity
+@Table(name = "gage_usage_counter")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GageUsageCounter {
+
+    // Keyed by serial like Job.gageSerialNumber, so usage against unknown serials is counted too
+    @Id
+    @Column(name = "serial_number")
+    private String serialNumber;
+
+    @Column(name = "total_uses", nullable = false)
+    private long totalUses;
+
+    @Column(name = "total_days_used", nullable = false)
+    private long totalDaysUsed;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -9,7 +9,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+        @Index(name = "idx_jobs_gage_serial", columnList = "gageSerialNumber")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,52 @@
+package com.secureauth.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A downscaled JPEG of an uploaded image, held in the blob store like the original.
+ * {@link #sourceKey} names the original: the blob key of a gage image, or
+ * {@code schedule:<id>:<view>} for a calibration schedule photo. {@link #maxDimension} is the
+ * requested longest side; the last rendition of a small original keeps the original size.
+ * See {@code MediaThumbnailService}.
+ */
+@Entity
+@Table(name = "media_renditions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_media_rendition_source_size", columnNames = {"source_key", "max_dimension"}),
+        indexes = @Index(name = "idx_media_rendition_blob_key", columnList = "blob_key"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaRendition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_key", nullable = false, length = 100)
+    private String sourceKey;
+
+    @Column(name = "max_dimension", nullable = false)
+    private Integer maxDimension;
+
+    @Column(nullable = false)
+    private Integer width;
+
+    @Column(nullable = false)
+    private Integer height;
+
+    @Column(name = "blob_key", nullable = false, length = 64)
+    private String blobKey;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    private Long fileSize;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,47 @@
+package com.secureauth.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One notification waiting to be folded into a recipient's next digest email. The
+ * (recipient, dedupe key) pair is unique and rows are kept for a while after they were
+ * flushed, so the same event raised again (e.g. an expiry warning on every scheduler run)
+ * is dropped instead of mailed again. See {@code NotificationDigestService}.
+ */
+@Entity
+@Table(name = "notification_digest_entry",
+        uniqueConstraints = @UniqueConstraint(name = "uk_digest_recipient_key", columnNames = {"recipient", "dedupe_key"}),
+        indexes = @Index(name = "idx_digest_pending", columnList = "flushed_at, recipient"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationDigestEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 320)
+    private String recipient;
+
+    @Column(name = "dedupe_key", nullable = false, length = 200)
+    private String dedupeKey;
+
+    @Column(nullable = false, length = 500)
+    private String subject;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Null until the entry went out in a digest
+    @Column(name = "flushed_at")
+    private LocalDateTime flushedAt;
+}
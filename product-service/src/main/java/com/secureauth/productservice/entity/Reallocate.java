@@ -6,7 +6,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reallocates")
+@Table(name = "reallocates", indexes = {
+        // Active reallocation per gage (current allocation lookups)
+        @Index(name = "idx_reallocates_gage_status", columnList = "gage_id, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,32 @@
+package com.secureauth.productservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the barcode decode pool is saturated or a decode does not finish in time.
+ * This exception will result in a 503 Service Unavailable HTTP response; the client
+ * should retry the upload shortly.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ScanDecodeRejectedException extends RuntimeException {
+
+    /**
+     * Constructs a new ScanDecodeRejectedException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public ScanDecodeRejectedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new ScanDecodeRejectedException with the specified detail message and cause.
+     *
+     * @param message the detail message
+     * @param cause   the cause
+     */
+    public ScanDecodeRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
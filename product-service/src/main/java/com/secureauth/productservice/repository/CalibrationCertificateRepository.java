@@ -0,0 +1,40 @@
+package com.secureauth.productservice.repository;
+
+import com.secureauth.productservice.entity.CalibrationCertificate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CalibrationCertificateRepository extends JpaRepository<CalibrationCertificate, Long> {
+
+    // Re-rendering the same version replaces the blob key; the old key is released by the caller
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO calibration_certificates (calibration_history_id, template_version, blob_key, file_size, rendered_at) " +
+            "VALUES (:historyId, :templateVersion, :blobKey, :fileSize, :renderedAt) " +
+            "ON CONFLICT (calibration_history_id, template_version) DO UPDATE SET blob_key = EXCLUDED.blob_key, " +
+            "file_size = EXCLUDED.file_size, rendered_at = EXCLUDED.rendered_at", nativeQuery = true)
+    int upsert(@Param("historyId") Long historyId, @Param("templateVersion") int templateVersion,
+               @Param("blobKey") String blobKey, @Param("fileSize") long fileSize,
+               @Param("renderedAt") LocalDateTime renderedAt);
+
+    Optional<CalibrationCertificate> findByCalibrationHistoryIdAndTemplateVersion(Long historyId, Integer templateVersion);
+
+    List<CalibrationCertificate> findByCalibrationHistoryId(Long historyId);
+
+    List<CalibrationCertificate> findByCalibrationHistoryIdInAndTemplateVersion(Collection<Long> historyIds,
+                                                                               Integer templateVersion);
+
+    long countByBlobKey(String blobKey);
+
+    @Modifying
+    @Query("DELETE FROM CalibrationCertificate c WHERE c.calibrationHistoryId = :historyId AND c.templateVersion <> :templateVersion")
+    int deleteOtherVersions(@Param("historyId") Long historyId, @Param("templateVersion") int templateVersion);
+}
@@ -2,13 +2,16 @@ package com.secureauth.productservice.repository;
 
 import com.secureauth.productservice.entity.CalibrationHistory;
 import com.secureauth.productservice.entity.Gage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CalibrationHistoryRepository extends JpaRepository<CalibrationHistory, Long> {
@@ -31,4 +34,58 @@ public interface CalibrationHistoryRepository extends JpaRepository<CalibrationH
     List<CalibrationHistory> findByPerformedBy(String performedBy);
     
     List<CalibrationHistory> findByGageId(Long gageId);
-} 
\ No newline at end of file
+
+    // =============== CERTIFICATE EXPORT ===============
+    // Keyset chunks of one calibration-date range in (calibrationDate, id) order, so every chunk
+    // is a range scan of idx_calibration_history_date_id that starts where the previous one ended
+    // and stops after one page; the BETWEEN bounds the scan, the OR skips rows already exported.
+    // The first chunk starts after (from, 0). Department, function and operation match the gage's
+    // current allocation (GageRepository.ALLOCATION_MATCH); a null department exports every gage.
+    @Query("SELECT ch.id AS id, g.serialNumber AS serialNumber, gt.name AS gageTypeName, "
+            + "ch.calibrationDate AS calibrationDate, ch.nextDueDate AS nextDueDate, ch.status AS status, "
+            + "ch.performedBy AS performedBy, "
+            + "CASE WHEN ch.certificate IS NOT NULL THEN true ELSE false END AS certificateUploaded "
+            + "FROM CalibrationHistory ch JOIN ch.gage g LEFT JOIN g.gageType gt "
+            + "WHERE ch.calibrationDate BETWEEN :afterDate AND :to "
+            + "AND (ch.calibrationDate > :afterDate OR (ch.calibrationDate = :afterDate AND ch.id > :afterId)) "
+            + "AND (:department IS NULL OR " + GageRepository.ALLOCATION_MATCH + ") "
+            + "ORDER BY ch.calibrationDate, ch.id")
+    List<ExportRow> findExportChunk(@Param("to") LocalDate to,
+                                    @Param("department") String department,
+                                    @Param("function") String function,
+                                    @Param("operation") String operation,
+                                    @Param("afterDate") LocalDate afterDate,
+                                    @Param("afterId") long afterId, Pageable pageable);
+
+    interface ExportRow {
+        Long getId();
+
+        String getSerialNumber();
+
+        String getGageTypeName();
+
+        LocalDate getCalibrationDate();
+
+        LocalDate getNextDueDate();
+
+        CalibrationHistory.CalibrationStatus getStatus();
+
+        String getPerformedBy();
+
+        Boolean getCertificateUploaded();
+    }
+
+    // The certificate supplied with complete-calibration, read without loading the record
+    @Query("SELECT ch.id AS id, ch.certificate AS content FROM CalibrationHistory ch "
+            + "WHERE ch.id = :id AND ch.certificate IS NOT NULL")
+    Optional<UploadedCertificate> findUploadedCertificate(@Param("id") Long id);
+
+    @Query("SELECT ch.id AS id, ch.certificate AS content FROM CalibrationHistory ch "
+            + "WHERE ch.id IN :ids AND ch.certificate IS NOT NULL")
+    List<UploadedCertificate> findUploadedCertificates(@Param("ids") Collection<Long> ids);
+
+    interface UploadedCertificate {
+        Long getId();
+        byte[] getContent();
+    }
+}
@@ -9,4 +9,6 @@ import java.util.List;
 @Repository
 public interface CalibrationMediaRepository extends JpaRepository<CalibrationMedia, Long> {
     List<CalibrationMedia> findByCalibrationHistoryId(Long calibrationHistoryId);
+
+    long countByBlobKey(String blobKey);
 }
\ No newline at end of file
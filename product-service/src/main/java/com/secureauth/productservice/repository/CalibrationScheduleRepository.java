@@ -1,22 +1,64 @@
 package com.secureauth.productservice.repository;
 
 import com.secureauth.productservice.entity.CalibrationSchedule;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CalibrationScheduleRepository extends JpaRepository<CalibrationSchedule, Long> {
 
+    // Schedule responses show the gage serial and type name; fetch both with the rows
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<CalibrationSchedule> findByGageId(Long gageId);
 
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<CalibrationSchedule> findByStatus(CalibrationSchedule.ScheduleStatus status);
 
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<CalibrationSchedule> findByScheduledDateBetween(LocalDate startDate, LocalDate endDate);
 
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<CalibrationSchedule> findByAssignedTo(String assignedTo);
 
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<CalibrationSchedule> findByLaboratory(String laboratory);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("UPDATE CalibrationSchedule s SET s.emailSent = true, s.emailSentAt = :sentAt WHERE s.emailOutboxId = :emailId")
+    int markEmailSent(@Param("emailId") Long emailId, @Param("sentAt") LocalDateTime sentAt);
+
+    // Photo endpoints read one column at a time; loading the entity would pull all three photos
+
+    @Query("SELECT s.createdAt AS createdAt, s.updatedAt AS updatedAt FROM CalibrationSchedule s WHERE s.id = :id")
+    Optional<Timestamps> findTimestampsById(@Param("id") Long id);
+
+    @Query("SELECT s.serialNumberPhoto AS data, s.serialNumberPhotoContentType AS contentType FROM CalibrationSchedule s WHERE s.id = :id")
+    Optional<Photo> findSerialNumberPhotoById(@Param("id") Long id);
+
+    @Query("SELECT s.frontViewPhoto AS data, s.frontViewPhotoContentType AS contentType FROM CalibrationSchedule s WHERE s.id = :id")
+    Optional<Photo> findFrontViewPhotoById(@Param("id") Long id);
+
+    @Query("SELECT s.backViewPhoto AS data, s.backViewPhotoContentType AS contentType FROM CalibrationSchedule s WHERE s.id = :id")
+    Optional<Photo> findBackViewPhotoById(@Param("id") Long id);
+
+    interface Timestamps {
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    interface Photo {
+        byte[] getData();
+
+        String getContentType();
+    }
+}
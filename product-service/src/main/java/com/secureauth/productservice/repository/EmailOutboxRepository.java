@@ -0,0 +1,44 @@
+package com.secureauth.productservice.repository;
+
+import com.secureauth.productservice.entity.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Locks up to {@code limit} due messages: PENDING ones whose backoff has elapsed and
+     * SENDING ones whose lease expired (the dispatcher holding them died). SKIP LOCKED lets
+     * several instances claim disjoint batches without waiting on each other.
+     */
+    @Query(value = "SELECT id FROM email_outbox " +
+            "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.sentAt = :sentAt, e.lastError = null WHERE e.id = :id")
+    int markSent(@Param("id") Long id, @Param("sentAt") LocalDateTime sentAt,
+                 @Param("status") EmailOutbox.Status status);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error " +
+            "WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("status") EmailOutbox.Status status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = :status AND e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before, @Param("status") EmailOutbox.Status status);
+
+    List<EmailOutbox> findTop200ByStatusOrderByIdDesc(EmailOutbox.Status status);
+
+    long countByStatus(EmailOutbox.Status status);
+}
@@ -1,16 +1,74 @@
 package com.secureauth.productservice.repository;
 
 import com.secureauth.productservice.entity.GageIssue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface GageIssueRepository extends JpaRepository<GageIssue, Long> {
     
     // Find usage records by serial number
     List<GageIssue> findBySerialNumber(String serialNumber);
-}
 
+    // =============== OPERATOR CONTEXT FILTERING ===============
+    // Department is mandatory (served by idx_gage_issues_allocation); function and operation only
+    // raise the score. Callers pass non-empty collections (see GageFilteringService).
+    String OPERATOR_MATCH = "FROM GageIssue i WHERE i.department IN :departments ";
+
+    // 100 for the department, +50 for a matching function, +25 for a matching operation.
+    // The <> '' guards keep the empty-set placeholder ('') from ever scoring.
+    String MATCH_SCORE = "(100 + CASE WHEN i.functionName <> '' AND i.functionName IN :functions THEN 50 ELSE 0 END"
+            + " + CASE WHEN i.operationName <> '' AND i.operationName IN :operations THEN 25 ELSE 0 END)";
+
+    // Every allocation field that is set matches the operator; blank fields do not disqualify
+    String EXACT_MATCH = "((i.functionName IS NULL OR TRIM(i.functionName) = '' OR i.functionName IN :functions)"
+            + " AND (i.operationName IS NULL OR TRIM(i.operationName) = '' OR i.operationName IN :operations))";
+
+    @EntityGraph(attributePaths = {"gage"})
+    @Query(value = "SELECT i " + OPERATOR_MATCH + "ORDER BY i.id",
+            countQuery = "SELECT COUNT(i) " + OPERATOR_MATCH)
+    Page<GageIssue> findForOperator(@Param("departments") Collection<String> departments,
+                                    Pageable pageable);
+
+    @EntityGraph(attributePaths = {"gage"})
+    @Query(value = "SELECT i " + OPERATOR_MATCH + "ORDER BY " + MATCH_SCORE + " DESC, i.id",
+            countQuery = "SELECT COUNT(i) " + OPERATOR_MATCH)
+    Page<GageIssue> findForOperatorByScore(@Param("departments") Collection<String> departments,
+                                           @Param("functions") Collection<String> functions,
+                                           @Param("operations") Collection<String> operations,
+                                           Pageable pageable);
 
+    @EntityGraph(attributePaths = {"gage"})
+    @Query(value = "SELECT i " + OPERATOR_MATCH + "AND " + EXACT_MATCH + " ORDER BY i.id",
+            countQuery = "SELECT COUNT(i) " + OPERATOR_MATCH + "AND " + EXACT_MATCH)
+    Page<GageIssue> findExactForOperator(@Param("departments") Collection<String> departments,
+                                         @Param("functions") Collection<String> functions,
+                                         @Param("operations") Collection<String> operations,
+                                         Pageable pageable);
+
+    @EntityGraph(attributePaths = {"gage"})
+    @Query(value = "SELECT i " + OPERATOR_MATCH + "AND NOT " + EXACT_MATCH + " ORDER BY i.id",
+            countQuery = "SELECT COUNT(i) " + OPERATOR_MATCH + "AND NOT " + EXACT_MATCH)
+    Page<GageIssue> findPartialForOperator(@Param("departments") Collection<String> departments,
+                                           @Param("functions") Collection<String> functions,
+                                           @Param("operations") Collection<String> operations,
+                                           Pageable pageable);
+
+    interface OperatorMatchCounts {
+        long getMatched();
+
+        Long getExact();
+    }
+
+    @Query("SELECT COUNT(i) AS matched, SUM(CASE WHEN " + EXACT_MATCH + " THEN 1 ELSE 0 END) AS exact "
+            + OPERATOR_MATCH)
+    OperatorMatchCounts countForOperator(@Param("departments") Collection<String> departments,
+                                         @Param("functions") Collection<String> functions,
+                                         @Param("operations") Collection<String> operations);
+}
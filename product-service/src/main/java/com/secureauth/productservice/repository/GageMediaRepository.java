@@ -0,0 +1,22 @@
+package com.secureauth.productservice.repository;
+
+import com.secureauth.productservice.entity.GageMedia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GageMediaRepository extends JpaRepository<GageMedia, Long> {
+
+    List<GageMedia> findByGageIdOrderByIdAsc(Long gageId);
+
+    List<GageMedia> findByGageIdInOrderByIdAsc(Collection<Long> gageIds);
+
+    Optional<GageMedia> findByIdAndGageId(Long id, Long gageId);
+
+    // Used before deleting a blob: identical content may be shared by several gages
+    long countByBlobKey(String blobKey);
+}
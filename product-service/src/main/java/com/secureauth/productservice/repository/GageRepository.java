@@ -1,20 +1,188 @@
 package com.secureauth.productservice.repository;
 
+import com.secureauth.productservice.dto.GageSummary;
 import com.secureauth.productservice.entity.Gage;
 import com.secureauth.productservice.entity.GageType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GageRepository extends JpaRepository<Gage, Long> {
 
+    // =============== SUMMARY PROJECTION ===============
+    // Scalar columns only: list endpoints must never pull media or barcode/QR images
+    String SUMMARY_SELECT = "SELECT new com.secureauth.productservice.dto.GageSummary("
+            + "g.id, g.serialNumber, g.modelNumber, gt.id, gt.name, st.id, st.name, mc.id, mc.machineName, "
+            + "g.usageFrequency, g.criticality, g.location, g.status, g.measurementRange, g.accuracy, "
+            + "g.purchaseDate, m.id, m.name, g.calibrationInterval, g.nextCalibrationDate, g.maxUsersNumber, "
+            + "g.pendingCalibrationDate, g.usageDaysConsumed, g.codeType, g.notes) "
+            + "FROM Gage g LEFT JOIN g.gageType gt LEFT JOIN g.gageSubType st "
+            + "LEFT JOIN g.inhouseCalibrationMachine mc LEFT JOIN g.manufacturer m ";
+
+    @Query(SUMMARY_SELECT + "ORDER BY g.id")
+    List<GageSummary> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + "WHERE g.serialNumber = :serialNumber")
+    Optional<GageSummary> findSummaryBySerialNumber(@Param("serialNumber") String serialNumber);
+
+    @Query(SUMMARY_SELECT + "WHERE g.status = :status ORDER BY g.id")
+    List<GageSummary> findSummariesByStatus(@Param("status") Gage.Status status);
+
+    @Query(SUMMARY_SELECT + "WHERE g.location = :location ORDER BY g.id")
+    List<GageSummary> findSummariesByLocation(@Param("location") Gage.Location location);
+
+    @Query(SUMMARY_SELECT + "WHERE g.criticality = :criticality ORDER BY g.id")
+    List<GageSummary> findSummariesByCriticality(@Param("criticality") Gage.Criticality criticality);
+
+    @Query(SUMMARY_SELECT + "WHERE gt.id = :gageTypeId ORDER BY g.id")
+    List<GageSummary> findSummariesByGageTypeId(@Param("gageTypeId") Long gageTypeId);
+
+    @Query(SUMMARY_SELECT + "WHERE gt.name = :gageTypeName ORDER BY g.id")
+    List<GageSummary> findSummariesByGageTypeName(@Param("gageTypeName") String gageTypeName);
+
+    @Query(SUMMARY_SELECT + "WHERE st.id = :gageSubTypeId ORDER BY g.id")
+    List<GageSummary> findSummariesByGageSubTypeId(@Param("gageSubTypeId") Long gageSubTypeId);
+
+    @Query(SUMMARY_SELECT + "WHERE mc.id = :machineId ORDER BY g.id")
+    List<GageSummary> findSummariesByInhouseCalibrationMachineId(@Param("machineId") Long machineId);
+
+    @Query(SUMMARY_SELECT + "WHERE g.id IN :ids")
+    List<GageSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SUMMARY_SELECT + "WHERE g.serialNumber IN :serialNumbers")
+    List<GageSummary> findSummariesBySerialNumberIn(@Param("serialNumbers") Collection<String> serialNumbers);
+
+    // =============== SEARCH ===============
+    // PostgreSQL only: relies on pg_trgm and the GIN indexes created by SearchIndexInitializer.
+    // :term is the lower-cased search text, :contains / :prefix are LIKE patterns built from it.
+    String SEARCH_WHERE = "FROM gages g "
+            + "LEFT JOIN gage_types gt ON gt.id = g.gage_type_id "
+            + "LEFT JOIN gage_sub_types st ON st.id = g.gage_sub_type_id "
+            + "LEFT JOIN manufacturers m ON m.id = g.manufacturer_id "
+            + "WHERE lower(g.serial_number) LIKE :contains ESCAPE '\\' "
+            + "OR lower(g.model_number) LIKE :contains ESCAPE '\\' "
+            + "OR lower(g.serial_number) % :term "
+            + "OR lower(g.model_number) % :term "
+            + "OR g.gage_type_id IN (SELECT t.id FROM gage_types t WHERE lower(t.name) LIKE :contains ESCAPE '\\') "
+            + "OR g.gage_sub_type_id IN (SELECT s.id FROM gage_sub_types s WHERE lower(s.name) LIKE :contains ESCAPE '\\') "
+            + "OR g.manufacturer_id IN (SELECT x.id FROM manufacturers x WHERE lower(x.name) LIKE :contains ESCAPE '\\') ";
+
+    // Exact serial beats serial prefix, then model prefix, then type/sub-type/manufacturer prefix;
+    // trigram similarity orders matches within the same tier. Returns gage ids, best first.
+    @Query(value = "SELECT g.id FROM (SELECT g.id AS id, "
+            + "(CASE WHEN lower(g.serial_number) = :term THEN 8 "
+            + "      WHEN lower(g.serial_number) LIKE :prefix ESCAPE '\\' THEN 4 ELSE 0 END) "
+            + "+ (CASE WHEN lower(g.model_number) LIKE :prefix ESCAPE '\\' THEN 2 ELSE 0 END) "
+            + "+ (CASE WHEN lower(gt.name) LIKE :prefix ESCAPE '\\' OR lower(st.name) LIKE :prefix ESCAPE '\\' "
+            + "        OR lower(m.name) LIKE :prefix ESCAPE '\\' THEN 1 ELSE 0 END) "
+            + "+ GREATEST(similarity(lower(g.serial_number), :term), similarity(lower(g.model_number), :term), "
+            + "           similarity(lower(gt.name), :term), similarity(lower(st.name), :term), "
+            + "           similarity(lower(m.name), :term)) AS rank "
+            + SEARCH_WHERE + ") g ORDER BY g.rank DESC, g.id LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Long> searchRankedIds(@Param("term") String term, @Param("contains") String contains,
+                               @Param("prefix") String prefix, @Param("limit") int limit,
+                               @Param("offset") long offset);
+
+    @Query(value = "SELECT count(*) " + SEARCH_WHERE, nativeQuery = true)
+    long countSearchMatches(@Param("term") String term, @Param("contains") String contains);
+
+    // =============== PAGED SUMMARIES ===============
+    // "after" is the keyset cursor (last id seen, 0 for the first page); slices fetch size + 1 rows
+    // and never run a count query, totals are requested separately through the count methods
+    @Query(SUMMARY_SELECT + "WHERE g.id > :after")
+    Slice<GageSummary> findSummaryPage(@Param("after") long after, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE g.status = :status AND g.id > :after")
+    Slice<GageSummary> findSummaryPageByStatus(@Param("status") Gage.Status status,
+                                               @Param("after") long after, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE g.location = :location AND g.id > :after")
+    Slice<GageSummary> findSummaryPageByLocation(@Param("location") Gage.Location location,
+                                                 @Param("after") long after, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE gt.name = :gageTypeName AND g.id > :after")
+    Slice<GageSummary> findSummaryPageByGageTypeName(@Param("gageTypeName") String gageTypeName,
+                                                     @Param("after") long after, Pageable pageable);
+
+    // =============== CURRENT ALLOCATION FILTER ===============
+    // A gage's current allocation is its APPROVED reallocation when it has one, otherwise its latest
+    // issue record. Null parameters match anything. Served by idx_reallocates_gage_status and
+    // idx_gage_issues_serial.
+    String ALLOCATION_MATCH = "(EXISTS (SELECT r.id FROM Reallocate r WHERE r.gage = g AND r.status = 'APPROVED' "
+            + "AND (:department IS NULL OR r.currentDepartment = :department) "
+            + "AND (:function IS NULL OR r.currentFunction = :function) "
+            + "AND (:operation IS NULL OR r.currentOperation = :operation)) "
+            + "OR (NOT EXISTS (SELECT ra.id FROM Reallocate ra WHERE ra.gage = g AND ra.status = 'APPROVED') "
+            + "AND EXISTS (SELECT i.id FROM GageIssue i WHERE i.serialNumber = g.serialNumber "
+            + "AND i.id = (SELECT MAX(li.id) FROM GageIssue li WHERE li.serialNumber = g.serialNumber) "
+            + "AND (:department IS NULL OR i.department = :department) "
+            + "AND (:function IS NULL OR i.functionName = :function) "
+            + "AND (:operation IS NULL OR i.operationName = :operation)))) ";
+
+    @Query(SUMMARY_SELECT + "WHERE " + ALLOCATION_MATCH + "ORDER BY g.id")
+    List<GageSummary> findSummariesByAllocation(@Param("department") String department,
+                                                @Param("function") String function,
+                                                @Param("operation") String operation);
+
+    @Query(SUMMARY_SELECT + "WHERE " + ALLOCATION_MATCH + "AND g.id > :after")
+    Slice<GageSummary> findSummaryPageByAllocation(@Param("department") String department,
+                                                   @Param("function") String function,
+                                                   @Param("operation") String operation,
+                                                   @Param("after") long after, Pageable pageable);
+
+    @Query("SELECT COUNT(g) FROM Gage g WHERE " + ALLOCATION_MATCH)
+    long countByAllocation(@Param("department") String department, @Param("function") String function,
+                           @Param("operation") String operation);
+
+    // Label sheets: any combination of filters, read in keyset chunks ordered by id
+    @Query(SUMMARY_SELECT + "WHERE (:status IS NULL OR g.status = :status) "
+            + "AND (:location IS NULL OR g.location = :location) "
+            + "AND (:gageTypeName IS NULL OR gt.name = :gageTypeName) "
+            + "AND g.id > :after ORDER BY g.id")
+    List<GageSummary> findSummaryChunkForLabels(@Param("status") Gage.Status status,
+                                                @Param("location") Gage.Location location,
+                                                @Param("gageTypeName") String gageTypeName,
+                                                @Param("after") long after, Pageable pageable);
+
+    @Query("SELECT COUNT(g) FROM Gage g LEFT JOIN g.gageType gt WHERE (:status IS NULL OR g.status = :status) "
+            + "AND (:location IS NULL OR g.location = :location) "
+            + "AND (:gageTypeName IS NULL OR gt.name = :gageTypeName)")
+    long countForLabels(@Param("status") Gage.Status status, @Param("location") Gage.Location location,
+                        @Param("gageTypeName") String gageTypeName);
+
+    long countByStatus(Gage.Status status);
+
+    long countByLocation(Gage.Location location);
+
+    long countByGageTypeName(String gageTypeName);
+
     Optional<Gage> findBySerialNumber(String serialNumber);
 
+    // =============== DETAIL FETCH ===============
+    // Full entity plus every association GageServiceImpl.mapToGageResponse reads (including the
+    // machine's own type and sub-type, and the media metadata), joined in a single select
+    @EntityGraph(attributePaths = {"gageType", "gageSubType", "manufacturer", "inhouseCalibrationMachine",
+            "inhouseCalibrationMachine.gageType", "inhouseCalibrationMachine.gageSubType", "media"})
+    @Query("SELECT g FROM Gage g WHERE g.id = :id")
+    Optional<Gage> findDetailedById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"gageType", "gageSubType", "manufacturer", "inhouseCalibrationMachine",
+            "inhouseCalibrationMachine.gageType", "inhouseCalibrationMachine.gageSubType", "media"})
+    @Query("SELECT g FROM Gage g WHERE g.serialNumber = :serialNumber")
+    Optional<Gage> findDetailedBySerialNumber(@Param("serialNumber") String serialNumber);
+
     List<Gage> findByGageType(GageType gageType);
 
     List<Gage> findByGageSubTypeId(Long gageSubTypeId);
@@ -25,9 +193,6 @@ public interface GageRepository extends JpaRepository<Gage, Long> {
 
     List<Gage> findByStatus(Gage.Status status);
 
-    @Query("SELECT g FROM Gage g WHERE g.serialNumber LIKE %:searchTerm% OR g.modelNumber LIKE %:searchTerm%")
-    List<Gage> searchGages(@Param("searchTerm") String searchTerm);
-
     boolean existsBySerialNumber(String serialNumber);
 
     // Additional methods needed by the service
@@ -42,6 +207,31 @@ public interface GageRepository extends JpaRepository<Gage, Long> {
 
     List<Gage> findByManufacturerId(Long manufacturerId);
 
+    // Gage ids per manufacturer for the manufacturer list, instead of loading every gages collection
+    @Query("SELECT g.manufacturer.id AS manufacturerId, g.id AS gageId FROM Gage g WHERE g.manufacturer IS NOT NULL")
+    List<ManufacturerGageId> findManufacturerGageIds();
+
+    @Query("SELECT g.id FROM Gage g WHERE g.manufacturer.id = :manufacturerId")
+    List<Long> findIdsByManufacturerId(@Param("manufacturerId") Long manufacturerId);
+
+    interface ManufacturerGageId {
+        Long getManufacturerId();
+
+        Long getGageId();
+    }
+
     // Find gages mapped to an inhouse calibration machine
     List<Gage> findByInhouseCalibrationMachineId(Long inhouseCalibrationMachineId);
+
+    // =============== USAGE RESERVATION ===============
+    // Conditional UPDATE: books the days only if they fit into what is left of the calibration
+    // cycle (same rule as Gage.remainingDaysFor). The row lock makes concurrent callers queue and
+    // re-check against the committed value. Bumps the version so stale entity saves fail.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE gages SET usage_days_consumed = COALESCE(usage_days_consumed, 0) + :days, " +
+            "version = COALESCE(version, 0) + 1 " +
+            "WHERE id = :id AND (next_calibration_date IS NULL " +
+            "OR GREATEST(0, (next_calibration_date - CAST(:today AS date)) - COALESCE(usage_days_consumed, 0)) >= :days)",
+            nativeQuery = true)
+    int reserveUsageDays(@Param("id") Long id, @Param("days") int days, @Param("today") LocalDate today);
 }
\ No newline at end of file
@@ -1,13 +1,21 @@
 package com.secureauth.productservice.repository;
 
 import com.secureauth.productservice.entity.GageType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GageTypeRepository extends JpaRepository<GageType, Long> {
+
+    // The list response carries the sub-type name
+    @Override
+    @EntityGraph(attributePaths = "gageSubType")
+    List<GageType> findAll();
+
     Optional<GageType> findByName(String name);
     boolean existsByName(String name);
 }
@@ -0,0 +1,59 @@
+package com.secureauth.productservice.repository;
+
+import com.secureauth.productservice.entity.GageUsageCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GageUsageCounterRepository extends JpaRepository<GageUsageCounter, String> {
+
+    // Single-statement upsert: concurrent increments for the same serial serialize on the row lock
+    @Modifying
+    @Query(value = "INSERT INTO gage_usage_counter (serial_number, total_uses, total_days_used, updated_at) " +
+            "VALUES (:serialNumber, :uses, :days, now()) " +
+            "ON CONFLICT (serial_number) DO UPDATE SET " +
+            "total_uses = gage_usage_counter.total_uses + EXCLUDED.total_uses, " +
+            "total_days_used = gage_usage_counter.total_days_used + EXCLUDED.total_days_used, " +
+            "updated_at = now()", nativeQuery = true)
+    int increment(@Param("serialNumber") String serialNumber, @Param("uses") long uses, @Param("days") long days);
+
+    /**
+     * Books uses against the gage's capacity in one statement. ON CONFLICT locks the counter
+     * row and checks the latest committed total, so concurrent reservations cannot both pass.
+     * Returns 0 when the request would exceed {@code maxUses}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO gage_usage_counter (serial_number, total_uses, total_days_used, updated_at) " +
+            "SELECT :serialNumber, :uses, :days, now() WHERE :uses <= :maxUses " +
+            "ON CONFLICT (serial_number) DO UPDATE SET " +
+            "total_uses = gage_usage_counter.total_uses + EXCLUDED.total_uses, " +
+            "total_days_used = gage_usage_counter.total_days_used + EXCLUDED.total_days_used, " +
+            "updated_at = now() " +
+            "WHERE gage_usage_counter.total_uses + EXCLUDED.total_uses <= :maxUses", nativeQuery = true)
+    int reserve(@Param("serialNumber") String serialNumber, @Param("uses") long uses, @Param("days") long days,
+                @Param("maxUses") long maxUses);
+
+    // Blocks increments (ROW EXCLUSIVE) but not reads while the counters are recomputed
+    @Modifying
+    @Query(value = "LOCK TABLE gage_usage_counter IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForReconcile();
+
+    @Modifying
+    @Query(value = "INSERT INTO gage_usage_counter (serial_number, total_uses, total_days_used, updated_at) " +
+            "SELECT j.gage_serial_number, COALESCE(SUM(j.uses_count), 0), COALESCE(SUM(j.days_used), 0), now() " +
+            "FROM jobs j WHERE j.gage_serial_number IS NOT NULL GROUP BY j.gage_serial_number " +
+            "ON CONFLICT (serial_number) DO UPDATE SET " +
+            "total_uses = EXCLUDED.total_uses, total_days_used = EXCLUDED.total_days_used, updated_at = now() " +
+            "WHERE gage_usage_counter.total_uses <> EXCLUDED.total_uses " +
+            "OR gage_usage_counter.total_days_used <> EXCLUDED.total_days_used", nativeQuery = true)
+    int reconcileFromJobs();
+
+    @Modifying
+    @Query(value = "UPDATE gage_usage_counter c SET total_uses = 0, total_days_used = 0, updated_at = now() " +
+            "WHERE (c.total_uses <> 0 OR c.total_days_used <> 0) " +
+            "AND NOT EXISTS (SELECT 1 FROM jobs j WHERE j.gage_serial_number = c.serial_number)", nativeQuery = true)
+    int resetOrphans();
+}
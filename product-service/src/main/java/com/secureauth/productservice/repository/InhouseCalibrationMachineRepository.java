@@ -1,13 +1,21 @@
 package com.secureauth.productservice.repository;
 
 import com.secureauth.productservice.entity.InhouseCalibrationMachine;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InhouseCalibrationMachineRepository extends JpaRepository<InhouseCalibrationMachine, Long> {
+
+    // The list response carries the gage type and sub-type names
+    @Override
+    @EntityGraph(attributePaths = {"gageType", "gageSubType"})
+    List<InhouseCalibrationMachine> findAll();
+
     Optional<InhouseCalibrationMachine> findByMachineName(String machineName);
     boolean existsByMachineName(String machineName);
     boolean existsByMachineNameAndIdNot(String machineName, Long id);
@@ -51,12 +51,6 @@ public interface JobRepository extends JpaRepository<Job, Long> {
             @Param("priority") Job.Priority priority);
 
     // Usage tracking queries
-    @Query("SELECT j FROM Job j WHERE j.gageSerialNumber = :serialNumber AND j.usesCount IS NOT NULL")
-    List<Job> findByGageSerialNumberAndUsesCountIsNotNull(@Param("serialNumber") String serialNumber);
-    
-    @Query("SELECT j FROM Job j WHERE j.gageSerialNumber = :serialNumber AND j.daysUsed IS NOT NULL")
-    List<Job> findByGageSerialNumberAndDaysUsedIsNotNull(@Param("serialNumber") String serialNumber);
-    
     @Query("SELECT j FROM Job j WHERE j.operatorUsername = :username AND j.usesCount IS NOT NULL ORDER BY j.usageDate DESC")
     List<Job> findUsageRecordsByOperator(@Param("username") String username);
     
@@ -0,0 +1,41 @@
+package com.secureauth.productservice.repository;
+
+import com.secureauth.productservice.entity.MediaRendition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MediaRenditionRepository extends JpaRepository<MediaRendition, Long> {
+
+    // Returns 0 when another worker already stored this size for the source
+    @Modifying
+    @Query(value = "INSERT INTO media_renditions (source_key, max_dimension, width, height, blob_key, content_type, file_size, created_at) " +
+            "VALUES (:sourceKey, :maxDimension, :width, :height, :blobKey, :contentType, :fileSize, :createdAt) " +
+            "ON CONFLICT (source_key, max_dimension) DO NOTHING", nativeQuery = true)
+    int addIfAbsent(@Param("sourceKey") String sourceKey, @Param("maxDimension") int maxDimension,
+                    @Param("width") int width, @Param("height") int height,
+                    @Param("blobKey") String blobKey, @Param("contentType") String contentType,
+                    @Param("fileSize") long fileSize, @Param("createdAt") LocalDateTime createdAt);
+
+    // Smallest rendition at least as large as the requested size
+    Optional<MediaRendition> findFirstBySourceKeyAndMaxDimensionGreaterThanEqualOrderByMaxDimensionAsc(
+            String sourceKey, Integer maxDimension);
+
+    boolean existsBySourceKey(String sourceKey);
+
+    long countByBlobKey(String blobKey);
+
+    @Query("SELECT r.blobKey FROM MediaRendition r WHERE r.sourceKey = :sourceKey")
+    List<String> findBlobKeysBySourceKey(@Param("sourceKey") String sourceKey);
+
+    @Modifying
+    @Query("DELETE FROM MediaRendition r WHERE r.sourceKey = :sourceKey")
+    int deleteBySourceKey(@Param("sourceKey") String sourceKey);
+}
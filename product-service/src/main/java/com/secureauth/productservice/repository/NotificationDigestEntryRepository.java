@@ -0,0 +1,42 @@
+package com.secureauth.productservice.repository;
+
+import com.secureauth.productservice.entity.NotificationDigestEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationDigestEntryRepository extends JpaRepository<NotificationDigestEntry, Long> {
+
+    // Returns 0 when the recipient already has this event, pending or recently sent
+    @Modifying
+    @Query(value = "INSERT INTO notification_digest_entry (recipient, dedupe_key, subject, body, created_at) " +
+            "VALUES (:recipient, :dedupeKey, :subject, :body, :createdAt) " +
+            "ON CONFLICT (recipient, dedupe_key) DO NOTHING", nativeQuery = true)
+    int addIfAbsent(@Param("recipient") String recipient, @Param("dedupeKey") String dedupeKey,
+                    @Param("subject") String subject, @Param("body") String body,
+                    @Param("createdAt") LocalDateTime createdAt);
+
+    // Recipients whose oldest pending entry has waited out the digest window
+    @Query(value = "SELECT recipient FROM notification_digest_entry WHERE flushed_at IS NULL " +
+            "GROUP BY recipient HAVING MIN(created_at) <= :cutoff", nativeQuery = true)
+    List<String> findDueRecipients(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query(value = "SELECT * FROM notification_digest_entry WHERE recipient = :recipient AND flushed_at IS NULL " +
+            "ORDER BY created_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationDigestEntry> lockPending(@Param("recipient") String recipient, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE NotificationDigestEntry e SET e.flushedAt = :flushedAt WHERE e.id IN :ids")
+    int markFlushed(@Param("ids") List<Long> ids, @Param("flushedAt") LocalDateTime flushedAt);
+
+    // Once an entry is older than the dedupe window the same event may be notified again
+    @Modifying
+    @Query("DELETE FROM NotificationDigestEntry e WHERE e.flushedAt IS NOT NULL AND e.flushedAt < :before")
+    int deleteFlushedBefore(@Param("before") LocalDateTime before);
+}
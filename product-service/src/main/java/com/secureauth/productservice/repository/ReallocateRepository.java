@@ -1,46 +1,88 @@
 package com.secureauth.productservice.repository;
 
 import com.secureauth.productservice.entity.Reallocate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ReallocateRepository extends JpaRepository<Reallocate, Long> {
 
+    // List finders fetch the gage and its type with the rows: convertToResponse reads both,
+    // which would otherwise cost two lazy selects per reallocation
+    @Override
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
+    List<Reallocate> findAll();
+
+    // The row locked until the transaction ends, so a return and the expiry batch cannot both
+    // complete the same reallocation
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reallocate r WHERE r.id = :id")
+    Optional<Reallocate> findByIdForUpdate(@Param("id") Long id);
+
     // Find active reallocations for a specific gage (excluding completed and cancelled)
     @Query("SELECT r FROM Reallocate r WHERE r.gage.id = :gageId AND r.status IN ('APPROVED', 'PENDING_APPROVAL', 'EXPIRED', 'RETURNED')")
     Optional<Reallocate> findActiveReallocationByGageId(@Param("gageId") Long gageId);
 
     // Find reallocations by status
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByStatus(Reallocate.Status status);
 
     // Find reallocations by requester
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByRequestedBy(String requestedBy);
 
     // Find reallocations by approver
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByApprovedBy(String approvedBy);
 
     // Find reallocations by department
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByCurrentDepartment(String department);
 
     // Find reallocations by function
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByCurrentFunction(String function);
 
     // Find reallocations by operation
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByCurrentOperation(String operation);
 
     // Find expired reallocations that need to be returned
     @Query("SELECT r FROM Reallocate r WHERE r.status = 'APPROVED' AND r.expiresAt < :currentTime")
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findExpiredReallocations(@Param("currentTime") LocalDateTime currentTime);
 
+    /**
+     * Locks the ids of up to {@code limit} expired reallocations, oldest first, until the batch
+     * commits. SKIP LOCKED passes over rows a manual return is completing; a later batch picks
+     * them up if they are still approved.
+     */
+    @Query(value = "SELECT id FROM reallocates WHERE status = 'APPROVED' AND expires_at < :currentTime " +
+            "ORDER BY expires_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockExpiredIds(@Param("currentTime") LocalDateTime currentTime, @Param("limit") int limit);
+
+    @Query("SELECT r FROM Reallocate r WHERE r.id IN :ids ORDER BY r.expiresAt, r.id")
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
+    List<Reallocate> findByIdInOrderByExpiresAt(@Param("ids") Collection<Long> ids);
+
+    // Deadlines of every running reallocation, to seed the in-memory expiry timer
+    @Query("SELECT r.id AS id, r.expiresAt AS expiresAt FROM Reallocate r " +
+           "WHERE r.status = 'APPROVED' AND r.expiresAt IS NOT NULL")
+    List<ExpiryDeadline> findExpiryDeadlines();
+
     // Find reallocations that are available for new requests (completed status)
     @Query("SELECT r FROM Reallocate r WHERE r.gage.id = :gageId AND r.status = 'COMPLETED' ORDER BY r.updatedAt DESC")
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findCompletedReallocationsByGageId(@Param("gageId") Long gageId);
 
     // Check if gage is available for new reallocation requests
@@ -49,11 +91,13 @@ public interface ReallocateRepository extends JpaRepository<Reallocate, Long> {
 
     // Find reallocations expiring soon (within next hour)
     @Query("SELECT r FROM Reallocate r WHERE r.status = 'APPROVED' AND r.expiresAt BETWEEN :currentTime AND :oneHourFromNow")
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findReallocationsExpiringSoon(@Param("currentTime") LocalDateTime currentTime, 
                                                    @Param("oneHourFromNow") LocalDateTime oneHourFromNow);
 
     // Find reallocations by gage serial number
     @Query("SELECT r FROM Reallocate r WHERE r.gage.serialNumber = :serialNumber")
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByGageSerialNumber(@Param("serialNumber") String serialNumber);
 
     // Find reallocations by multiple criteria
@@ -62,6 +106,7 @@ public interface ReallocateRepository extends JpaRepository<Reallocate, Long> {
            "(:function IS NULL OR r.currentFunction = :function) AND " +
            "(:operation IS NULL OR r.currentOperation = :operation) AND " +
            "(:status IS NULL OR r.status = :status)")
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByMultipleCriteria(@Param("department") String department,
                                            @Param("function") String function,
                                            @Param("operation") String operation,
@@ -69,6 +114,7 @@ public interface ReallocateRepository extends JpaRepository<Reallocate, Long> {
 
     // Find reallocations for a specific user (as requester or approver)
     @Query("SELECT r FROM Reallocate r WHERE r.requestedBy = :username OR r.approvedBy = :username")
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByUserInvolvement(@Param("username") String username);
 
     // Count active reallocations by department
@@ -81,13 +127,20 @@ public interface ReallocateRepository extends JpaRepository<Reallocate, Long> {
 
     // Find reallocations created within a date range
     @Query("SELECT r FROM Reallocate r WHERE r.createdAt BETWEEN :startDate AND :endDate")
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByCreatedAtBetween(@Param("startDate") LocalDateTime startDate, 
                                            @Param("endDate") LocalDateTime endDate);
 
     // Find reallocations by time limit
+    @EntityGraph(attributePaths = {"gage", "gage.gageType"})
     List<Reallocate> findByTimeLimit(Reallocate.TimeLimit timeLimit);
 
     // Check if gage has any active reallocation
     @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Reallocate r WHERE r.gage.id = :gageId AND r.status IN ('APPROVED', 'PENDING_APPROVAL')")
     boolean existsActiveReallocationByGageId(@Param("gageId") Long gageId);
+
+    interface ExpiryDeadline {
+        Long getId();
+        LocalDateTime getExpiresAt();
+    }
 }
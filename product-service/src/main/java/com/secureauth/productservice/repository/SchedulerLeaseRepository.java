@@ -0,0 +1,26 @@
+package com.secureauth.productservice.repository;
+
+import com.secureauth.productservice.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    // Takes or renews the lease in one statement; returns 0 while another owner holds it
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_lease (name, owner, lease_until) VALUES (:name, :owner, :leaseUntil) " +
+            "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, lease_until = EXCLUDED.lease_until " +
+            "WHERE scheduler_lease.owner = EXCLUDED.owner OR scheduler_lease.lease_until < :now", nativeQuery = true)
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner,
+                   @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM SchedulerLease l WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
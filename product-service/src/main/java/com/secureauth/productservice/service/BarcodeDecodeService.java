@@ -0,0 +1,262 @@
+package com.secureauth.productservice.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.secureauth.productservice.exception.ScanDecodeRejectedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes uploaded barcode/QR photos off the request thread on a bounded pool. Large photos
+ * are subsampled while being read so a 12 MP phone picture never becomes a full-size raster,
+ * the first pass only looks for the two symbologies we print (Code 128 and QR), and the
+ * expensive TRY_HARDER pass runs only when the fast pass finds nothing. When the pool and its
+ * queue are full, uploads are rejected with {@link ScanDecodeRejectedException} instead of
+ * piling up. Latency is published as the {@code gage.scan.decode} timer, tagged by outcome.
+ */
+@Service
+@Slf4j
+public class BarcodeDecodeService {
+
+    private static final List<BarcodeFormat> PRINTED_FORMATS = List.of(BarcodeFormat.CODE_128, BarcodeFormat.QR_CODE);
+
+    private final ThreadPoolExecutor executor;
+    private final int maxDimension;
+    private final long timeoutMillis;
+    private final Map<DecodeHintType, Object> fastHints;
+    private final Map<DecodeHintType, Object> fallbackHints;
+
+    private final Timer fastTimer;
+    private final Timer fallbackTimer;
+    private final Timer failedTimer;
+    private final Timer rejectedTimer;
+
+    public BarcodeDecodeService(MeterRegistry meterRegistry,
+                                @Value("${app.scan.decode-threads:0}") int threads,
+                                @Value("${app.scan.decode-queue:64}") int queueCapacity,
+                                @Value("${app.scan.max-dimension:1600}") int maxDimension,
+                                @Value("${app.scan.decode-timeout-ms:10000}") long timeoutMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "scan-decode-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxDimension = maxDimension;
+        this.timeoutMillis = timeoutMillis;
+
+        this.fastHints = new EnumMap<>(DecodeHintType.class);
+        fastHints.put(DecodeHintType.POSSIBLE_FORMATS, PRINTED_FORMATS);
+        this.fallbackHints = new EnumMap<>(fastHints);
+        fallbackHints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+
+        this.fastTimer = decodeTimer(meterRegistry, "fast");
+        this.fallbackTimer = decodeTimer(meterRegistry, "fallback");
+        this.failedTimer = decodeTimer(meterRegistry, "failed");
+        this.rejectedTimer = decodeTimer(meterRegistry, "rejected");
+        Gauge.builder("gage.scan.decode.queue", executor, pool -> pool.getQueue().size())
+                .description("Barcode uploads waiting for a decode thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decodes the image and returns the gage serial it carries, or null when no printed
+     * symbology could be found. QR payloads are deep links; the serial is taken from them.
+     *
+     * @throws ScanDecodeRejectedException when the decode pool is saturated or the decode times out
+     */
+    public String decodeSerial(byte[] imageBytes) {
+        String text = decode(imageBytes);
+        return text != null ? serialFromPayload(text) : null;
+    }
+
+    /**
+     * Decodes several images concurrently on the decode pool; element {@code i} of the result
+     * is the serial from image {@code i}, or null. The batch is admitted whole or not at all.
+     *
+     * @throws ScanDecodeRejectedException when the pool cannot take the whole batch or it times out
+     */
+    public List<String> decodeSerials(List<byte[]> images) {
+        long start = System.nanoTime();
+        List<Future<String>> futures = new ArrayList<>(images.size());
+        try {
+            for (byte[] image : images) {
+                futures.add(executor.submit(() -> decodeNow(image, start)));
+            }
+        } catch (RejectedExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new ScanDecodeRejectedException("Barcode decoder is busy, please retry with fewer images");
+        }
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<String> serials = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            String text = await(futures, i, start, deadline - System.nanoTime());
+            serials.add(text != null ? serialFromPayload(text) : null);
+        }
+        return serials;
+    }
+
+    /**
+     * Decodes the image on the decode pool and returns the raw symbol text, or null.
+     *
+     * @throws ScanDecodeRejectedException when the decode pool is saturated or the decode times out
+     */
+    public String decode(byte[] imageBytes) {
+        long start = System.nanoTime();
+        Future<String> future;
+        try {
+            future = executor.submit(() -> decodeNow(imageBytes, start));
+        } catch (RejectedExecutionException e) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new ScanDecodeRejectedException("Barcode decoder is busy, please retry shortly");
+        }
+        return await(List.of(future), 0, start, TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    /**
+     * Serial carried by a scanned payload: the {@code serial} query parameter of our QR
+     * deep links, otherwise the text itself (Code 128 labels carry the bare serial).
+     */
+    public static String serialFromPayload(String text) {
+        String trimmed = text.trim();
+        if (trimmed.startsWith("http://") || trimmed.startsWith("https://")) {
+            try {
+                String serial = UriComponentsBuilder.fromUriString(trimmed).build().getQueryParams().getFirst("serial");
+                if (serial != null && !serial.isBlank()) {
+                    return serial.trim();
+                }
+            } catch (IllegalArgumentException e) {
+                log.debug("Scanned URL is not parseable, using it verbatim: {}", trimmed);
+            }
+        }
+        return trimmed;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // =============== DECODING ===============
+
+    // Waits for futures[index]; on timeout or interrupt every future of the call is cancelled
+    private String await(List<Future<String>> futures, int index, long start, long remainingNanos) {
+        try {
+            return futures.get(index).get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new ScanDecodeRejectedException("Barcode decode timed out, please retry shortly", e);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ScanDecodeRejectedException("Barcode decode interrupted", e);
+        } catch (ExecutionException e) {
+            log.warn("Failed to decode barcode image: {}", e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    private String decodeNow(byte[] imageBytes, long start) throws IOException {
+        BufferedImage image = readDownsampled(imageBytes);
+        if (image == null) {
+            failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new IOException("Unsupported or corrupt image");
+        }
+        LuminanceSource source = new BufferedImageLuminanceSource(image);
+        MultiFormatReader reader = new MultiFormatReader();
+        try {
+            Result result = reader.decode(new BinaryBitmap(new HybridBinarizer(source)), fastHints);
+            fastTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result.getText();
+        } catch (ReaderException ignored) {
+            // fall through to the exhaustive pass
+        }
+        try {
+            Result result = reader.decode(new BinaryBitmap(new HybridBinarizer(source)), fallbackHints);
+            fallbackTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result.getText();
+        } catch (NotFoundException e) {
+            // MultiFormatReader reports checksum and format failures as not found as well
+            failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the image with source subsampling so that its longer side is at most
+     * {@code maxDimension}; the full-resolution raster is never allocated.
+     */
+    private BufferedImage readDownsampled(byte[] imageBytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (maxDimension > 0 && longest > maxDimension) {
+                    int step = (longest + maxDimension - 1) / maxDimension;
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static Timer decodeTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("gage.scan.decode")
+                .description("Barcode upload decode latency, including time queued for a decode thread")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,109 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.repository.CalibrationCertificateRepository;
+import com.secureauth.productservice.repository.CalibrationMediaRepository;
+import com.secureauth.productservice.repository.GageMediaRepository;
+import com.secureauth.productservice.repository.MediaRenditionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Deletes blobs once nothing points at them any more. The {@link BlobStore} is content
+ * addressed and shared, so a blob is only removed when no gage media, calibration media,
+ * thumbnail or certificate row references its key. Removing an original also removes its thumbnails.
+ * The reference count and the delete run under the key's {@link BlobReferenceLocks} lock, so a
+ * transaction that is still adding a reference to the same content is waited for.
+ */
+@Service
+@Slf4j
+public class BlobCleanupService {
+
+    private final GageMediaRepository gageMediaRepository;
+    private final CalibrationMediaRepository calibrationMediaRepository;
+    private final MediaRenditionRepository mediaRenditionRepository;
+    private final CalibrationCertificateRepository calibrationCertificateRepository;
+    private final MediaThumbnailService mediaThumbnailService;
+    private final BlobStore blobStore;
+    private final BlobReferenceLocks blobReferenceLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    public BlobCleanupService(GageMediaRepository gageMediaRepository,
+                              CalibrationMediaRepository calibrationMediaRepository,
+                              MediaRenditionRepository mediaRenditionRepository,
+                              CalibrationCertificateRepository calibrationCertificateRepository,
+                              MediaThumbnailService mediaThumbnailService,
+                              BlobStore blobStore,
+                              BlobReferenceLocks blobReferenceLocks,
+                              PlatformTransactionManager transactionManager) {
+        this.gageMediaRepository = gageMediaRepository;
+        this.calibrationMediaRepository = calibrationMediaRepository;
+        this.mediaRenditionRepository = mediaRenditionRepository;
+        this.calibrationCertificateRepository = calibrationCertificateRepository;
+        this.mediaThumbnailService = mediaThumbnailService;
+        this.blobStore = blobStore;
+        this.blobReferenceLocks = blobReferenceLocks;
+        // Cleanups run in afterCompletion callbacks, where a joined transaction never commits
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void releaseAfterCommit(String blobKey) {
+        registerCleanup(blobKey, TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    // Called by the transaction that stored the blob and is about to reference it: holds the key
+    // against concurrent cleanups until it completes. A blob written by a transaction that rolls
+    // back is garbage unless another row shares it.
+    public void cleanupOnRollback(String blobKey) {
+        blobReferenceLocks.reference(blobKey);
+        registerCleanup(blobKey, TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+
+    private void registerCleanup(String blobKey, int onStatus) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == onStatus) {
+                    deleteIfUnreferenced(blobKey);
+                }
+            }
+        });
+    }
+
+    private void deleteIfUnreferenced(String blobKey) {
+        try {
+            Boolean deleted = transactionTemplate.execute(status -> {
+                blobReferenceLocks.lockForDelete(blobKey);
+                if (gageMediaRepository.countByBlobKey(blobKey) > 0
+                        || calibrationMediaRepository.countByBlobKey(blobKey) > 0
+                        || mediaRenditionRepository.countByBlobKey(blobKey) > 0
+                        || calibrationCertificateRepository.countByBlobKey(blobKey) > 0) {
+                    return false;
+                }
+                try {
+                    blobStore.delete(blobKey);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            });
+            if (Boolean.TRUE.equals(deleted)) {
+                log.debug("Deleted unreferenced blob {}", blobKey);
+                mediaThumbnailService.discard(blobKey).forEach(this::deleteIfUnreferenced);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to delete blob {}: {}", blobKey, e.getMessage());
+        }
+    }
+}
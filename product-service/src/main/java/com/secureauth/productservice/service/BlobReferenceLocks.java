@@ -0,0 +1,41 @@
+package com.secureauth.productservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transaction-scoped PostgreSQL advisory locks on blob keys, closing the gap between a new row
+ * that points at a shared blob and the cleanup of the last old one. A transaction about to
+ * reference a blob holds the key's lock shared until it completes; a cleanup takes it exclusively
+ * before counting references, so it waits for such writers and then sees their rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class BlobReferenceLocks {
+
+    private static final String LOCK_SHARED = "SELECT pg_advisory_xact_lock_shared(hashtextextended(?, 0))::text";
+    private static final String LOCK_EXCLUSIVE = "SELECT pg_advisory_xact_lock(hashtextextended(?, 0))::text";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+
+    /**
+     * Called in the transaction that is about to reference {@code blobKey}, after the content was
+     * stored. Fails if a cleanup removed the (deduplicated) blob in between, which leaves nothing
+     * to point at; the transaction rolls back and the upload can be repeated.
+     */
+    public void reference(String blobKey) {
+        jdbcTemplate.queryForObject(LOCK_SHARED, String.class, blobKey);
+        if (!blobStore.exists(blobKey)) {
+            throw new IllegalStateException("Stored content " + blobKey + " was removed concurrently, please retry");
+        }
+    }
+
+    /**
+     * Called in the cleanup's own transaction before it counts the references to {@code blobKey}.
+     */
+    public void lockForDelete(String blobKey) {
+        jdbcTemplate.queryForObject(LOCK_EXCLUSIVE, String.class, blobKey);
+    }
+}
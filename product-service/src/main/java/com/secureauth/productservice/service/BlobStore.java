@@ -0,0 +1,40 @@
+package com.secureauth.productservice.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Content-addressed storage for media files.
+ * Blobs are keyed by the SHA-256 of their content, so storing the same file twice
+ * keeps a single copy and returns the same key.
+ */
+public interface BlobStore {
+
+    /**
+     * Streams the content into the store. The stream is consumed but not closed.
+     */
+    StoredBlob put(InputStream content) throws IOException;
+
+    /**
+     * Returns a readable resource for the blob; throws ResourceNotFoundException if it is missing.
+     */
+    Resource load(String key);
+
+    boolean exists(String key);
+
+    /**
+     * Removes the blob. Callers must make sure no entity still references the key.
+     */
+    void delete(String key) throws IOException;
+
+    @Getter
+    @AllArgsConstructor
+    class StoredBlob {
+        private final String key;
+        private final long size;
+    }
+}
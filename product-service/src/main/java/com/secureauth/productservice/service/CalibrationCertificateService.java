@@ -0,0 +1,387 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.entity.CalibrationCertificate;
+import com.secureauth.productservice.exception.ResourceNotFoundException;
+import com.secureauth.productservice.repository.CalibrationCertificateRepository;
+import com.secureauth.productservice.repository.CalibrationHistoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders calibration certificate PDFs ({@link CalibrationCertificateTemplate}) on a bounded
+ * worker pool and keeps them in the {@link BlobStore}, one {@link CalibrationCertificate} per
+ * history record and template version. Inward and complete-calibration requests only queue the
+ * render once they commit; a download serves the stored PDF, or queues the render and waits a
+ * short while for it. A certificate uploaded with complete-calibration is served in place of a
+ * rendered one. Concurrent requests for one record share a single render; a replace requested
+ * while it runs renders again once it finishes. Latency is published as the
+ * {@code calibration.certificate.render} timer.
+ */
+@Service
+@Slf4j
+public class CalibrationCertificateService {
+
+    private final CalibrationHistoryRepository calibrationHistoryRepository;
+    private final CalibrationCertificateRepository calibrationCertificateRepository;
+    private final CalibrationCertificateTemplate template;
+    private final BlobStore blobStore;
+    private final BlobCleanupService blobCleanupService;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ThreadPoolExecutor executor;
+
+    private static final byte[] PDF_MAGIC = "%PDF".getBytes(StandardCharsets.US_ASCII);
+    // Text stubs earlier versions stored where nothing was uploaded: on inward as plain text,
+    // on complete-calibration Base64-encoded
+    private static final byte[] INWARD_PLACEHOLDER = "Calibration Certificate\nInstrument:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] COMPLETE_PLACEHOLDER = "Calibration Certificate for Gage SN:".getBytes(StandardCharsets.US_ASCII);
+
+    private final ConcurrentHashMap<Long, Render> inFlight = new ConcurrentHashMap<>();
+
+    private final Timer renderedTimer;
+    private final Timer failedTimer;
+
+    public CalibrationCertificateService(CalibrationHistoryRepository calibrationHistoryRepository,
+                                         CalibrationCertificateRepository calibrationCertificateRepository,
+                                         CalibrationCertificateTemplate template,
+                                         BlobStore blobStore,
+                                         BlobCleanupService blobCleanupService,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${app.certificates.threads:2}") int threads,
+                                         @Value("${app.certificates.queue:128}") int queueCapacity) {
+        this.calibrationHistoryRepository = calibrationHistoryRepository;
+        this.calibrationCertificateRepository = calibrationCertificateRepository;
+        this.template = template;
+        this.blobStore = blobStore;
+        this.blobCleanupService = blobCleanupService;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "certificate-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.renderedTimer = renderTimer(meterRegistry, "rendered");
+        this.failedTimer = renderTimer(meterRegistry, "failed");
+        Gauge.builder("calibration.certificate.queue", executor, pool -> pool.getQueue().size())
+                .description("Certificates waiting for a render thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the certificate once the current transaction commits, so the worker sees the
+     * history record. The previous certificate of the record, if any, is replaced.
+     */
+    public void renderAfterCommit(Long historyId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(historyId, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(historyId, true);
+            }
+        });
+    }
+
+    /**
+     * Re-renders the certificate in the background, e.g. after the record was corrected.
+     */
+    public void regenerate(Long historyId) {
+        requireHistory(historyId);
+        submit(historyId, true);
+    }
+
+    /**
+     * The certificate for the current template version. When there is none yet it is rendered
+     * now on the worker pool; empty means it did not finish within {@code waitMillis}.
+     */
+    public Optional<CalibrationCertificate> getOrRender(Long historyId, long waitMillis) {
+        Optional<CalibrationCertificate> current = calibrationCertificateRepository
+                .findByCalibrationHistoryIdAndTemplateVersion(historyId, CalibrationCertificateTemplate.VERSION);
+        if (current.isPresent()) {
+            return current;
+        }
+        requireHistory(historyId);
+        CompletableFuture<CalibrationCertificate> render = submit(historyId, false);
+        try {
+            return Optional.ofNullable(render.get(waitMillis, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return Optional.empty();
+            }
+            throw new IllegalStateException("Failed to render certificate for calibration record " + historyId,
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Queues renders for records without a current certificate, so a bulk reader such as the
+     * export keeps every worker busy while it consumes the earlier ones.
+     */
+    public void prefetch(Collection<Long> historyIds) {
+        historyIds.forEach(historyId -> submit(historyId, false));
+    }
+
+    /**
+     * The certificate supplied with complete-calibration, which takes precedence over a rendered
+     * one. It is kept on the history record as the Base64 text the client sent (plain bytes are
+     * accepted too); the text placeholders earlier versions stored in its place do not count.
+     */
+    public Optional<UploadedCertificate> findUploaded(Long historyId) {
+        return calibrationHistoryRepository.findUploadedCertificate(historyId)
+                .map(CalibrationHistoryRepository.UploadedCertificate::getContent)
+                .flatMap(CalibrationCertificateService::readUpload);
+    }
+
+    /**
+     * {@link #findUploaded(Long)} for several records in one query; records without a usable
+     * upload are left out.
+     */
+    public Map<Long, UploadedCertificate> findUploaded(Collection<Long> historyIds) {
+        Map<Long, UploadedCertificate> uploaded = new HashMap<>();
+        if (historyIds.isEmpty()) {
+            return uploaded;
+        }
+        for (CalibrationHistoryRepository.UploadedCertificate stored
+                : calibrationHistoryRepository.findUploadedCertificates(historyIds)) {
+            readUpload(stored.getContent()).ifPresent(certificate -> uploaded.put(stored.getId(), certificate));
+        }
+        return uploaded;
+    }
+
+    public Resource load(CalibrationCertificate certificate) {
+        return blobStore.load(certificate.getBlobKey());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // =============== RENDERING ===============
+
+    private void requireHistory(Long historyId) {
+        if (!calibrationHistoryRepository.existsById(historyId)) {
+            throw new ResourceNotFoundException("Calibration history not found with id: " + historyId);
+        }
+    }
+
+    // One render per record at a time; later callers get the running one. A replace that arrives
+    // while a render is running may carry data that render has not read, so it is queued as a
+    // follow-up once the running one finishes.
+    private CompletableFuture<CalibrationCertificate> submit(Long historyId, boolean replace) {
+        Render created = new Render();
+        Render running = inFlight.compute(historyId, (id, current) -> {
+            if (current == null) {
+                return created;
+            }
+            current.rerun |= replace;
+            return current;
+        });
+        if (running != created) {
+            return running.result;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    created.result.complete(render(historyId, replace));
+                } catch (Throwable e) {
+                    created.result.completeExceptionally(e);
+                } finally {
+                    finish(historyId, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(historyId, created);
+            created.result.completeExceptionally(e);
+            log.warn("Certificate queue is full, calibration record {} renders on its next download", historyId);
+        }
+        return created.result;
+    }
+
+    private void finish(Long historyId, Render render) {
+        boolean[] rerun = new boolean[1];
+        inFlight.computeIfPresent(historyId, (id, current) -> {
+            if (current != render) {
+                return current;
+            }
+            rerun[0] = current.rerun;
+            return null;
+        });
+        if (rerun[0]) {
+            submit(historyId, true);
+        }
+    }
+
+    // rerun is only read and written inside inFlight.compute, which serialises them per record
+    private static final class Render {
+        final CompletableFuture<CalibrationCertificate> result = new CompletableFuture<>();
+        boolean rerun;
+    }
+
+    private CalibrationCertificate render(Long historyId, boolean replace) {
+        long start = System.nanoTime();
+        try {
+            if (!replace) {
+                Optional<CalibrationCertificate> current = calibrationCertificateRepository
+                        .findByCalibrationHistoryIdAndTemplateVersion(historyId, CalibrationCertificateTemplate.VERSION);
+                if (current.isPresent()) {
+                    return current.get();
+                }
+            }
+            CalibrationCertificateTemplate.Data data = readTransaction.execute(status -> calibrationHistoryRepository
+                    .findById(historyId)
+                    .map(CalibrationCertificateTemplate.Data::of)
+                    .orElseThrow(() -> new ResourceNotFoundException("Calibration history not found with id: " + historyId)));
+
+            ByteArrayOutputStream pdf = new ByteArrayOutputStream(16 * 1024);
+            template.write(data, pdf);
+            BlobStore.StoredBlob blob = blobStore.put(new ByteArrayInputStream(pdf.toByteArray()));
+
+            CalibrationCertificate certificate = writeTransaction.execute(status -> {
+                blobCleanupService.cleanupOnRollback(blob.getKey());
+                List<CalibrationCertificate> previous = calibrationCertificateRepository.findByCalibrationHistoryId(historyId);
+                calibrationCertificateRepository.upsert(historyId, CalibrationCertificateTemplate.VERSION,
+                        blob.getKey(), blob.getSize(), LocalDateTime.now());
+                calibrationCertificateRepository.deleteOtherVersions(historyId, CalibrationCertificateTemplate.VERSION);
+                previous.stream()
+                        .map(CalibrationCertificate::getBlobKey)
+                        .filter(key -> !key.equals(blob.getKey()))
+                        .forEach(blobCleanupService::releaseAfterCommit);
+                return calibrationCertificateRepository
+                        .findByCalibrationHistoryIdAndTemplateVersion(historyId, CalibrationCertificateTemplate.VERSION)
+                        .orElseThrow();
+            });
+            renderedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return certificate;
+        } catch (IOException e) {
+            failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new UncheckedIOException("Failed to store certificate for calibration record " + historyId, e);
+        } catch (RuntimeException e) {
+            failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.error("Failed to render certificate for calibration record {}: {}", historyId, e.getMessage());
+            throw e;
+        }
+    }
+
+    // =============== UPLOADED CERTIFICATES ===============
+
+    public record UploadedCertificate(byte[] content, String contentType, String extension) {
+
+        static UploadedCertificate of(byte[] content) {
+            if (startsWith(content, PDF_MAGIC)) {
+                return new UploadedCertificate(content, "application/pdf", "pdf");
+            }
+            String guessed = null;
+            try {
+                guessed = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(content));
+            } catch (IOException ignored) {
+                // in-memory stream
+            }
+            if (guessed != null && guessed.startsWith("image/")) {
+                return new UploadedCertificate(content, guessed, guessed.substring("image/".length()));
+            }
+            return new UploadedCertificate(content, "application/octet-stream", "bin");
+        }
+
+        public String sha256() {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    static Optional<UploadedCertificate> readUpload(byte[] stored) {
+        if (startsWith(stored, INWARD_PLACEHOLDER)) {
+            return Optional.empty();
+        }
+        byte[] content = decodeUpload(stored);
+        if (content.length == 0 || startsWith(content, COMPLETE_PLACEHOLDER)) {
+            return Optional.empty();
+        }
+        return Optional.of(UploadedCertificate.of(content));
+    }
+
+    // Base64, optionally as a data URL; anything that does not decode is taken as the file itself
+    private static byte[] decodeUpload(byte[] stored) {
+        if (startsWith(stored, PDF_MAGIC)) {
+            return stored;
+        }
+        String text = new String(stored, StandardCharsets.ISO_8859_1).strip();
+        int comma = text.startsWith("data:") ? text.indexOf(',') : -1;
+        try {
+            return Base64.getDecoder().decode((comma >= 0 ? text.substring(comma + 1) : text).replaceAll("\\s", ""));
+        } catch (IllegalArgumentException e) {
+            return stored;
+        }
+    }
+
+    private static boolean startsWith(byte[] content, byte[] prefix) {
+        return content.length >= prefix.length
+                && Arrays.equals(content, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static Timer renderTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("calibration.certificate.render")
+                .description("Certificate rendering time, including loading the record and storing the PDF")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,176 @@
+package com.secureauth.productservice.service;
+
+import com.google.zxing.common.BitMatrix;
+import com.secureauth.productservice.entity.CalibrationHistory;
+import com.secureauth.productservice.entity.Gage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Layout of the calibration certificate PDF: one A4 page with the instrument, the calibration
+ * result, the notes, signature lines and a QR code linking to the gage. The output depends
+ * only on the history record, so re-rendering unchanged data yields the same blob.
+ * Bump {@link #VERSION} with any layout change; stored certificates of other versions are
+ * re-rendered the next time they are requested.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CalibrationCertificateTemplate {
+
+    public static final int VERSION = 1;
+
+    private static final double WIDTH = PdfDocumentWriter.A4_WIDTH;
+    private static final double MARGIN = 50;
+    private static final double VALUE_X = MARGIN + 140;
+    private static final double ROW = 18;
+    private static final double QR_SIDE = 90;
+    private static final int NOTE_CHARS_PER_LINE = 90;
+    private static final int NOTE_MAX_LINES = 12;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd MMM yyyy", Locale.ENGLISH);
+
+    private final GageCodeService gageCodeService;
+
+    /**
+     * Everything printed on a certificate, copied out of the history record inside the
+     * reading transaction so the PDF itself is written without touching the database.
+     */
+    public record Data(Long historyId, String serialNumber, String gageTypeName, String modelNumber,
+                       String manufacturerName, String measurementRange, String accuracy,
+                       LocalDate calibrationDate, LocalDate nextDueDate, CalibrationHistory.CalibrationStatus status,
+                       String performedBy, String notes, LocalDate issuedOn) {
+
+        public static Data of(CalibrationHistory history) {
+            Gage gage = history.getGage();
+            return new Data(history.getId(), gage.getSerialNumber(),
+                    gage.getGageType() != null ? gage.getGageType().getName() : null,
+                    gage.getModelNumber(),
+                    gage.getManufacturer() != null ? gage.getManufacturer().getName() : null,
+                    gage.getMeasurementRange(), gage.getAccuracy(),
+                    history.getCalibrationDate(), history.getNextDueDate(), history.getStatus(),
+                    history.getPerformedBy(), history.getNotes(),
+                    history.getCreatedAt() != null ? history.getCreatedAt() : history.getCalibrationDate());
+        }
+    }
+
+    public static String certificateNumber(Long historyId) {
+        return String.format(Locale.ROOT, "CAL-%06d", historyId);
+    }
+
+    public void write(Data data, OutputStream out) throws IOException {
+        try (PdfDocumentWriter pdf = new PdfDocumentWriter(out, PdfDocumentWriter.A4_WIDTH, PdfDocumentWriter.A4_HEIGHT)) {
+            pdf.startPage();
+
+            pdf.shade(MARGIN, MARGIN, WIDTH - 2 * MARGIN, 70, 0.92);
+            pdf.text(MARGIN + 14, MARGIN + 32, 20, true, "CALIBRATION CERTIFICATE");
+            pdf.text(MARGIN + 14, MARGIN + 54, 10, false, "Certificate No. " + certificateNumber(data.historyId())
+                    + "    Issued " + format(data.issuedOn()));
+
+            double y = MARGIN + 110;
+            y = section(pdf, y, "Instrument");
+            y = row(pdf, y, "Serial number", data.serialNumber());
+            y = row(pdf, y, "Gage type", data.gageTypeName());
+            y = row(pdf, y, "Model", data.modelNumber());
+            y = row(pdf, y, "Manufacturer", data.manufacturerName());
+            y = row(pdf, y, "Measurement range", data.measurementRange());
+            y = row(pdf, y, "Accuracy", data.accuracy());
+
+            y = section(pdf, y + ROW, "Calibration");
+            y = row(pdf, y, "Calibration date", format(data.calibrationDate()));
+            y = row(pdf, y, "Next due date", format(data.nextDueDate()));
+            y = row(pdf, y, "Result", data.status() != null ? data.status().name().replace('_', ' ') : null);
+            y = row(pdf, y, "Performed by", data.performedBy());
+
+            List<String> notes = wrap(data.notes());
+            if (!notes.isEmpty()) {
+                y = section(pdf, y + ROW, "Notes");
+                for (String line : notes) {
+                    pdf.text(MARGIN, y, 10, false, line);
+                    y += 14;
+                }
+            }
+
+            double bottom = PdfDocumentWriter.A4_HEIGHT - MARGIN;
+            double signatureY = bottom - 60;
+            pdf.line(MARGIN, signatureY, MARGIN + 160, signatureY, 0.75);
+            pdf.text(MARGIN, signatureY + 14, 9, false, "Calibrated by");
+            pdf.line(MARGIN + 200, signatureY, MARGIN + 360, signatureY, 0.75);
+            pdf.text(MARGIN + 200, signatureY + 14, 9, false, "Approved by");
+
+            BitMatrix qr = qr(data.serialNumber());
+            if (qr != null) {
+                double qrX = WIDTH - MARGIN - QR_SIDE;
+                double qrY = bottom - QR_SIDE - 24;
+                pdf.modules(qr, qrX, qrY, QR_SIDE, QR_SIDE);
+                pdf.text(qrX, qrY + QR_SIDE + 12, 7, false, "Scan to open this gage");
+            }
+            pdf.text(MARGIN, bottom, 7, false, "GageFX calibration certificate, template v" + VERSION);
+
+            pdf.endPage();
+        }
+    }
+
+    // =============== LAYOUT ===============
+
+    private static double section(PdfDocumentWriter pdf, double y, String title) throws IOException {
+        pdf.text(MARGIN, y, 12, true, title);
+        pdf.line(MARGIN, y + 5, WIDTH - MARGIN, y + 5, 0.5);
+        return y + ROW + 6;
+    }
+
+    private static double row(PdfDocumentWriter pdf, double y, String label, String value) throws IOException {
+        pdf.text(MARGIN, y, 10, false, label);
+        pdf.text(VALUE_X, y, 10, true, value != null && !value.isBlank() ? value : "-");
+        return y + ROW;
+    }
+
+    // Word wrap by character count; Helvetica at 10 pt fits about 90 average characters per line
+    private static List<String> wrap(String text) {
+        List<String> lines = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return lines;
+        }
+        for (String paragraph : text.strip().split("\\R")) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.split("\\s+")) {
+                if (line.length() > 0 && line.length() + 1 + word.length() > NOTE_CHARS_PER_LINE) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
+                if (line.length() > 0) {
+                    line.append(' ');
+                }
+                line.append(word.length() > NOTE_CHARS_PER_LINE ? word.substring(0, NOTE_CHARS_PER_LINE) : word);
+            }
+            lines.add(line.toString());
+        }
+        if (lines.size() > NOTE_MAX_LINES) {
+            List<String> truncated = new ArrayList<>(lines.subList(0, NOTE_MAX_LINES));
+            truncated.set(NOTE_MAX_LINES - 1, truncated.get(NOTE_MAX_LINES - 1) + " ...");
+            return truncated;
+        }
+        return lines;
+    }
+
+    private BitMatrix qr(String serialNumber) {
+        try {
+            return gageCodeService.modules(GageCodeService.Kind.QR, serialNumber);
+        } catch (IllegalArgumentException e) {
+            log.warn("Certificate for gage {} printed without QR code: {}", serialNumber, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String format(LocalDate date) {
+        return date != null ? DATE.format(date) : null;
+    }
+}
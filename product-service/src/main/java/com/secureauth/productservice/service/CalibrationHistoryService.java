@@ -4,15 +4,18 @@ import com.secureauth.productservice.dto.InwardRequest;
 import com.secureauth.productservice.entity.CalibrationHistory;
 import com.secureauth.productservice.entity.CalibrationMedia;
 import com.secureauth.productservice.entity.Gage;
+import com.secureauth.productservice.exception.ResourceNotFoundException;
 import com.secureauth.productservice.repository.CalibrationHistoryRepository;
 import com.secureauth.productservice.repository.CalibrationMediaRepository;
 import com.secureauth.productservice.repository.GageRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,6 +33,9 @@ public class CalibrationHistoryService {
     private final CalibrationHistoryRepository historyRepository;
     private final CalibrationMediaRepository mediaRepository;
     private final GageRepository gageRepository;
+    private final BlobStore blobStore;
+    private final BlobCleanupService blobCleanupService;
+    private final CalibrationCertificateService calibrationCertificateService;
 
     public CalibrationHistory processInward(Long gageId, InwardRequest request) {
         // 1. Update gage status to ACTIVE
@@ -80,11 +86,10 @@ public class CalibrationHistoryService {
         // 3. Process and save media files
         processMediaFiles(savedHistory, request);
 
-        // 4. Generate and store PDF certificate
-        byte[] certificatePdf = generateCertificate(savedHistory, request);
-        savedHistory.setCertificate(certificatePdf);
+        // 4. Render the PDF certificate in the background once the record is committed
+        calibrationCertificateService.renderAfterCommit(savedHistory.getId());
 
-        return historyRepository.save(savedHistory);
+        return savedHistory;
     }
 
     // Helper method
@@ -136,15 +141,18 @@ public class CalibrationHistoryService {
         }
     }
 
+    // Streams the upload into the blob store; the file is never held in memory as a whole
     private CalibrationMedia createMediaEntity(CalibrationHistory history, MultipartFile file, String fileType) {
-        try {
+        try (InputStream in = file.getInputStream()) {
+            BlobStore.StoredBlob blob = blobStore.put(in);
+            blobCleanupService.cleanupOnRollback(blob.getKey());
             return CalibrationMedia.builder()
                     .calibrationHistory(history)
                     .fileName(file.getOriginalFilename())
                     .fileType(fileType)
-                    .mimeType(file.getContentType())
-                    .fileData(file.getBytes())
-                    .fileSize(file.getSize())
+                    .mimeType(file.getContentType() != null ? file.getContentType() : "application/octet-stream")
+                    .blobKey(blob.getKey())
+                    .fileSize(blob.getSize())
                     .description("") // Can be updated later
                     .build();
         } catch (IOException e) {
@@ -152,28 +160,14 @@ public class CalibrationHistoryService {
         }
     }
 
-    private byte[] generateCertificate(CalibrationHistory history, InwardRequest request) {
-        // Implement PDF generation logic here
-        try {
-            String certificateContent = generateCertificateContent(history, request);
-            return certificateContent.getBytes(); // Convert to actual PDF in production
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate certificate", e);
-        }
-    }
-
-    private String generateCertificateContent(CalibrationHistory history, InwardRequest request) {
-        // Generate certificate content - implement your actual PDF generation logic
-        return String.format(
-                "Calibration Certificate\nInstrument: %s\nSerial: %s\nCalibration Date: %s\nNext Due: %s\nStatus: %s",
-                history.getGage().getSerialNumber(),
-                history.getGage().getSerialNumber(),
-                history.getCalibrationDate(),
-                history.getNextDueDate(),
-                history.getStatus());
-    }
-
     public List<CalibrationMedia> getMediaByHistoryId(Long historyId) {
         return mediaRepository.findByCalibrationHistoryId(historyId);
     }
+
+    public Resource loadMedia(CalibrationMedia media) {
+        if (media.getBlobKey() == null) {
+            throw new ResourceNotFoundException("Media " + media.getId() + " has not been migrated to the blob store yet");
+        }
+        return blobStore.load(media.getBlobKey());
+    }
 }
\ No newline at end of file
@@ -5,8 +5,12 @@ import com.secureauth.productservice.dto.ScheduleCalibrationRequest;
 import com.secureauth.productservice.dto.ScheduleCalibrationResponse;
 import com.secureauth.productservice.entity.CalibrationHistory;
 import com.secureauth.productservice.entity.CalibrationSchedule;
+import com.secureauth.productservice.entity.MediaRendition;
+import com.secureauth.productservice.repository.CalibrationScheduleRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface CalibrationService {
 
@@ -25,5 +29,12 @@ public interface CalibrationService {
     List<ScheduleCalibrationResponse> getUpcomingSchedules();
 
     ScheduleCalibrationResponse updateScheduleStatus(Long scheduleId, CalibrationSchedule.ScheduleStatus status);
-}
 
+    // When the schedule or one of its photos was last written; the validator for photo downloads
+    LocalDateTime getSchedulePhotoLastModified(Long scheduleId);
+
+    Optional<CalibrationScheduleRepository.Photo> getSchedulePhoto(Long scheduleId, CalibrationSchedule.PhotoView view);
+
+    // Thumbnail of the photo covering size pixels on its longest side; empty means serve the original
+    Optional<MediaRendition> getSchedulePhotoRendition(Long scheduleId, CalibrationSchedule.PhotoView view, int size);
+}
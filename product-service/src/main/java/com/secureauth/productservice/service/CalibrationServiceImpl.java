@@ -3,28 +3,31 @@ package com.secureauth.productservice.service;
 import com.secureauth.productservice.client.EventClient;
 import com.secureauth.productservice.client.dto.CreateEventRequest;
 import com.secureauth.productservice.client.dto.EventDTO;
-import com.secureauth.productservice.controller.MailController;
 import com.secureauth.productservice.dto.GageResponse;
 import com.secureauth.productservice.dto.ScheduleCalibrationRequest;
 import com.secureauth.productservice.dto.ScheduleCalibrationResponse;
 import com.secureauth.productservice.entity.CalibrationHistory;
 import com.secureauth.productservice.entity.CalibrationSchedule;
 import com.secureauth.productservice.entity.Gage;
+import com.secureauth.productservice.entity.MediaRendition;
 import com.secureauth.productservice.exception.ResourceNotFoundException;
 import com.secureauth.productservice.repository.CalibrationHistoryRepository;
 import com.secureauth.productservice.repository.CalibrationScheduleRepository;
 import com.secureauth.productservice.repository.GageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.nio.charset.StandardCharsets;
+import java.io.ByteArrayInputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
 import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,7 +44,16 @@ public class CalibrationServiceImpl implements CalibrationService {
     private CalibrationScheduleRepository calibrationScheduleRepository;
 
     @Autowired
-    private MailController emailService;
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private MediaThumbnailService mediaThumbnailService;
+
+    @Autowired
+    private CalibrationCertificateService calibrationCertificateService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Autowired
     private EventClient eventClient;
@@ -67,12 +79,8 @@ public class CalibrationServiceImpl implements CalibrationService {
         Gage gage = gageRepository.findById(gageId)
                 .orElseThrow(() -> new RuntimeException("Gage not found with id: " + gageId));
 
-        String certToStore = certificate;
-        if (certToStore == null || certToStore.isBlank()) {
-            certToStore = Base64.getEncoder().encodeToString(
-                    ("Calibration Certificate for Gage SN: " + gage.getSerialNumber()
-                            + " on " + LocalDate.now()).getBytes(StandardCharsets.UTF_8));
-        }
+        // Without an uploaded certificate one is rendered in the background after commit
+        boolean uploaded = certificate != null && !certificate.isBlank();
 
         CalibrationHistory history = CalibrationHistory.builder()
                 .gage(gage)
@@ -81,10 +89,13 @@ public class CalibrationServiceImpl implements CalibrationService {
                 .status(CalibrationHistory.CalibrationStatus.PASSED)
                 .notes(notes != null ? notes : "Calibration completed via API")
                 .performedBy(performedBy)
-                .certificate(certToStore.getBytes())
+                .certificate(uploaded ? certificate.getBytes() : null)
                 .build();
 
-        calibrationHistoryRepository.save(history);
+        CalibrationHistory savedHistory = calibrationHistoryRepository.save(history);
+        if (!uploaded) {
+            calibrationCertificateService.renderAfterCommit(savedHistory.getId());
+        }
 
         if (gage.getCalibrationInterval() != null && gage.getCalibrationInterval() > 0) {
             gage.setNextCalibrationDate(LocalDate.now().plusDays(gage.getCalibrationInterval()));
@@ -92,7 +103,7 @@ public class CalibrationServiceImpl implements CalibrationService {
             gage.setNextCalibrationDate(LocalDate.now().plusYears(1));
         }
 
-        gage.setRemainingDays((int) ChronoUnit.DAYS.between(LocalDate.now(), gage.getNextCalibrationDate()));
+        gage.setUsageDaysConsumed(0); // fresh calibration budget for the new cycle
         gage.setStatus(Gage.Status.ACTIVE);
         gageRepository.save(gage);
 
@@ -134,6 +145,7 @@ public class CalibrationServiceImpl implements CalibrationService {
                 .build();
 
         CalibrationSchedule savedSchedule = calibrationScheduleRepository.save(schedule);
+        renderPhotoThumbnails(savedSchedule);
 
         gage.setStatus(Gage.Status.SCHEDULED);
         gageRepository.save(gage);
@@ -165,9 +177,8 @@ public class CalibrationServiceImpl implements CalibrationService {
 
         if (Boolean.TRUE.equals(request.getEmailEnabled()) && request.getEmailTo() != null) {
             try {
-                sendScheduleEmail(gage, savedSchedule, request);
-                savedSchedule.setEmailSent(true);
-                savedSchedule.setEmailSentAt(LocalDateTime.now());
+                // Queued with this transaction; emailSent is set once EmailDispatcher delivers it
+                savedSchedule.setEmailOutboxId(sendScheduleEmail(gage, savedSchedule, request));
                 calibrationScheduleRepository.save(savedSchedule);
             } catch (Exception e) {
                 System.err.println("❌ Failed to send email: " + e.getMessage());
@@ -177,6 +188,12 @@ public class CalibrationServiceImpl implements CalibrationService {
         return mapToScheduleResponse(savedSchedule, gage);
     }
 
+    // Runs in the dispatcher's transaction that marks the email sent
+    @EventListener
+    public void onEmailSent(EmailDispatcher.SentEvent event) {
+        calibrationScheduleRepository.markEmailSent(event.emailId(), event.sentAt());
+    }
+
     @Override
     public List<ScheduleCalibrationResponse> getGageSchedules(Long gageId) {
         List<CalibrationSchedule> schedules = calibrationScheduleRepository.findByGageId(gageId);
@@ -206,6 +223,53 @@ public class CalibrationServiceImpl implements CalibrationService {
         return mapToScheduleResponse(updatedSchedule, updatedSchedule.getGage());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public LocalDateTime getSchedulePhotoLastModified(Long scheduleId) {
+        CalibrationScheduleRepository.Timestamps timestamps = calibrationScheduleRepository.findTimestampsById(scheduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Schedule not found with id: " + scheduleId));
+        return timestamps.getUpdatedAt() != null ? timestamps.getUpdatedAt() : timestamps.getCreatedAt();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CalibrationScheduleRepository.Photo> getSchedulePhoto(Long scheduleId, CalibrationSchedule.PhotoView view) {
+        Optional<CalibrationScheduleRepository.Photo> photo = switch (view) {
+            case SERIAL_NUMBER -> calibrationScheduleRepository.findSerialNumberPhotoById(scheduleId);
+            case FRONT_VIEW -> calibrationScheduleRepository.findFrontViewPhotoById(scheduleId);
+            case BACK_VIEW -> calibrationScheduleRepository.findBackViewPhotoById(scheduleId);
+        };
+        return photo.filter(p -> p.getData() != null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<MediaRendition> getSchedulePhotoRendition(Long scheduleId, CalibrationSchedule.PhotoView view, int size) {
+        return mediaThumbnailService.find(photoSourceKey(scheduleId, view), size, () -> {
+            // Runs on a thumbnail thread; the photo columns are large objects, readable only in a transaction
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            byte[] photo = readOnly.execute(status -> getSchedulePhoto(scheduleId, view).orElseThrow().getData());
+            return new ByteArrayInputStream(photo);
+        });
+    }
+
+    private void renderPhotoThumbnails(CalibrationSchedule schedule) {
+        renderPhotoThumbnails(schedule.getId(), CalibrationSchedule.PhotoView.SERIAL_NUMBER, schedule.getSerialNumberPhoto());
+        renderPhotoThumbnails(schedule.getId(), CalibrationSchedule.PhotoView.FRONT_VIEW, schedule.getFrontViewPhoto());
+        renderPhotoThumbnails(schedule.getId(), CalibrationSchedule.PhotoView.BACK_VIEW, schedule.getBackViewPhoto());
+    }
+
+    private void renderPhotoThumbnails(Long scheduleId, CalibrationSchedule.PhotoView view, byte[] photo) {
+        if (photo != null) {
+            mediaThumbnailService.renderAfterCommit(photoSourceKey(scheduleId, view), () -> new ByteArrayInputStream(photo));
+        }
+    }
+
+    private static String photoSourceKey(Long scheduleId, CalibrationSchedule.PhotoView view) {
+        return "schedule:" + scheduleId + ":" + view.name().toLowerCase();
+    }
+
     private CalibrationSchedule.Priority mapPriority(String priority) {
         if (priority == null) {
             return CalibrationSchedule.Priority.MEDIUM;
@@ -224,23 +288,25 @@ public class CalibrationServiceImpl implements CalibrationService {
         return Base64.getDecoder().decode(base64);
     }
 
-    private void sendScheduleEmail(Gage gage, CalibrationSchedule schedule, ScheduleCalibrationRequest request) {
+    // Returns the id of the email to the primary recipient; the CCs are not tracked
+    private Long sendScheduleEmail(Gage gage, CalibrationSchedule schedule, ScheduleCalibrationRequest request) {
         try {
             String subject = request.getEmailSubject() != null
                     ? request.getEmailSubject()
                     : "Calibration Scheduled - " + gage.getSerialNumber();
             String htmlContent = buildScheduleEmailContent(gage, schedule, request);
-            emailService.sendHtmlEmail(request.getEmailTo(), subject, htmlContent);
+            Long emailId = emailOutboxService.enqueueHtml(request.getEmailTo(), subject, htmlContent);
             if (request.getEmailCC() != null && !request.getEmailCC().isEmpty()) {
                 for (String cc : request.getEmailCC()) {
                     if (cc != null && !cc.trim().isEmpty()) {
-                        emailService.sendHtmlEmail(cc, subject, htmlContent);
+                        emailOutboxService.enqueueHtml(cc, subject, htmlContent);
                     }
                 }
             }
-            System.out.println("✅ Schedule email sent successfully to: " + request.getEmailTo());
+            System.out.println("✅ Schedule email queued for: " + request.getEmailTo());
+            return emailId;
         } catch (Exception e) {
-            System.err.println("❌ Error sending schedule email: " + e.getMessage());
+            System.err.println("❌ Error queueing schedule email: " + e.getMessage());
             throw new RuntimeException("Failed to send email notification", e);
         }
     }
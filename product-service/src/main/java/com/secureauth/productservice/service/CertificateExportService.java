@@ -0,0 +1,260 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.entity.CalibrationCertificate;
+import com.secureauth.productservice.repository.CalibrationCertificateRepository;
+import com.secureauth.productservice.repository.CalibrationHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Audit export: a ZIP of the calibration certificates of one calibration-date range, optionally
+ * limited to gages currently allocated to a department, followed by a CSV manifest. History rows
+ * are read in (calibration date, id) keyset chunks and each PDF is copied straight from the blob
+ * store, so memory stays bounded by one chunk (and its uploads) however many certificates are
+ * exported. Certificates
+ * that were never rendered (or were rendered by an older template) are rendered on the way; the
+ * ones that could not be are marked missing in the manifest and listed, with the reason, in
+ * MISSING-CERTIFICATES.txt. A certificate uploaded with complete-calibration is exported as
+ * uploaded rather than rendered.
+ */
+@Service
+@Slf4j
+public class CertificateExportService {
+
+    private static final int CHUNK_SIZE = 100;
+    private static final String MISSING_ENTRY = "MISSING-CERTIFICATES.txt";
+    private static final String MANIFEST_HEADER = "certificate_number,history_id,serial_number,gage_type,"
+            + "calibration_date,next_due_date,status,performed_by,source,file,size_bytes,sha256,rendered_at";
+
+    private final CalibrationHistoryRepository calibrationHistoryRepository;
+    private final CalibrationCertificateRepository calibrationCertificateRepository;
+    private final CalibrationCertificateService calibrationCertificateService;
+    private final long renderWaitMillis;
+
+    public CertificateExportService(CalibrationHistoryRepository calibrationHistoryRepository,
+                                    CalibrationCertificateRepository calibrationCertificateRepository,
+                                    CalibrationCertificateService calibrationCertificateService,
+                                    @Value("${app.certificates.wait-ms:5000}") long renderWaitMillis) {
+        this.calibrationHistoryRepository = calibrationHistoryRepository;
+        this.calibrationCertificateRepository = calibrationCertificateRepository;
+        this.calibrationCertificateService = calibrationCertificateService;
+        this.renderWaitMillis = renderWaitMillis;
+    }
+
+    public static String fileName(LocalDate from, LocalDate to) {
+        return "calibration-certificates-" + from + "-to-" + to + ".zip";
+    }
+
+    /**
+     * Writes the ZIP to {@code out}; the stream itself is left open. The manifest is the last
+     * entry, so it is spooled to a temporary file until the certificates have been written.
+     */
+    public void writeZip(LocalDate from, LocalDate to, String department, OutputStream out) throws IOException {
+        Path manifest = Files.createTempFile("certificate-export-", ".csv");
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            int exported = 0;
+            List<String> missing = new ArrayList<>();
+            try (BufferedWriter csv = Files.newBufferedWriter(manifest)) {
+                csv.write(MANIFEST_HEADER);
+                csv.newLine();
+                LocalDate afterDate = from;
+                long afterId = 0;
+                while (true) {
+                    List<CalibrationHistoryRepository.ExportRow> chunk = calibrationHistoryRepository.findExportChunk(
+                            to, department, null, null, afterDate, afterId, PageRequest.of(0, CHUNK_SIZE));
+                    if (chunk.isEmpty()) {
+                        break;
+                    }
+                    ChunkCertificates certificates = classify(chunk);
+                    for (CalibrationHistoryRepository.ExportRow row : chunk) {
+                        CalibrationCertificateService.UploadedCertificate uploaded = certificates.uploaded().get(row.getId());
+                        if (uploaded != null) {
+                            writeUploaded(zip, row, uploaded);
+                            exported++;
+                            csv.write(manifestLine(row, uploaded));
+                            csv.newLine();
+                            continue;
+                        }
+                        CalibrationCertificate certificate = certificates.rendered().get(row.getId());
+                        if (certificate == null) {
+                            certificate = renderNow(row.getId(), missing);
+                        }
+                        if (certificate != null) {
+                            writeCertificate(zip, row, certificate);
+                            exported++;
+                        }
+                        csv.write(manifestLine(row, certificate));
+                        csv.newLine();
+                    }
+                    if (chunk.size() < CHUNK_SIZE) {
+                        break;
+                    }
+                    CalibrationHistoryRepository.ExportRow last = chunk.get(chunk.size() - 1);
+                    afterDate = last.getCalibrationDate();
+                    afterId = last.getId();
+                }
+            }
+            if (!missing.isEmpty()) {
+                writeMissing(zip, missing);
+            }
+            zip.putNextEntry(new ZipEntry("manifest.csv"));
+            Files.copy(manifest, zip);
+            zip.closeEntry();
+            zip.finish();
+            if (missing.isEmpty()) {
+                log.info("Exported {} calibration certificates ({} to {}, department {})",
+                        exported, from, to, department != null ? department : "any");
+            } else {
+                log.warn("Exported {} calibration certificates ({} to {}, department {}), {} missing",
+                        exported, from, to, department != null ? department : "any", missing.size());
+            }
+        } finally {
+            Files.deleteIfExists(manifest);
+        }
+    }
+
+    private record ChunkCertificates(Map<Long, CalibrationCertificateService.UploadedCertificate> uploaded,
+                                     Map<Long, CalibrationCertificate> rendered) {
+    }
+
+    // Each record is classified once, up front: exported as uploaded when it holds a usable
+    // upload, rendered otherwise. One query each for the uploads and the current certificates;
+    // records without a current certificate are queued together so they render on all worker
+    // threads while the earlier ones are being written.
+    private ChunkCertificates classify(List<CalibrationHistoryRepository.ExportRow> chunk) {
+        Map<Long, CalibrationCertificateService.UploadedCertificate> uploaded = calibrationCertificateService.findUploaded(
+                chunk.stream()
+                        .filter(row -> Boolean.TRUE.equals(row.getCertificateUploaded()))
+                        .map(CalibrationHistoryRepository.ExportRow::getId)
+                        .toList());
+        List<Long> ids = chunk.stream()
+                .map(CalibrationHistoryRepository.ExportRow::getId)
+                .filter(id -> !uploaded.containsKey(id))
+                .toList();
+        Map<Long, CalibrationCertificate> rendered = ids.isEmpty() ? Map.of() : calibrationCertificateRepository
+                .findByCalibrationHistoryIdInAndTemplateVersion(ids, CalibrationCertificateTemplate.VERSION).stream()
+                .collect(Collectors.toMap(CalibrationCertificate::getCalibrationHistoryId, Function.identity()));
+        List<Long> unrendered = ids.stream().filter(id -> !rendered.containsKey(id)).toList();
+        if (!unrendered.isEmpty()) {
+            calibrationCertificateService.prefetch(unrendered);
+        }
+        return new ChunkCertificates(uploaded, rendered);
+    }
+
+    // A certificate that cannot be had is recorded in missing, with the reason
+    private CalibrationCertificate renderNow(Long historyId, List<String> missing) {
+        String reason;
+        try {
+            Optional<CalibrationCertificate> certificate = calibrationCertificateService.getOrRender(historyId, renderWaitMillis);
+            if (certificate.isPresent()) {
+                return certificate.get();
+            }
+            reason = "not rendered within " + renderWaitMillis + " ms (render queue busy)";
+        } catch (RuntimeException e) {
+            reason = "render failed: " + e.getMessage();
+        }
+        log.warn("Certificate for calibration record {} left out of the export: {}", historyId, reason);
+        missing.add(CalibrationCertificateTemplate.certificateNumber(historyId) + " (calibration record " + historyId
+                + "): " + reason);
+        return null;
+    }
+
+    // Only present when something is missing, so an incomplete export cannot pass for a complete one
+    private static void writeMissing(ZipOutputStream zip, List<String> missing) throws IOException {
+        zip.putNextEntry(new ZipEntry(MISSING_ENTRY));
+        StringBuilder text = new StringBuilder()
+                .append("INCOMPLETE EXPORT: ").append(missing.size())
+                .append(" certificate(s) could not be included. Export again to retry them.\n\n");
+        missing.forEach(line -> text.append(line).append('\n'));
+        zip.write(text.toString().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private void writeCertificate(ZipOutputStream zip, CalibrationHistoryRepository.ExportRow row,
+                                  CalibrationCertificate certificate) throws IOException {
+        ZipEntry entry = new ZipEntry(entryName(row.getId()));
+        if (certificate.getRenderedAt() != null) {
+            entry.setTimeLocal(certificate.getRenderedAt());
+        }
+        zip.putNextEntry(entry);
+        try (InputStream in = calibrationCertificateService.load(certificate).getInputStream()) {
+            in.transferTo(zip);
+        }
+        zip.closeEntry();
+    }
+
+    private void writeUploaded(ZipOutputStream zip, CalibrationHistoryRepository.ExportRow row,
+                               CalibrationCertificateService.UploadedCertificate uploaded) throws IOException {
+        zip.putNextEntry(new ZipEntry(entryName(row.getId(), uploaded.extension())));
+        zip.write(uploaded.content());
+        zip.closeEntry();
+    }
+
+    private static String entryName(Long historyId) {
+        return entryName(historyId, "pdf");
+    }
+
+    private static String entryName(Long historyId, String extension) {
+        return "certificates/" + CalibrationCertificateTemplate.certificateNumber(historyId) + "." + extension;
+    }
+
+    // =============== MANIFEST ===============
+
+    private static String manifestLine(CalibrationHistoryRepository.ExportRow row, CalibrationCertificate certificate) {
+        return manifestLine(row, certificate != null ? "rendered" : "missing",
+                certificate != null ? entryName(row.getId()) : "",
+                certificate != null ? String.valueOf(certificate.getFileSize()) : "",
+                certificate != null ? certificate.getBlobKey() : "",
+                certificate != null && certificate.getRenderedAt() != null ? certificate.getRenderedAt().toString() : "");
+    }
+
+    private static String manifestLine(CalibrationHistoryRepository.ExportRow row,
+                                       CalibrationCertificateService.UploadedCertificate uploaded) {
+        return manifestLine(row, "uploaded", entryName(row.getId(), uploaded.extension()),
+                String.valueOf(uploaded.content().length), uploaded.sha256(), "");
+    }
+
+    private static String manifestLine(CalibrationHistoryRepository.ExportRow row, String source, String file,
+                                       String size, String sha256, String renderedAt) {
+        return String.join(",",
+                CalibrationCertificateTemplate.certificateNumber(row.getId()),
+                String.valueOf(row.getId()),
+                csv(row.getSerialNumber()),
+                csv(row.getGageTypeName()),
+                String.valueOf(row.getCalibrationDate()),
+                String.valueOf(row.getNextDueDate()),
+                row.getStatus() != null ? row.getStatus().name() : "",
+                csv(row.getPerformedBy()),
+                source, file, size, sha256, renderedAt);
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,226 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.entity.EmailOutbox;
+import com.secureauth.productservice.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers {@link EmailOutbox} rows in the background. Each poll claims at most as many due
+ * rows as there are idle sender threads, so a slow SMTP server never builds an in-memory
+ * backlog; claimed rows carry a lease and are picked up again if this instance dies mid-send.
+ * Failures are retried with exponential backoff (with jitter) until {@code max-attempts},
+ * after which the row is dead-lettered. Outcomes are counted as {@code mail.outbox.dispatch}.
+ * A delivered message is announced as a {@link SentEvent}, in the transaction that marks it sent.
+ */
+@Service
+@Slf4j
+public class EmailDispatcher {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final String from;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final long leaseMillis;
+    private final int retentionDays;
+
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter deadCounter;
+
+    public EmailDispatcher(EmailOutboxRepository emailOutboxRepository,
+                           JavaMailSender mailSender,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.mail.from:rms2@qsutra.com}") String from,
+                           @Value("${app.mail.outbox.concurrency:4}") int concurrency,
+                           @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                           @Value("${app.mail.outbox.backoff-ms:30000}") long backoffMillis,
+                           @Value("${app.mail.outbox.max-backoff-ms:3600000}") long maxBackoffMillis,
+                           @Value("${app.mail.outbox.lease-ms:300000}") long leaseMillis,
+                           @Value("${app.mail.outbox.retention-days:14}") int retentionDays) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.from = from;
+        this.concurrency = Math.max(1, concurrency);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.leaseMillis = leaseMillis;
+        this.retentionDays = retentionDays;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.concurrency, this.concurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mail-dispatch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.sentCounter = dispatchCounter(meterRegistry, "sent");
+        this.retryCounter = dispatchCounter(meterRegistry, "retry");
+        this.deadCounter = dispatchCounter(meterRegistry, "dead");
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-ms:2000}", initialDelayString = "${app.mail.outbox.poll-ms:2000}")
+    public void dispatchDue() {
+        int free = concurrency - inFlight.get();
+        if (free <= 0) {
+            return;
+        }
+        List<EmailOutbox> claimed;
+        try {
+            claimed = claim(free);
+        } catch (Exception e) {
+            log.error("Failed to claim queued emails: {}", e.getMessage());
+            return;
+        }
+        for (EmailOutbox message : claimed) {
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    deliver(message);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    @Scheduled(cron = "${app.mail.outbox.purge-cron:0 30 2 * * *}")
+    public void purgeSent() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        Integer deleted = transactionTemplate.execute(status -> emailOutboxRepository.deleteSentBefore(before, EmailOutbox.Status.SENT));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} sent emails older than {} days", deleted, retentionDays);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Anything still in flight keeps its lease and is sent again after it expires
+        executor.shutdownNow();
+    }
+
+    // =============== DELIVERY ===============
+
+    private List<EmailOutbox> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = emailOutboxRepository.lockDueIds(now, limit);
+            if (ids.isEmpty()) {
+                return List.<EmailOutbox>of();
+            }
+            List<EmailOutbox> messages = emailOutboxRepository.findAllById(ids);
+            LocalDateTime leaseUntil = now.plus(leaseMillis, ChronoUnit.MILLIS);
+            for (EmailOutbox message : messages) {
+                message.setStatus(EmailOutbox.Status.SENDING);
+                message.setAttempts(message.getAttempts() + 1);
+                message.setNextAttemptAt(leaseUntil);
+            }
+            return messages;
+        });
+    }
+
+    private void deliver(EmailOutbox message) {
+        try {
+            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "UTF-8");
+            helper.setFrom(from);
+            helper.setTo(message.getRecipient());
+            helper.setSubject(message.getSubject());
+            helper.setText(message.getBody(), message.isHtml());
+            mailSender.send(mimeMessage);
+        } catch (Exception e) {
+            failed(message, e);
+            return;
+        }
+        try {
+            LocalDateTime sentAt = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                emailOutboxRepository.markSent(message.getId(), sentAt, EmailOutbox.Status.SENT);
+                eventPublisher.publishEvent(new SentEvent(message.getId(), sentAt));
+            });
+            sentCounter.increment();
+            log.debug("Email {} sent to {}", message.getId(), message.getRecipient());
+        } catch (Exception e) {
+            // The mail is out; at worst it is sent once more after the lease expires
+            log.error("Email {} was sent but could not be marked: {}", message.getId(), e.getMessage());
+        }
+    }
+
+    private void failed(EmailOutbox message, Exception error) {
+        boolean dead = message.getAttempts() >= maxAttempts;
+        LocalDateTime next = dead ? LocalDateTime.now() : LocalDateTime.now().plus(backoff(message.getAttempts()), ChronoUnit.MILLIS);
+        String reason = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        if (reason.length() > 1000) {
+            reason = reason.substring(0, 1000);
+        }
+        String lastError = reason;
+        try {
+            transactionTemplate.executeWithoutResult(status -> emailOutboxRepository.markFailed(message.getId(),
+                    dead ? EmailOutbox.Status.DEAD : EmailOutbox.Status.PENDING, next, lastError));
+        } catch (Exception e) {
+            log.error("Could not record failure of email {}: {}", message.getId(), e.getMessage());
+            return;
+        }
+        if (dead) {
+            deadCounter.increment();
+            log.error("Email {} to {} dead-lettered after {} attempts: {}",
+                    message.getId(), message.getRecipient(), message.getAttempts(), lastError);
+        } else {
+            retryCounter.increment();
+            log.warn("Email {} to {} failed (attempt {}), retrying at {}: {}",
+                    message.getId(), message.getRecipient(), message.getAttempts(), next, lastError);
+        }
+    }
+
+    // backoff * 2^(attempt-1), capped, with +-20% jitter so failed batches do not retry in lockstep
+    private long backoff(int attempt) {
+        long delay = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return (long) (delay * jitter);
+    }
+
+    private static Counter dispatchCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("mail.outbox.dispatch")
+                .description("Outbox email delivery attempts by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public record SentEvent(Long emailId, LocalDateTime sentAt) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.entity.EmailOutbox;
+import com.secureauth.productservice.exception.ResourceNotFoundException;
+import com.secureauth.productservice.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Entry point for sending mail. Messages are only recorded here, inside the caller's
+ * transaction, so they are sent if and only if the business change commits; delivery,
+ * retries and dead-lettering are handled by {@link EmailDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    /**
+     * @return the id of the queued message, which {@link EmailDispatcher.SentEvent} refers to
+     * once it is delivered; null when there is no recipient
+     */
+    @Transactional
+    public Long enqueueText(String to, String subject, String body) {
+        return enqueue(to, subject, body, false);
+    }
+
+    @Transactional
+    public Long enqueueHtml(String to, String subject, String html) {
+        return enqueue(to, subject, html, true);
+    }
+
+    @Transactional(readOnly = true)
+    public List<EmailOutbox> findByStatus(EmailOutbox.Status status) {
+        return emailOutboxRepository.findTop200ByStatusOrderByIdDesc(status);
+    }
+
+    /**
+     * Puts a dead-lettered message back in the queue with a fresh attempt budget.
+     */
+    @Transactional
+    public EmailOutbox retry(Long id) {
+        EmailOutbox message = emailOutboxRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Email not found with id: " + id));
+        if (message.getStatus() != EmailOutbox.Status.DEAD) {
+            throw new RuntimeException("Only dead-lettered emails can be retried, email " + id + " is " + message.getStatus());
+        }
+        message.setStatus(EmailOutbox.Status.PENDING);
+        message.setAttempts(0);
+        message.setNextAttemptAt(LocalDateTime.now());
+        return message;
+    }
+
+    private Long enqueue(String to, String subject, String body, boolean html) {
+        if (to == null || to.isBlank()) {
+            log.warn("Dropping email '{}' without a recipient", subject);
+            return null;
+        }
+        EmailOutbox message = emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(to.trim())
+                .subject(subject != null ? subject : "GageFX Notification")
+                .body(body != null ? body : "")
+                .html(html)
+                .build());
+        log.debug("Queued email {} to {}", message.getId(), message.getRecipient());
+        return message.getId();
+    }
+}
@@ -0,0 +1,210 @@
+package com.secureauth.productservice.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.oned.Code128Writer;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.secureauth.productservice.entity.Gage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders gage barcodes (Code 128 of the serial) and QR codes (deep link to the scan page)
+ * on demand as PNG or SVG. Nothing is stored on the gage; rendered images are kept in a
+ * small in-memory LRU cache, and every image has a strong ETag derived from its inputs so
+ * clients can revalidate without the image being rendered again.
+ */
+@Service
+@Slf4j
+public class GageCodeService {
+
+    public enum Kind { BARCODE, QR }
+
+    public enum Format {
+        PNG("image/png"), SVG("image/svg+xml");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    public record RenderedCode(byte[] bytes, String contentType, String etag) {
+    }
+
+    // Bump when rendering output changes so cached copies held by clients are invalidated
+    private static final String RENDER_VERSION = "1";
+
+    public static final int DEFAULT_BARCODE_WIDTH = 300;
+    public static final int DEFAULT_BARCODE_HEIGHT = 80;
+    public static final int DEFAULT_QR_SIZE = 300;
+    private static final int MIN_SIZE = 16;
+    private static final int MAX_SIZE = 2000;
+
+    private final String frontendBaseUrl;
+    private final Map<String, RenderedCode> cache;
+
+    public GageCodeService(@Value("${app.frontend.baseUrl:http://10.2.0.95:5173}") String frontendBaseUrl,
+                           @Value("${app.codes.cache-size:2000}") int cacheSize) {
+        this.frontendBaseUrl = frontendBaseUrl;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RenderedCode> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Strong ETag for the image {@link #render} would produce, computed without rendering.
+     */
+    public String etag(Kind kind, Format format, String serialNumber, int width, int height) {
+        return etagFor(cacheKey(kind, format, serialNumber, width, height));
+    }
+
+    public RenderedCode render(Kind kind, Format format, String serialNumber, int width, int height) {
+        String key = cacheKey(kind, format, serialNumber, width, height);
+        RenderedCode cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Rendering outside the lock; two threads may render the same code once each, which is harmless
+        BitMatrix matrix = encode(kind, serialNumber, format == Format.PNG ? width : 0, format == Format.PNG ? height : 0);
+        byte[] bytes = format == Format.PNG ? toPng(matrix) : toSvg(matrix, width, height);
+        RenderedCode rendered = new RenderedCode(bytes, format.getContentType(), etagFor(key));
+        cache.put(key, rendered);
+        return rendered;
+    }
+
+    /**
+     * The bare module matrix (one cell per bar module or QR module, quiet zone included)
+     * for callers that lay codes out themselves, such as label sheets.
+     */
+    public BitMatrix modules(Kind kind, String serialNumber) {
+        return encode(kind, serialNumber, 0, 0);
+    }
+
+    public static int clampSize(Integer requested, int defaultSize) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        return Math.max(MIN_SIZE, Math.min(MAX_SIZE, requested));
+    }
+
+    // =============== URLS FOR RESPONSES ===============
+
+    public String barcodeUrl(String serialNumber, Gage.CodeType codeType) {
+        if (serialNumber == null || codeType == Gage.CodeType.QR_ONLY) {
+            return null;
+        }
+        return "/api/gages/" + UriUtils.encodePathSegment(serialNumber, StandardCharsets.UTF_8) + "/barcode.png";
+    }
+
+    public String qrCodeUrl(String serialNumber, Gage.CodeType codeType) {
+        if (serialNumber == null || codeType == null || codeType == Gage.CodeType.BARCODE_ONLY) {
+            return null;
+        }
+        return "/api/gages/" + UriUtils.encodePathSegment(serialNumber, StandardCharsets.UTF_8) + "/qrcode.png";
+    }
+
+    public String buildGageDeepLink(String serialNumber) {
+        String base = frontendBaseUrl != null ? frontendBaseUrl.trim() : "http://10.2.0.95:5173";
+        if (base.endsWith("/"))
+            base = base.substring(0, base.length() - 1);
+        return base + "/scan?serial=" + serialNumber.trim();
+    }
+
+    // =============== RENDERING ===============
+
+    // Width/height 0 yields one pixel per module, which is what the SVG path scales up
+    private BitMatrix encode(Kind kind, String serialNumber, int width, int height) {
+        try {
+            if (kind == Kind.BARCODE) {
+                return new Code128Writer().encode(serialNumber.trim(), BarcodeFormat.CODE_128, width, height);
+            }
+            return new QRCodeWriter().encode(buildGageDeepLink(serialNumber), BarcodeFormat.QR_CODE, width, height,
+                    Map.of(EncodeHintType.CHARACTER_SET, StandardCharsets.UTF_8.name()));
+        } catch (WriterException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cannot encode " + kind.name().toLowerCase() + " for serial '"
+                    + serialNumber + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] toPng(BitMatrix matrix) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(matrix, "PNG", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write PNG", e);
+        }
+    }
+
+    /**
+     * One path segment per horizontal run of dark modules, in module units; the viewBox
+     * scales it to the requested size, so the SVG stays small at any print resolution.
+     */
+    static byte[] toSvg(BitMatrix matrix, int width, int height) {
+        int cols = matrix.getWidth();
+        int rows = matrix.getHeight();
+        StringBuilder svg = new StringBuilder(256 + cols * rows / 4);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+                .append("\" height=\"").append(height)
+                .append("\" viewBox=\"0 0 ").append(cols).append(' ').append(rows)
+                .append("\" preserveAspectRatio=\"none\" shape-rendering=\"crispEdges\">")
+                .append("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/><path fill=\"#000\" d=\"");
+        for (int y = 0; y < rows; y++) {
+            int x = 0;
+            while (x < cols) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < cols && matrix.get(x, y)) {
+                    x++;
+                }
+                svg.append('M').append(start).append(' ').append(y)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+        svg.append("\"/></svg>");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String cacheKey(Kind kind, Format format, String serialNumber, int width, int height) {
+        // QR content depends on the configured frontend URL, so it is part of the key
+        String content = kind == Kind.QR ? buildGageDeepLink(serialNumber) : serialNumber.trim();
+        return RENDER_VERSION + '|' + kind + '|' + format + '|' + width + 'x' + height + '|' + content;
+    }
+
+    private static String etagFor(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -4,7 +4,10 @@ import com.secureauth.productservice.entity.GageIssue;
 import com.secureauth.productservice.repository.GageIssueRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Set;
@@ -13,6 +16,7 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class GageFilteringService {
 
     private final GageIssueRepository gageIssueRepository;
@@ -20,7 +24,7 @@ public class GageFilteringService {
     /**
      * Smart filtering of gages based on operator context
      * Priority: Department (mandatory) > Function > Operation
-     * 
+     *
      * @param operatorDepartments Operator's departments
      * @param operatorFunctions Operator's functions
      * @param operatorOperations Operator's operations
@@ -30,114 +34,27 @@ public class GageFilteringService {
             Set<String> operatorDepartments,
             Set<String> operatorFunctions,
             Set<String> operatorOperations) {
-
-        log.info("Filtering gages for operator - Depts: {}, Functions: {}, Operations: {}", 
-                operatorDepartments, operatorFunctions, operatorOperations);
-
-        // Get all gage issues
-        List<GageIssue> allGages = gageIssueRepository.findAll();
-        
-        // Apply smart filtering
-        List<GageIssue> filteredGages = allGages.stream()
-                .filter(gage -> matchesOperatorContext(gage, operatorDepartments, operatorFunctions, operatorOperations))
-                .collect(Collectors.toList());
-
-        log.info("Filtered {} gages from {} total gages for operator", filteredGages.size(), allGages.size());
-        
-        return filteredGages;
+        return getFilteredGagesForOperator(operatorDepartments, operatorFunctions, operatorOperations,
+                Pageable.unpaged()).getContent();
     }
 
     /**
-     * Smart matching logic:
-     * 1. Department MUST match (mandatory)
-     * 2. Function should match if available
-     * 3. Operation should match if available
-     * 4. Higher priority for exact matches
+     * Paged variant: department match is filtered in the database, ordered by id.
      */
-    private boolean matchesOperatorContext(
-            GageIssue gage,
+    public Page<GageIssue> getFilteredGagesForOperator(
             Set<String> operatorDepartments,
             Set<String> operatorFunctions,
-            Set<String> operatorOperations) {
+            Set<String> operatorOperations,
+            Pageable pageable) {
 
-        // Department is MANDATORY - must always match
-        if (!hasDepartmentMatch(gage, operatorDepartments)) {
-            return false;
-        }
-
-        // Calculate match score for prioritization
-        int matchScore = calculateMatchScore(gage, operatorDepartments, operatorFunctions, operatorOperations);
-        
-        // Log matching details for debugging
-        log.debug("Gage {} - Department: {}, Function: {}, Operation: {} - Match Score: {}", 
-                gage.getId(), gage.getDepartment(), gage.getFunctionName(), gage.getOperationName(), matchScore);
-
-        return matchScore > 0; // Must have at least department match
-    }
-
-    /**
-     * Check if department matches (MANDATORY)
-     */
-    private boolean hasDepartmentMatch(GageIssue gage, Set<String> operatorDepartments) {
-        if (gage.getDepartment() == null || gage.getDepartment().trim().isEmpty()) {
-            log.debug("Gage {} has no department - skipping", gage.getId());
-            return false;
-        }
-
-        boolean hasMatch = operatorDepartments.contains(gage.getDepartment());
-        if (!hasMatch) {
-            log.debug("Gage {} department '{}' not in operator departments {}", 
-                    gage.getId(), gage.getDepartment(), operatorDepartments);
-        }
-        return hasMatch;
-    }
-
-    /**
-     * Calculate match score for prioritization
-     * Higher score = better match
-     */
-    private int calculateMatchScore(
-            GageIssue gage,
-            Set<String> operatorDepartments,
-            Set<String> operatorFunctions,
-            Set<String> operatorOperations) {
-
-        int score = 0;
-
-        // Department match (mandatory - already checked)
-        if (hasDepartmentMatch(gage, operatorDepartments)) {
-            score += 100; // High weight for department
-        }
-
-        // Function match (if available)
-        if (gage.getFunctionName() != null && !gage.getFunctionName().trim().isEmpty()) {
-            if (operatorFunctions.contains(gage.getFunctionName())) {
-                score += 50; // Medium weight for function
-                log.debug("Gage {} function '{}' matches operator functions", 
-                        gage.getId(), gage.getFunctionName());
-            } else {
-                log.debug("Gage {} function '{}' does not match operator functions {}", 
-                        gage.getId(), gage.getFunctionName(), operatorFunctions);
-            }
-        } else {
-            log.debug("Gage {} has no function specified", gage.getId());
-        }
-
-        // Operation match (if available)
-        if (gage.getOperationName() != null && !gage.getOperationName().trim().isEmpty()) {
-            if (operatorOperations.contains(gage.getOperationName())) {
-                score += 25; // Lower weight for operation
-                log.debug("Gage {} operation '{}' matches operator operations", 
-                        gage.getId(), gage.getOperationName());
-            } else {
-                log.debug("Gage {} operation '{}' does not match operator operations {}", 
-                        gage.getId(), gage.getOperationName(), operatorOperations);
-            }
-        } else {
-            log.debug("Gage {} has no operation specified", gage.getId());
+        Set<String> departments = normalize(operatorDepartments);
+        if (departments.isEmpty()) {
+            return Page.empty(pageable);
         }
-
-        return score;
+        Page<GageIssue> page = gageIssueRepository.findForOperator(departments, pageable);
+        log.info("Filtered {} gages for operator - Depts: {}, Functions: {}, Operations: {}",
+                page.getTotalElements(), departments, operatorFunctions, operatorOperations);
+        return page;
     }
 
     /**
@@ -147,63 +64,41 @@ public class GageFilteringService {
             Set<String> operatorDepartments,
             Set<String> operatorFunctions,
             Set<String> operatorOperations) {
-
-        List<GageIssue> filteredGages = getFilteredGagesForOperator(
-                operatorDepartments, operatorFunctions, operatorOperations);
-
-        // Sort by match score (highest first)
-        return filteredGages.stream()
-                .sorted((g1, g2) -> {
-                    int score1 = calculateMatchScore(g1, operatorDepartments, operatorFunctions, operatorOperations);
-                    int score2 = calculateMatchScore(g2, operatorDepartments, operatorFunctions, operatorOperations);
-                    return Integer.compare(score2, score1); // Descending order
-                })
-                .collect(Collectors.toList());
+        return getFilteredGagesByPriority(operatorDepartments, operatorFunctions, operatorOperations,
+                Pageable.unpaged()).getContent();
     }
 
     /**
-     * Get gages that are exact matches (all fields match)
+     * Paged variant: the 100/50/25 match score is computed and sorted on in the database.
      */
-    public List<GageIssue> getExactMatches(
+    public Page<GageIssue> getFilteredGagesByPriority(
             Set<String> operatorDepartments,
             Set<String> operatorFunctions,
-            Set<String> operatorOperations) {
+            Set<String> operatorOperations,
+            Pageable pageable) {
 
-        return getFilteredGagesForOperator(operatorDepartments, operatorFunctions, operatorOperations)
-                .stream()
-                .filter(gage -> isExactMatch(gage, operatorDepartments, operatorFunctions, operatorOperations))
-                .collect(Collectors.toList());
+        Set<String> departments = normalize(operatorDepartments);
+        if (departments.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return gageIssueRepository.findForOperatorByScore(departments,
+                orNoMatch(operatorFunctions), orNoMatch(operatorOperations), pageable);
     }
 
     /**
-     * Check if gage is an exact match (all available fields match)
+     * Get gages that are exact matches (all fields match)
      */
-    private boolean isExactMatch(
-            GageIssue gage,
+    public List<GageIssue> getExactMatches(
             Set<String> operatorDepartments,
             Set<String> operatorFunctions,
             Set<String> operatorOperations) {
 
-        // Department must always match
-        if (!hasDepartmentMatch(gage, operatorDepartments)) {
-            return false;
+        Set<String> departments = normalize(operatorDepartments);
+        if (departments.isEmpty()) {
+            return List.of();
         }
-
-        // Function must match if specified
-        if (gage.getFunctionName() != null && !gage.getFunctionName().trim().isEmpty()) {
-            if (!operatorFunctions.contains(gage.getFunctionName())) {
-                return false;
-            }
-        }
-
-        // Operation must match if specified
-        if (gage.getOperationName() != null && !gage.getOperationName().trim().isEmpty()) {
-            if (!operatorOperations.contains(gage.getOperationName())) {
-                return false;
-            }
-        }
-
-        return true;
+        return gageIssueRepository.findExactForOperator(departments,
+                orNoMatch(operatorFunctions), orNoMatch(operatorOperations), Pageable.unpaged()).getContent();
     }
 
     /**
@@ -214,10 +109,12 @@ public class GageFilteringService {
             Set<String> operatorFunctions,
             Set<String> operatorOperations) {
 
-        return getFilteredGagesForOperator(operatorDepartments, operatorFunctions, operatorOperations)
-                .stream()
-                .filter(gage -> !isExactMatch(gage, operatorDepartments, operatorFunctions, operatorOperations))
-                .collect(Collectors.toList());
+        Set<String> departments = normalize(operatorDepartments);
+        if (departments.isEmpty()) {
+            return List.of();
+        }
+        return gageIssueRepository.findPartialForOperator(departments,
+                orNoMatch(operatorFunctions), orNoMatch(operatorOperations), Pageable.unpaged()).getContent();
     }
 
     /**
@@ -228,25 +125,44 @@ public class GageFilteringService {
             Set<String> operatorFunctions,
             Set<String> operatorOperations) {
 
-        List<GageIssue> allGages = gageIssueRepository.findAll();
-        List<GageIssue> filteredGages = getFilteredGagesForOperator(
-                operatorDepartments, operatorFunctions, operatorOperations);
-        List<GageIssue> exactMatches = getExactMatches(
-                operatorDepartments, operatorFunctions, operatorOperations);
-        List<GageIssue> partialMatches = getPartialMatches(
-                operatorDepartments, operatorFunctions, operatorOperations);
+        Set<String> departments = normalize(operatorDepartments);
+        long matched = 0;
+        long exact = 0;
+        if (!departments.isEmpty()) {
+            GageIssueRepository.OperatorMatchCounts counts = gageIssueRepository.countForOperator(departments,
+                    orNoMatch(operatorFunctions), orNoMatch(operatorOperations));
+            matched = counts.getMatched();
+            exact = counts.getExact() != null ? counts.getExact() : 0;
+        }
 
         return FilteringSummary.builder()
-                .totalGages(allGages.size())
-                .filteredGages(filteredGages.size())
-                .exactMatches(exactMatches.size())
-                .partialMatches(partialMatches.size())
+                .totalGages((int) gageIssueRepository.count())
+                .filteredGages((int) matched)
+                .exactMatches((int) exact)
+                .partialMatches((int) (matched - exact))
                 .operatorDepartments(operatorDepartments)
                 .operatorFunctions(operatorFunctions)
                 .operatorOperations(operatorOperations)
                 .build();
     }
 
+    // Blank values never match a gage (a gage without a department is not visible to anyone)
+    private static Set<String> normalize(Set<String> values) {
+        if (values == null) {
+            return Set.of();
+        }
+        return values.stream()
+                .filter(v -> v != null && !v.trim().isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    // IN () is not valid SQL; an empty operator set becomes the '' placeholder, which the
+    // repository queries never count as a match
+    private static Set<String> orNoMatch(Set<String> values) {
+        Set<String> normalized = normalize(values);
+        return normalized.isEmpty() ? Set.of("") : normalized;
+    }
+
     /**
      * Summary DTO for filtering results
      */
@@ -267,22 +183,22 @@ public class GageFilteringService {
         // Getters and setters
         public int getTotalGages() { return totalGages; }
         public void setTotalGages(int totalGages) { this.totalGages = totalGages; }
-        
+
         public int getFilteredGages() { return filteredGages; }
         public void setFilteredGages(int filteredGages) { this.filteredGages = filteredGages; }
-        
+
         public int getExactMatches() { return exactMatches; }
         public void setExactMatches(int exactMatches) { this.exactMatches = exactMatches; }
-        
+
         public int getPartialMatches() { return partialMatches; }
         public void setPartialMatches(int partialMatches) { this.partialMatches = partialMatches; }
-        
+
         public Set<String> getOperatorDepartments() { return operatorDepartments; }
         public void setOperatorDepartments(Set<String> operatorDepartments) { this.operatorDepartments = operatorDepartments; }
-        
+
         public Set<String> getOperatorFunctions() { return operatorFunctions; }
         public void setOperatorFunctions(Set<String> operatorFunctions) { this.operatorFunctions = operatorFunctions; }
-        
+
         public Set<String> getOperatorOperations() { return operatorOperations; }
         public void setOperatorOperations(Set<String> operatorOperations) { this.operatorOperations = operatorOperations; }
 
@@ -330,4 +246,3 @@ public class GageFilteringService {
         }
     }
 }
-
@@ -0,0 +1,304 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.dto.GageMediaResponse;
+import com.secureauth.productservice.entity.Gage;
+import com.secureauth.productservice.entity.GageMedia;
+import com.secureauth.productservice.entity.MediaRendition;
+import com.secureauth.productservice.exception.ResourceNotFoundException;
+import com.secureauth.productservice.repository.GageMediaRepository;
+import com.secureauth.productservice.repository.GageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Stores gage images, videos and manuals in the {@link BlobStore} and keeps the
+ * {@link GageMedia} references on the gage. Uploads are streamed, never buffered as
+ * Base64 strings, and a blob is removed only once no media row points at it any more
+ * (see {@link BlobCleanupService}). Images get thumbnails rendered in the background
+ * ({@link MediaThumbnailService}).
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+@Slf4j
+public class GageMediaService {
+
+    private final GageRepository gageRepository;
+    private final GageMediaRepository gageMediaRepository;
+    private final BlobStore blobStore;
+    private final BlobCleanupService blobCleanupService;
+    private final MediaThumbnailService mediaThumbnailService;
+
+    // =============== ATTACH ===============
+
+    public GageMedia attach(Gage gage, GageMedia.Kind kind, MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            String contentType = file.getContentType() != null ? file.getContentType() : defaultContentType(kind);
+            GageMedia media = store(kind, in, file.getOriginalFilename(), contentType);
+            gage.addMedia(media);
+            return media;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + kind.name().toLowerCase() + " file", e);
+        }
+    }
+
+    /**
+     * Accepts either raw Base64 or a data URL ({@code data:image/png;base64,...}).
+     * Decoding is streamed so the decoded bytes are never held in memory as a whole.
+     */
+    public GageMedia attachBase64(Gage gage, GageMedia.Kind kind, String base64) {
+        GageMedia media = storeBase64(kind, base64);
+        gage.addMedia(media);
+        return media;
+    }
+
+    /**
+     * Stores the decoded payload and returns a media row that is not yet attached to a gage.
+     */
+    public GageMedia storeBase64(GageMedia.Kind kind, String base64) {
+        String payload = base64.trim();
+        String contentType = null;
+        if (payload.startsWith("data:")) {
+            int comma = payload.indexOf(',');
+            String header = payload.substring(5, Math.max(comma, 5));
+            int semi = header.indexOf(';');
+            contentType = semi > 0 ? header.substring(0, semi) : null;
+            payload = payload.substring(comma + 1);
+        }
+        InputStream raw = new ByteArrayInputStream(payload.getBytes(StandardCharsets.US_ASCII));
+        try (InputStream in = new BufferedInputStream(Base64.getMimeDecoder().wrap(raw))) {
+            if (contentType == null || contentType.isBlank()) {
+                contentType = guessContentType(in, kind);
+            }
+            return store(kind, in, null, contentType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + kind.name().toLowerCase() + " data", e);
+        }
+    }
+
+    public GageMedia attach(Long gageId, GageMedia.Kind kind, MultipartFile file) {
+        Gage gage = gageRepository.findById(gageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Gage not found with id: " + gageId));
+        GageMedia media = attach(gage, kind, file);
+        return gageMediaRepository.save(media);
+    }
+
+    /**
+     * Replaces media of the given kinds with the uploaded files. A null list keeps the
+     * existing media of that kind, matching the previous Base64 request semantics.
+     */
+    public void replaceWithUploads(Gage gage, List<MultipartFile> images, List<MultipartFile> videos,
+                                   MultipartFile manual) {
+        List<MultipartFile> imageFiles = nonEmpty(images);
+        if (imageFiles != null) {
+            detach(gage, GageMedia.Kind.IMAGE);
+            imageFiles.forEach(file -> attach(gage, GageMedia.Kind.IMAGE, file));
+        }
+        List<MultipartFile> videoFiles = nonEmpty(videos);
+        if (videoFiles != null) {
+            detach(gage, GageMedia.Kind.VIDEO);
+            videoFiles.forEach(file -> attach(gage, GageMedia.Kind.VIDEO, file));
+        }
+        if (manual != null && !manual.isEmpty()) {
+            detach(gage, GageMedia.Kind.MANUAL);
+            attach(gage, GageMedia.Kind.MANUAL, manual);
+        }
+    }
+
+    /**
+     * Same as {@link #replaceWithUploads} for JSON clients still sending Base64 payloads.
+     */
+    public void replaceWithBase64(Gage gage, List<String> images, List<String> videos, String manual) {
+        if (images != null) {
+            detach(gage, GageMedia.Kind.IMAGE);
+            images.stream().filter(s -> s != null && !s.isBlank())
+                    .forEach(s -> attachBase64(gage, GageMedia.Kind.IMAGE, s));
+        }
+        if (videos != null) {
+            detach(gage, GageMedia.Kind.VIDEO);
+            videos.stream().filter(s -> s != null && !s.isBlank())
+                    .forEach(s -> attachBase64(gage, GageMedia.Kind.VIDEO, s));
+        }
+        if (manual != null && !manual.isBlank()) {
+            detach(gage, GageMedia.Kind.MANUAL);
+            attachBase64(gage, GageMedia.Kind.MANUAL, manual);
+        }
+    }
+
+    // =============== READ ===============
+
+    @Transactional(readOnly = true)
+    public List<GageMediaResponse> getMedia(Long gageId) {
+        if (!gageRepository.existsById(gageId)) {
+            throw new ResourceNotFoundException("Gage not found with id: " + gageId);
+        }
+        return gageMediaRepository.findByGageIdOrderByIdAsc(gageId).stream()
+                .map(m -> toResponse(gageId, m))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Media references for a batch of gages in one query, keyed by gage id.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<GageMediaResponse>> getMediaByGageIds(Collection<Long> gageIds) {
+        if (gageIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return gageMediaRepository.findByGageIdInOrderByIdAsc(gageIds).stream()
+                .collect(Collectors.groupingBy(m -> m.getGage().getId(),
+                        Collectors.mapping(m -> toResponse(m.getGage().getId(), m), Collectors.toList())));
+    }
+
+    @Transactional(readOnly = true)
+    public GageMedia getMedia(Long gageId, Long mediaId) {
+        return gageMediaRepository.findByIdAndGageId(mediaId, gageId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Media " + mediaId + " not found for gage " + gageId));
+    }
+
+    public Resource load(GageMedia media) {
+        return blobStore.load(media.getBlobKey());
+    }
+
+    /**
+     * Smallest thumbnail of an image covering {@code size} pixels on its longest side; empty
+     * when the original should be served instead.
+     */
+    public Optional<MediaRendition> findRendition(GageMedia media, int size) {
+        if (media.getKind() != GageMedia.Kind.IMAGE) {
+            return Optional.empty();
+        }
+        String blobKey = media.getBlobKey();
+        return mediaThumbnailService.find(blobKey, size, () -> blobStore.load(blobKey).getInputStream());
+    }
+
+    public Resource load(MediaRendition rendition) {
+        return mediaThumbnailService.load(rendition);
+    }
+
+    // =============== DELETE ===============
+
+    public void deleteMedia(Long gageId, Long mediaId) {
+        GageMedia media = getMedia(gageId, mediaId);
+        Gage gage = media.getGage();
+        gage.getMedia().remove(media);
+        gageMediaRepository.delete(media);
+        releaseAfterCommit(media.getBlobKey());
+    }
+
+    /**
+     * Call before deleting a gage: its media rows go with the cascade, the blobs are
+     * cleaned up once the delete commits.
+     */
+    public void releaseAll(Gage gage) {
+        if (gage.getMedia() != null) {
+            gage.getMedia().forEach(m -> releaseAfterCommit(m.getBlobKey()));
+        }
+    }
+
+    // =============== MAPPING ===============
+
+    public List<GageMediaResponse> toResponses(Gage gage) {
+        if (gage.getMedia() == null) {
+            return new ArrayList<>();
+        }
+        return gage.getMedia().stream()
+                .map(m -> toResponse(gage.getId(), m))
+                .collect(Collectors.toList());
+    }
+
+    public GageMediaResponse toResponse(Long gageId, GageMedia media) {
+        return GageMediaResponse.builder()
+                .id(media.getId())
+                .kind(media.getKind())
+                .fileName(media.getFileName())
+                .contentType(media.getContentType())
+                .fileSize(media.getFileSize())
+                .url(media.getId() != null ? "/api/gages/" + gageId + "/media/" + media.getId() : null)
+                .createdAt(media.getCreatedAt())
+                .build();
+    }
+
+    // =============== HELPERS ===============
+
+    private GageMedia store(GageMedia.Kind kind, InputStream in, String fileName, String contentType)
+            throws IOException {
+        BlobStore.StoredBlob blob = blobStore.put(in);
+        blobCleanupService.cleanupOnRollback(blob.getKey());
+        if (kind == GageMedia.Kind.IMAGE) {
+            mediaThumbnailService.renderBlobAfterCommit(blob.getKey());
+        }
+        return GageMedia.builder()
+                .kind(kind)
+                .blobKey(blob.getKey())
+                .fileName(fileName)
+                .contentType(contentType)
+                .fileSize(blob.getSize())
+                .build();
+    }
+
+    private void detach(Gage gage, GageMedia.Kind kind) {
+        if (gage.getMedia() == null) {
+            return;
+        }
+        List<GageMedia> removed = gage.getMedia().stream()
+                .filter(m -> m.getKind() == kind)
+                .collect(Collectors.toList());
+        gage.getMedia().removeAll(removed);
+        removed.forEach(m -> releaseAfterCommit(m.getBlobKey()));
+    }
+
+    private void releaseAfterCommit(String blobKey) {
+        blobCleanupService.releaseAfterCommit(blobKey);
+    }
+
+    private static List<MultipartFile> nonEmpty(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            return null;
+        }
+        return files.stream().filter(f -> f != null && !f.isEmpty()).collect(Collectors.toList());
+    }
+
+    private static String guessContentType(InputStream in, GageMedia.Kind kind) throws IOException {
+        String guessed = URLConnection.guessContentTypeFromStream(in);
+        if (guessed != null) {
+            return guessed;
+        }
+        in.mark(8);
+        byte[] head = in.readNBytes(5);
+        in.reset();
+        if (new String(head, StandardCharsets.US_ASCII).equals("%PDF-")) {
+            return "application/pdf";
+        }
+        return defaultContentType(kind);
+    }
+
+    static String defaultContentType(GageMedia.Kind kind) {
+        return switch (kind) {
+            case IMAGE -> "image/jpeg";
+            case VIDEO -> "video/mp4";
+            case MANUAL -> "application/pdf";
+        };
+    }
+}
@@ -6,14 +6,20 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 public interface GageService {
 
     // CRUD Operations
     GageResponse createGage(GageRequest gageRequest);
+    // Multipart variant: files are streamed into the blob store
+    GageResponse createGage(GageRequest gageRequest, List<MultipartFile> images,
+                            List<MultipartFile> videos, MultipartFile manual);
     GageResponse getGageById(Long id);
     GageResponse getGageBySerialNumber(String serialNumber);
     List<GageResponse> getAllGages();
+    // Summary list; "fields" opts into heavier data ("media", "all")
+    List<GageResponse> getAllGages(Set<String> fields);
     GageResponse updateGage(Long id, GageRequest gageRequest);
     void deleteGage(Long id);
 
@@ -38,9 +44,6 @@ public interface GageService {
     // Validation
     boolean isSerialNumberUnique(String serialNumber);
 
-    // Daily Operations
-    void updateAllGagesRemainingDays();
-
     // Gage Usage Operations
     GageUsageResponse validateGageForUsage(String gageType, String serialNumber);
     GageUsageResponse recordGageUsage(GageUsageRequest usageRequest);
@@ -49,7 +52,17 @@ public interface GageService {
     // Filtering Operations
     List<GageResponse> getFilteredGages(String department, String function, String operation);
 
+    // Paged lists (offset or keyset cursor, optional total count)
+    GagePage getAllGages(Set<String> fields, GagePageRequest pageRequest);
+    GagePage getGagesByStatus(Gage.Status status, GagePageRequest pageRequest);
+    GagePage getGagesByLocation(Gage.Location location, GagePageRequest pageRequest);
+    GagePage getGagesByType(String gageTypeName, GagePageRequest pageRequest);
+    GagePage getFilteredGages(String department, String function, String operation, GagePageRequest pageRequest);
+    GagePage searchGages(String searchTerm, GagePageRequest pageRequest);
+
     // Barcode Scanning Operations
     GageScanResponse getGageDetailsByBarcodeImage(MultipartFile barcodeImage);
     GageScanResponse getGageDetailsByBarcodeScan(String serialNumber);
+    GageBatchScanResponse getGageDetailsByBarcodeScans(List<String> serialNumbers);
+    GageBatchScanResponse getGageDetailsByBarcodeImages(List<MultipartFile> barcodeImages);
 }
\ No newline at end of file
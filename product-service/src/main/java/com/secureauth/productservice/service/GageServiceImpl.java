@@ -1,37 +1,41 @@
 package com.secureauth.productservice.service;
 
-import com.google.zxing.*;
-import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.common.HybridBinarizer;
-import com.google.zxing.oned.Code128Writer;
-import com.google.zxing.qrcode.QRCodeWriter;
 import com.secureauth.productservice.dto.*;
 import com.secureauth.productservice.entity.*;
 import com.secureauth.productservice.exception.ResourceNotFoundException;
+import com.secureauth.productservice.exception.ScanDecodeRejectedException;
 import com.secureauth.productservice.repository.*;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Slf4j
 public class GageServiceImpl implements GageService {
 
     @Autowired
@@ -52,80 +56,52 @@ public class GageServiceImpl implements GageService {
     @Autowired
     private GageIssueRepository gageIssueRepository;
 
+    @Autowired
+    private GageTypeService gageTypeService;
+
+    @Autowired
+    private GageSubTypeService gageSubTypeService;
+
+    @Autowired
+    private InhouseCalibrationMachineService inhouseCalibrationMachineService;
+
     @Autowired
     private JobRepository jobRepository;
 
-    @Value("${app.frontend.baseUrl:http://10.2.0.95:5173}")
-    private String frontendBaseUrl;
+    @Autowired
+    private GageMediaService gageMediaService;
 
-    // =============== BARCODE GENERATION ===============
-    private String generateBarcodeBase64(String serialNumber) {
-        if (serialNumber == null || serialNumber.trim().isEmpty()) {
-            return null;
-        }
-        try {
-            BitMatrix bitMatrix = new Code128Writer().encode(
-                    serialNumber.trim(),
-                    BarcodeFormat.CODE_128,
-                    300,
-                    80);
-            ByteArrayOutputStream pngOutputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", pngOutputStream);
-            return Base64.getEncoder().encodeToString(pngOutputStream.toByteArray());
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to generate barcode: " + e.getMessage());
-            return null;
-        }
-    }
+    @Autowired
+    private GageUsageCounterService gageUsageCounterService;
 
-    // =============== QR CODE GENERATION ===============
-    private String generateQrCodeBase64(String content) {
-        if (content == null || content.trim().isEmpty()) {
-            return null;
-        }
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(
-                    content.trim(),
-                    BarcodeFormat.QR_CODE,
-                    300,
-                    300);
-            ByteArrayOutputStream pngOutputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", pngOutputStream);
-            return Base64.getEncoder().encodeToString(pngOutputStream.toByteArray());
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to generate QR code: " + e.getMessage());
-            return null;
-        }
-    }
+    @Autowired
+    private GageCodeService gageCodeService;
 
-    private String buildGageDeepLink(String serialNumber) {
-        if (serialNumber == null || serialNumber.isBlank())
-            return null;
-        String base = frontendBaseUrl != null ? frontendBaseUrl.trim() : "http://10.2.0.95:5173";
-        if (base.endsWith("/"))
-            base = base.substring(0, base.length() - 1);
-        return base + "/scan?serial=" + serialNumber.trim();
-    }
+    @Autowired
+    private BarcodeDecodeService barcodeDecodeService;
 
-    // =============== BARCODE DECODING HELPER ===============
-    private String decodeBarcodeImage(byte[] imageBytes) {
-        try {
-            ByteArrayInputStream bais = new ByteArrayInputStream(imageBytes);
-            BufferedImage image = ImageIO.read(bais);
-            LuminanceSource source = new BufferedImageLuminanceSource(image);
-            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-            MultiFormatReader reader = new MultiFormatReader();
-            Result result = reader.decode(bitmap);
-            return result.getText();
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to decode barcode image: " + e.getMessage());
-            return null;
-        }
-    }
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+
+    // Opt-in heavy fields for list endpoints (see mapSummaries)
+    private static final String FIELD_MEDIA = "media";
+    private static final String FIELD_ALL = "all";
+
+    private static final int MAX_USAGE_ATTEMPTS = 3;
+
+    // Batch scan limits: serials resolve in one IN query; images share the bounded decode pool
+    private static final int MAX_BATCH_SCAN_SERIALS = 1000;
+    private static final int MAX_BATCH_SCAN_IMAGES = 50;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "serialNumber", "modelNumber", "status",
+            "location", "criticality", "purchaseDate", "nextCalibrationDate", "pendingCalibrationDate");
 
     // =============== SCAN VIA BARCODE IMAGE UPLOAD ===============
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public GageScanResponse getGageDetailsByBarcodeImage(MultipartFile barcodeImage) {
         try {
             if (barcodeImage == null || barcodeImage.isEmpty()) {
@@ -135,7 +111,8 @@ public class GageServiceImpl implements GageService {
                         .scanTime(LocalDateTime.now())
                         .build();
             }
-            String serialNumber = decodeBarcodeImage(barcodeImage.getBytes());
+            // Decoding can queue for a while; no transaction (and no pooled connection) is held meanwhile
+            String serialNumber = barcodeDecodeService.decodeSerial(barcodeImage.getBytes());
             if (serialNumber == null || serialNumber.trim().isEmpty()) {
                 return GageScanResponse.builder()
                         .success(false)
@@ -143,7 +120,10 @@ public class GageServiceImpl implements GageService {
                         .scanTime(LocalDateTime.now())
                         .build();
             }
-            return getGageDetailsByBarcodeScan(serialNumber.trim());
+            String serial = serialNumber.trim();
+            return transactionTemplate.execute(status -> getGageDetailsByBarcodeScan(serial));
+        } catch (ScanDecodeRejectedException e) {
+            throw e;
         } catch (Exception e) {
             return GageScanResponse.builder()
                     .success(false)
@@ -153,22 +133,107 @@ public class GageServiceImpl implements GageService {
         }
     }
 
+    // =============== BATCH SCAN (AUDITS) ===============
+    @Override
+    @Transactional(readOnly = true)
+    public GageBatchScanResponse getGageDetailsByBarcodeScans(List<String> serialNumbers) {
+        Set<String> distinct = new LinkedHashSet<>();
+        if (serialNumbers != null) {
+            for (String serial : serialNumbers) {
+                if (serial != null && !serial.isBlank()) {
+                    distinct.add(serial.trim());
+                }
+            }
+        }
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("At least one serial number is required");
+        }
+        if (distinct.size() > MAX_BATCH_SCAN_SERIALS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SCAN_SERIALS + " serial numbers per batch scan");
+        }
+        // One IN query over the slim projection for the whole batch
+        Map<String, GageSummary> bySerial = gageRepository.findSummariesBySerialNumberIn(distinct).stream()
+                .collect(Collectors.toMap(GageSummary::getSerialNumber, summary -> summary, (a, b) -> a));
+
+        GageBatchScanResponse response = GageBatchScanResponse.builder()
+                .requested(distinct.size())
+                .scanTime(LocalDateTime.now())
+                .build();
+        for (String serial : distinct) {
+            GageSummary summary = bySerial.get(serial);
+            if (summary != null) {
+                response.getFound().add(mapToGageScanResponse(summary));
+            } else {
+                response.getNotFound().add(serial);
+            }
+        }
+        response.setFoundCount(response.getFound().size());
+        return response;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public GageBatchScanResponse getGageDetailsByBarcodeImages(List<MultipartFile> barcodeImages) {
+        List<MultipartFile> uploads = barcodeImages == null ? List.of()
+                : barcodeImages.stream().filter(file -> file != null && !file.isEmpty()).toList();
+        if (uploads.isEmpty()) {
+            throw new IllegalArgumentException("No barcode images provided");
+        }
+        if (uploads.size() > MAX_BATCH_SCAN_IMAGES) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SCAN_IMAGES + " images per batch scan");
+        }
+        List<byte[]> images = new ArrayList<>(uploads.size());
+        for (MultipartFile upload : uploads) {
+            try {
+                images.add(upload.getBytes());
+            } catch (java.io.IOException e) {
+                throw new java.io.UncheckedIOException("Failed to read upload " + upload.getOriginalFilename(), e);
+            }
+        }
+        List<String> decoded = barcodeDecodeService.decodeSerials(images);
+
+        List<String> serials = new ArrayList<>();
+        List<String> undecoded = new ArrayList<>();
+        for (int i = 0; i < decoded.size(); i++) {
+            String serial = decoded.get(i);
+            if (serial == null || serial.isBlank()) {
+                String name = uploads.get(i).getOriginalFilename();
+                undecoded.add(name != null ? name : "image-" + (i + 1));
+            } else {
+                serials.add(serial);
+            }
+        }
+        GageBatchScanResponse response = serials.isEmpty()
+                ? GageBatchScanResponse.builder().scanTime(LocalDateTime.now()).build()
+                : transactionTemplate.execute(status -> getGageDetailsByBarcodeScans(serials));
+        response.setUndecoded(undecoded);
+        return response;
+    }
+
     // =============== CREATE GAGE ===============
     @Override
     public GageResponse createGage(GageRequest request) {
-        Optional<Gage> existing = gageRepository.findBySerialNumber(request.getSerialNumber());
+        return createGage(request, null, null, null);
+    }
+
+    @Override
+    public GageResponse createGage(GageRequest request, List<MultipartFile> images,
+                                   List<MultipartFile> videos, MultipartFile manual) {
+        Optional<Gage> existing = gageRepository.findDetailedBySerialNumber(request.getSerialNumber());
         if (existing.isPresent()) {
             Gage gage = existing.get();
             if (gage.getStatus() == Gage.Status.ISSUED) {
                 updateGageFromRequest(gage, request);
+                gageMediaService.replaceWithUploads(gage, images, videos, manual);
                 gage.setStatus(Gage.Status.ISSUED);
-                Gage updatedGage = gageRepository.save(gage);
+                Gage updatedGage = gageRepository.saveAndFlush(gage);
                 return mapToGageResponse(updatedGage);
             } else if (gage.getStatus() == Gage.Status.ACTIVE) {
                 System.out.println("🔄 Issuing ACTIVE gage with serial number: " + request.getSerialNumber());
                 updateGageFromRequest(gage, request);
+                gageMediaService.replaceWithUploads(gage, images, videos, manual);
                 gage.setStatus(Gage.Status.ISSUED);
-                Gage updatedGage = gageRepository.save(gage);
+                Gage updatedGage = gageRepository.saveAndFlush(gage);
                 System.out.println("✅ Gage issued successfully. New status: " + updatedGage.getStatus());
                 return mapToGageResponse(updatedGage);
             } else {
@@ -177,49 +242,28 @@ public class GageServiceImpl implements GageService {
             }
         }
         Gage gage = mapToGage(request);
+        gageMediaService.replaceWithUploads(gage, images, videos, manual);
         gage.setStatus(Gage.Status.ACTIVE);
-        Gage savedGage = gageRepository.save(gage);
+        Gage savedGage = gageRepository.saveAndFlush(gage);
         return mapToGageResponse(savedGage);
     }
 
     // =============== MAPPING: REQUEST → ENTITY ===============
     private Gage mapToGage(GageRequest request) {
-        GageType gageType = gageTypeRepository.findByName(request.getGageTypeName())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "GageType not found with name: " + request.getGageTypeName()));
-        GageSubType gageSubType = gageSubTypeRepository.findById(request.getGageSubTypeId())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "GageSubType not found with id: " + request.getGageSubTypeId()));
-        Manufacturer manufacturer = manufacturerRepository.findById(Long.valueOf(request.getManufacturerId()))
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Manufacturer not found with id: " + request.getManufacturerId()));
+        GageType gageType = gageTypeReference(request.getGageTypeName());
+        GageSubType gageSubType = gageSubTypeReference(request.getGageSubTypeId());
+        Manufacturer manufacturer = manufacturerReference(Long.valueOf(request.getManufacturerId()));
 
         InhouseCalibrationMachine inhouseCalibrationMachine = null;
         if (request.getInhouseCalibrationMachineId() != null) {
-            inhouseCalibrationMachine = inhouseCalibrationMachineRepository.findById(request.getInhouseCalibrationMachineId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "InhouseCalibrationMachine not found with id: " + request.getInhouseCalibrationMachineId()));
+            inhouseCalibrationMachine = inhouseCalibrationMachineReference(request.getInhouseCalibrationMachineId());
         }
         LocalDate pending = calculatePendingCalibrationDate(request.getNextCalibrationDate(), request.getCriticality());
-        Integer remaining = calculateRemainingDays(request.getNextCalibrationDate());
 
+        // Barcode/QR images are rendered on demand by GageCodeService, only the choice is stored
         Gage.CodeType codeType = request.getCodeType() != null ? request.getCodeType() : Gage.CodeType.BARCODE_ONLY;
-        String barcodeImg = null;
-        String qrCodeImg = null;
-        switch (codeType) {
-            case BARCODE_ONLY:
-                barcodeImg = generateBarcodeBase64(request.getSerialNumber());
-                break;
-            case QR_ONLY:
-                qrCodeImg = generateQrCodeBase64(buildGageDeepLink(request.getSerialNumber()));
-                break;
-            case BOTH:
-                barcodeImg = generateBarcodeBase64(request.getSerialNumber());
-                qrCodeImg = generateQrCodeBase64(buildGageDeepLink(request.getSerialNumber()));
-                break;
-        }
-
-        return Gage.builder()
+
+        Gage gage = Gage.builder()
                 .serialNumber(request.getSerialNumber())
                 .modelNumber(request.getModelNumber())
                 .gageType(gageType)
@@ -236,63 +280,64 @@ public class GageServiceImpl implements GageService {
                 .nextCalibrationDate(request.getNextCalibrationDate())
                 .maxUsersNumber(request.getMaxUsersNumber())
                 .pendingCalibrationDate(pending)
-                .remainingDays(remaining)
                 .notes(request.getNotes())
-                // ✅ Multiple images
-                .gageImages(
-                        request.getGageImages() != null ? new ArrayList<>(request.getGageImages()) : new ArrayList<>())
-                // ✅ New: optional videos
-                .gageVideos(
-                        request.getGageVideos() != null ? new ArrayList<>(request.getGageVideos()) : new ArrayList<>())
-                .gageManual(request.getGageManual())
-                .barcodeImage(barcodeImg)
-                .qrCodeImage(qrCodeImg)
                 .codeType(codeType)
                 .status(request.getStatus() != null ? request.getStatus() : Gage.Status.ACTIVE)
                 .build();
+
+        // Base64 media from JSON clients goes to the blob store, not the gage row
+        gageMediaService.replaceWithBase64(gage, request.getGageImages(), request.getGageVideos(),
+                request.getGageManual());
+        return gage;
+    }
+
+    // =============== REFERENCE DATA ===============
+    // Type, sub-type, manufacturer and machine are checked against the cached reference lists
+    // and bound by id, so building a gage runs no lookup query for them
+
+    private GageType gageTypeReference(String name) {
+        return gageTypeService.getAllGageTypes().stream()
+                .filter(type -> name != null && name.equals(type.getName()))
+                .findFirst()
+                .map(type -> gageTypeRepository.getReferenceById(type.getId()))
+                .orElseThrow(() -> new ResourceNotFoundException("GageType not found with name: " + name));
+    }
+
+    private GageSubType gageSubTypeReference(Long id) {
+        if (id == null || gageSubTypeService.getAllGageSubTypes().stream().noneMatch(subType -> id.equals(subType.getId()))) {
+            throw new ResourceNotFoundException("GageSubType not found with id: " + id);
+        }
+        return gageSubTypeRepository.getReferenceById(id);
+    }
+
+    private Manufacturer manufacturerReference(Long id) {
+        if (!manufacturerRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Manufacturer not found with id: " + id);
+        }
+        return manufacturerRepository.getReferenceById(id);
+    }
+
+    private InhouseCalibrationMachine inhouseCalibrationMachineReference(Long id) {
+        if (inhouseCalibrationMachineService.getAllInhouseCalibrationMachines().stream()
+                .noneMatch(machine -> id.equals(machine.getId()))) {
+            throw new ResourceNotFoundException("InhouseCalibrationMachine not found with id: " + id);
+        }
+        return inhouseCalibrationMachineRepository.getReferenceById(id);
     }
 
     // =============== UPDATE GAGE FROM REQUEST ===============
     private void updateGageFromRequest(Gage gage, GageRequest request) {
-        GageType gageType = gageTypeRepository.findByName(request.getGageTypeName())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "GageType not found with name: " + request.getGageTypeName()));
-        GageSubType gageSubType = gageSubTypeRepository.findById(request.getGageSubTypeId())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "GageSubType not found with id: " + request.getGageSubTypeId()));
-        Manufacturer manufacturer = manufacturerRepository.findById(Long.valueOf(request.getManufacturerId()))
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Manufacturer not found with id: " + request.getManufacturerId()));
+        GageType gageType = gageTypeReference(request.getGageTypeName());
+        GageSubType gageSubType = gageSubTypeReference(request.getGageSubTypeId());
+        Manufacturer manufacturer = manufacturerReference(Long.valueOf(request.getManufacturerId()));
 
         InhouseCalibrationMachine inhouseCalibrationMachine = null;
         if (request.getInhouseCalibrationMachineId() != null) {
-            inhouseCalibrationMachine = inhouseCalibrationMachineRepository.findById(request.getInhouseCalibrationMachineId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "InhouseCalibrationMachine not found with id: " + request.getInhouseCalibrationMachineId()));
+            inhouseCalibrationMachine = inhouseCalibrationMachineReference(request.getInhouseCalibrationMachineId());
         }
 
-        boolean serialChanged = !gage.getSerialNumber().equals(request.getSerialNumber());
         Gage.CodeType newCodeType = request.getCodeType() != null ? request.getCodeType() : gage.getCodeType();
 
-        String barcodeImg = gage.getBarcodeImage();
-        String qrCodeImg = gage.getQrCodeImage();
-        if (serialChanged || newCodeType != gage.getCodeType()) {
-            barcodeImg = null;
-            qrCodeImg = null;
-            switch (newCodeType) {
-                case BARCODE_ONLY:
-                    barcodeImg = generateBarcodeBase64(request.getSerialNumber());
-                    break;
-                case QR_ONLY:
-                    qrCodeImg = generateQrCodeBase64(buildGageDeepLink(request.getSerialNumber()));
-                    break;
-                case BOTH:
-                    barcodeImg = generateBarcodeBase64(request.getSerialNumber());
-                    qrCodeImg = generateQrCodeBase64(buildGageDeepLink(request.getSerialNumber()));
-                    break;
-            }
-        }
-
         gage.setSerialNumber(request.getSerialNumber());
         gage.setModelNumber(request.getModelNumber());
         gage.setGageType(gageType);
@@ -306,32 +351,24 @@ public class GageServiceImpl implements GageService {
         gage.setPurchaseDate(request.getPurchaseDate());
         gage.setManufacturer(manufacturer);
         gage.setCalibrationInterval(request.getCalibrationInterval());
+        if (!Objects.equals(gage.getNextCalibrationDate(), request.getNextCalibrationDate())) {
+            // A new due date starts a new calibration cycle with an unused budget
+            gage.setUsageDaysConsumed(0);
+        }
         gage.setNextCalibrationDate(request.getNextCalibrationDate());
         gage.setMaxUsersNumber(request.getMaxUsersNumber());
         gage.setPendingCalibrationDate(
                 calculatePendingCalibrationDate(request.getNextCalibrationDate(), request.getCriticality()));
-        gage.setRemainingDays(calculateRemainingDays(request.getNextCalibrationDate()));
         if (request.getNotes() != null)
             gage.setNotes(request.getNotes());
 
-        // ✅ Update multiple images
-        if (request.getGageImages() != null) {
-            gage.setGageImages(new ArrayList<>(request.getGageImages()));
-        }
-
-        // ✅ Update optional videos
-        if (request.getGageVideos() != null) {
-            gage.setGageVideos(new ArrayList<>(request.getGageVideos()));
-        }
-
-        if (request.getGageManual() != null)
-            gage.setGageManual(request.getGageManual());
+        // Media is replaced per kind only when the request carries it
+        gageMediaService.replaceWithBase64(gage, request.getGageImages(), request.getGageVideos(),
+                request.getGageManual());
 
         if (request.getStatus() != null)
             gage.setStatus(request.getStatus());
 
-        gage.setBarcodeImage(barcodeImg);
-        gage.setQrCodeImage(qrCodeImg);
         gage.setCodeType(newCodeType);
     }
 
@@ -360,49 +397,201 @@ public class GageServiceImpl implements GageService {
                 .pendingCalibrationDate(gage.getPendingCalibrationDate())
                 .remainingDays(gage.getRemainingDays())
                 .notes(gage.getNotes())
-                // ✅ Multiple images
-                .gageImages(gage.getGageImages() != null ? new ArrayList<>(gage.getGageImages()) : new ArrayList<>())
-                // ✅ New: optional videos
-                .gageVideos(gage.getGageVideos() != null ? new ArrayList<>(gage.getGageVideos()) : new ArrayList<>())
-                .gageManual(gage.getGageManual())
-                .barcodeImage(gage.getBarcodeImage())
-                .qrCodeImage(gage.getQrCodeImage())
+                .media(gageMediaService.toResponses(gage))
+                .barcodeUrl(gageCodeService.barcodeUrl(gage.getSerialNumber(), gage.getCodeType()))
+                .qrCodeUrl(gageCodeService.qrCodeUrl(gage.getSerialNumber(), gage.getCodeType()))
                 .build();
     }
 
-    private GageScanResponse mapToGageScanResponse(Gage gage) {
+    // Scan responses carry no media; clients fetch /api/gages/{id}/media and the code URLs when needed
+    private GageScanResponse mapToGageScanResponse(GageSummary summary) {
         return GageScanResponse.builder()
-                .id(gage.getId())
-                .serialNumber(gage.getSerialNumber())
-                .modelNumber(gage.getModelNumber())
-                .gageType(mapToGageTypeResponse(gage.getGageType()))
-                .gageSubType(gage.getGageSubType() != null ? gage.getGageSubType().getName() : null)
-                .usageFrequency(gage.getUsageFrequency())
-                .criticality(gage.getCriticality())
-                .location(gage.getLocation())
-                .status(gage.getStatus())
-                .measurementRange(gage.getMeasurementRange())
-                .accuracy(gage.getAccuracy())
-                .purchaseDate(gage.getPurchaseDate())
-                .manufacturerName(gage.getManufacturer() != null ? gage.getManufacturer().getName() : null)
-                .calibrationInterval(gage.getCalibrationInterval())
-                .nextCalibrationDate(gage.getNextCalibrationDate())
-                .maxUsersNumber(gage.getMaxUsersNumber())
-                .pendingCalibrationDate(gage.getPendingCalibrationDate())
-                .remainingDays(gage.getRemainingDays())
-                .notes(gage.getNotes())
-                // ✅ Multiple images
-                .gageImages(gage.getGageImages() != null ? new ArrayList<>(gage.getGageImages()) : new ArrayList<>())
-                // ✅ New: optional videos
-                .gageVideos(gage.getGageVideos() != null ? new ArrayList<>(gage.getGageVideos()) : new ArrayList<>())
-                .barcodeImage(gage.getBarcodeImage())
-                .qrCodeImage(gage.getQrCodeImage())
+                .id(summary.getId())
+                .serialNumber(summary.getSerialNumber())
+                .modelNumber(summary.getModelNumber())
+                .gageType(summary.getGageTypeId() != null ? GageTypeResponse.builder()
+                        .id(summary.getGageTypeId())
+                        .name(summary.getGageTypeName())
+                        .build() : null)
+                .gageSubType(summary.getGageSubTypeName())
+                .usageFrequency(summary.getUsageFrequency())
+                .criticality(summary.getCriticality())
+                .location(summary.getLocation())
+                .status(summary.getStatus())
+                .measurementRange(summary.getMeasurementRange())
+                .accuracy(summary.getAccuracy())
+                .purchaseDate(summary.getPurchaseDate())
+                .manufacturerName(summary.getManufacturerName())
+                .calibrationInterval(summary.getCalibrationInterval())
+                .nextCalibrationDate(summary.getNextCalibrationDate())
+                .maxUsersNumber(summary.getMaxUsersNumber())
+                .pendingCalibrationDate(summary.getPendingCalibrationDate())
+                .remainingDays(summary.getRemainingDays())
+                .notes(summary.getNotes())
+                .barcodeUrl(gageCodeService.barcodeUrl(summary.getSerialNumber(), summary.getCodeType()))
+                .qrCodeUrl(gageCodeService.qrCodeUrl(summary.getSerialNumber(), summary.getCodeType()))
                 .scanTime(LocalDateTime.now())
                 .success(true)
                 .message("Gage details retrieved successfully")
                 .build();
     }
 
+    // =============== PAGED LISTS ===============
+    @Override
+    public GagePage getAllGages(Set<String> fields, GagePageRequest pageRequest) {
+        Slice<GageSummary> slice = gageRepository.findSummaryPage(cursorOf(pageRequest), toPageable(pageRequest));
+        return toGagePage(slice, fields, pageRequest, gageRepository::count);
+    }
+
+    @Override
+    public GagePage getGagesByStatus(Gage.Status status, GagePageRequest pageRequest) {
+        Slice<GageSummary> slice = gageRepository.findSummaryPageByStatus(status, cursorOf(pageRequest),
+                toPageable(pageRequest));
+        return toGagePage(slice, null, pageRequest, () -> gageRepository.countByStatus(status));
+    }
+
+    @Override
+    public GagePage getGagesByLocation(Gage.Location location, GagePageRequest pageRequest) {
+        Slice<GageSummary> slice = gageRepository.findSummaryPageByLocation(location, cursorOf(pageRequest),
+                toPageable(pageRequest));
+        return toGagePage(slice, null, pageRequest, () -> gageRepository.countByLocation(location));
+    }
+
+    @Override
+    public GagePage getGagesByType(String gageTypeName, GagePageRequest pageRequest) {
+        Slice<GageSummary> slice = gageRepository.findSummaryPageByGageTypeName(gageTypeName,
+                cursorOf(pageRequest), toPageable(pageRequest));
+        return toGagePage(slice, null, pageRequest, () -> gageRepository.countByGageTypeName(gageTypeName));
+    }
+
+    @Override
+    public GagePage getFilteredGages(String department, String function, String operation,
+                                     GagePageRequest pageRequest) {
+        String dept = blankToNull(department);
+        String func = blankToNull(function);
+        String op = blankToNull(operation);
+        if (dept == null && func == null && op == null) {
+            return getAllGages(null, pageRequest);
+        }
+        Slice<GageSummary> slice = gageRepository.findSummaryPageByAllocation(dept, func, op,
+                cursorOf(pageRequest), toPageable(pageRequest));
+        return toGagePage(slice, null, pageRequest, () -> gageRepository.countByAllocation(dept, func, op));
+    }
+
+    private static long cursorOf(GagePageRequest pageRequest) {
+        return pageRequest.isKeyset() ? pageRequest.getAfter() : 0L;
+    }
+
+    // Keyset pages are always ordered by id; offset pages may sort on a whitelisted column, id breaks ties
+    private static Pageable toPageable(GagePageRequest pageRequest) {
+        int size = pageRequest.getSize() != null ? pageRequest.getSize() : DEFAULT_PAGE_SIZE;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (pageRequest.isKeyset()) {
+            return PageRequest.of(0, size, Sort.by("id"));
+        }
+        int page = pageRequest.getPage() != null ? pageRequest.getPage() : 0;
+        if (page < 0) {
+            throw new IllegalArgumentException("Page index must not be negative");
+        }
+        return PageRequest.of(page, size, parseSort(pageRequest.getSort()));
+    }
+
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE_FIELDS.contains(property)) {
+            throw new IllegalArgumentException("Cannot sort gages by: " + property);
+        }
+        Sort.Direction direction = parts.length > 1 && parts[1].trim().equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return property.equals("id") ? Sort.by(direction, "id") : Sort.by(direction, property).and(Sort.by("id"));
+    }
+
+    private GagePage toGagePage(Slice<GageSummary> slice, Set<String> fields, GagePageRequest pageRequest,
+                                LongSupplier total) {
+        List<GageResponse> content = mapSummaries(slice.getContent(), fields);
+        // The cursor is only meaningful while rows come back in ascending id order
+        boolean idOrdered = pageRequest.isKeyset() || parseSort(pageRequest.getSort()).equals(Sort.by("id"));
+        Long nextCursor = slice.hasNext() && idOrdered && !content.isEmpty()
+                ? content.get(content.size() - 1).getId() : null;
+        return GagePage.builder()
+                .content(content)
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .totalElements(pageRequest.isWithTotal() ? total.getAsLong() : null)
+                .build();
+    }
+
+    private List<GageResponse> mapSummaries(List<GageSummary> summaries) {
+        return mapSummaries(summaries, Collections.emptySet());
+    }
+
+    /**
+     * Builds list responses from the summary projection. Heavy fields are only loaded when
+     * requested via {@code fields} ("media" or "all"), with one batched query each.
+     */
+    private List<GageResponse> mapSummaries(List<GageSummary> summaries, Set<String> fields) {
+        List<GageResponse> responses = summaries.stream()
+                .map(this::mapSummaryToGageResponse)
+                .collect(Collectors.toList());
+        if (responses.isEmpty() || fields == null || fields.isEmpty()) {
+            return responses;
+        }
+        boolean all = fields.contains(FIELD_ALL);
+        List<Long> ids = responses.stream().map(GageResponse::getId).collect(Collectors.toList());
+        if (all || fields.contains(FIELD_MEDIA)) {
+            Map<Long, List<GageMediaResponse>> media = gageMediaService.getMediaByGageIds(ids);
+            responses.forEach(r -> r.setMedia(media.getOrDefault(r.getId(), new ArrayList<>())));
+        }
+        return responses;
+    }
+
+    private GageResponse mapSummaryToGageResponse(GageSummary summary) {
+        return GageResponse.builder()
+                .id(summary.getId())
+                .serialNumber(summary.getSerialNumber())
+                .modelNumber(summary.getModelNumber())
+                .gageType(summary.getGageTypeId() != null ? GageTypeResponse.builder()
+                        .id(summary.getGageTypeId())
+                        .name(summary.getGageTypeName())
+                        .build() : null)
+                .gageSubType(summary.getGageSubTypeId() != null ? GageSubTypeResponse.builder()
+                        .id(summary.getGageSubTypeId())
+                        .name(summary.getGageSubTypeName())
+                        .build() : null)
+                .inhouseCalibrationMachine(summary.getInhouseCalibrationMachineId() != null
+                        ? InhouseCalibrationMachineResponse.builder()
+                                .id(summary.getInhouseCalibrationMachineId())
+                                .machineName(summary.getInhouseCalibrationMachineName())
+                                .build()
+                        : null)
+                .usageFrequency(summary.getUsageFrequency())
+                .criticality(summary.getCriticality())
+                .location(summary.getLocation())
+                .status(summary.getStatus())
+                .measurementRange(summary.getMeasurementRange())
+                .accuracy(summary.getAccuracy())
+                .purchaseDate(summary.getPurchaseDate())
+                .manufacturerId(summary.getManufacturerId() != null ? summary.getManufacturerId().toString() : null)
+                .manufacturerName(summary.getManufacturerName())
+                .calibrationInterval(summary.getCalibrationInterval())
+                .nextCalibrationDate(summary.getNextCalibrationDate())
+                .maxUsersNumber(summary.getMaxUsersNumber())
+                .pendingCalibrationDate(summary.getPendingCalibrationDate())
+                .remainingDays(summary.getRemainingDays())
+                .notes(summary.getNotes())
+                .barcodeUrl(gageCodeService.barcodeUrl(summary.getSerialNumber(), summary.getCodeType()))
+                .qrCodeUrl(gageCodeService.qrCodeUrl(summary.getSerialNumber(), summary.getCodeType()))
+                .build();
+    }
+
     // =============== SCAN BY TEXT ===============
     @Override
     public GageScanResponse getGageDetailsByBarcodeScan(String serialNumber) {
@@ -414,9 +603,9 @@ public class GageServiceImpl implements GageService {
                     .build();
         }
         try {
-            Gage gage = gageRepository.findBySerialNumber(serialNumber.trim())
+            GageSummary summary = gageRepository.findSummaryBySerialNumber(serialNumber.trim())
                     .orElseThrow(() -> new ResourceNotFoundException("Gage not found"));
-            return mapToGageScanResponse(gage);
+            return mapToGageScanResponse(summary);
         } catch (Exception e) {
             return GageScanResponse.builder()
                     .success(false)
@@ -429,49 +618,52 @@ public class GageServiceImpl implements GageService {
     // =============== BASIC CRUD OPERATIONS ===============
     @Override
     public GageResponse getGageById(Long id) {
-        Gage gage = gageRepository.findById(id)
+        Gage gage = gageRepository.findDetailedById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Gage not found with id: " + id));
         return mapToGageResponse(gage);
     }
 
     @Override
     public GageResponse getGageBySerialNumber(String serialNumber) {
-        Gage gage = gageRepository.findBySerialNumber(serialNumber)
+        Gage gage = gageRepository.findDetailedBySerialNumber(serialNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Gage not found with serial number: " + serialNumber));
         return mapToGageResponse(gage);
     }
 
     @Override
     public List<GageResponse> getAllGages() {
-        return gageRepository.findAll().stream()
-                .map(this::mapToGageResponse)
-                .collect(Collectors.toList());
+        return getAllGages(Collections.emptySet());
+    }
+
+    @Override
+    public List<GageResponse> getAllGages(Set<String> fields) {
+        return mapSummaries(gageRepository.findAllSummaries(), fields);
     }
 
     @Override
     public GageResponse updateGage(Long id, GageRequest gageRequest) {
-        Gage existingGage = gageRepository.findById(id)
+        Gage existingGage = gageRepository.findDetailedById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Gage not found with id: " + id));
         if (!existingGage.getSerialNumber().equals(gageRequest.getSerialNumber()) &&
                 !isSerialNumberUnique(gageRequest.getSerialNumber())) {
             throw new IllegalArgumentException("Serial number already exists: " + gageRequest.getSerialNumber());
         }
         updateGageFromRequest(existingGage, gageRequest);
-        Gage updatedGage = gageRepository.save(existingGage);
+        Gage updatedGage = gageRepository.saveAndFlush(existingGage);
         return mapToGageResponse(updatedGage);
     }
 
     @Override
     public void deleteGage(Long id) {
-        if (!gageRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Gage not found with id: " + id);
-        }
-        gageRepository.deleteById(id);
+        Gage gage = gageRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Gage not found with id: " + id));
+        gageMediaService.releaseAll(gage);
+        gageRepository.delete(gage);
     }
 
     @Override
     public GageResponse updateGageStatus(Long id, Gage.Status status) {
-        Gage gage = gageRepository.findById(id)
+        Gage gage = gageRepository.findDetailedById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Gage not found with id: " + id));
         gage.setStatus(status);
         Gage updatedGage = gageRepository.save(gage);
@@ -480,17 +672,18 @@ public class GageServiceImpl implements GageService {
 
     @Override
     public GageResponse inwardupdateGageStatus(Long id, Gage.Status status) {
-        Gage gage = gageRepository.findById(id)
+        Gage gage = gageRepository.findDetailedById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Gage not found with id: " + id));
         gage.setStatus(status);
         gage.setNextCalibrationDate(LocalDate.now().plusDays(30));
+        gage.setUsageDaysConsumed(0); // back from calibration: a new cycle with an unused budget
         Gage updatedGage = gageRepository.save(gage);
         return mapToGageResponse(updatedGage);
     }
 
     @Override
     public GageResponse issueGageBySerialNumber(String serialNumber) {
-        Gage gage = gageRepository.findBySerialNumber(serialNumber)
+        Gage gage = gageRepository.findDetailedBySerialNumber(serialNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Gage not found with serial number: " + serialNumber));
         if (gage.getStatus() == Gage.Status.ACTIVE) {
             System.out.println("🔄 Issuing gage by serial number: " + serialNumber + " (current status: ACTIVE)");
@@ -513,80 +706,94 @@ public class GageServiceImpl implements GageService {
 
     @Override
     public List<GageResponse> searchGages(String searchTerm) {
-        return gageRepository.findAll().stream()
-                .filter(gage -> gage.getSerialNumber().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                        gage.getModelNumber().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                        (gage.getGageType() != null
-                                && gage.getGageType().getName().toLowerCase().contains(searchTerm.toLowerCase())))
-                .map(this::mapToGageResponse)
+        String term = searchTerm(searchTerm);
+        // Unpaged callers get every match, best first, as before paging existed
+        return mapSummaries(rankedSummaries(term, Integer.MAX_VALUE, 0));
+    }
+
+    // Ranked trigram search in the database; only the requested page of ids is mapped
+    @Override
+    public GagePage searchGages(String searchTerm, GagePageRequest pageRequest) {
+        String term = searchTerm(searchTerm);
+        int size = pageRequest.getSize() != null ? pageRequest.getSize() : DEFAULT_PAGE_SIZE;
+        int page = pageRequest.getPage() != null ? pageRequest.getPage() : 0;
+        if (size < 1 || size > MAX_PAGE_SIZE || page < 0) {
+            throw new IllegalArgumentException("Invalid page request: page=" + page + ", size=" + size);
+        }
+
+        // One extra row tells us whether another page exists without counting
+        List<GageSummary> ranked = rankedSummaries(term, size + 1, (long) page * size);
+        boolean hasNext = ranked.size() > size;
+        if (hasNext) {
+            ranked = ranked.subList(0, size);
+        }
+
+        return GagePage.builder()
+                .content(mapSummaries(ranked))
+                .page(page)
+                .size(size)
+                .hasNext(hasNext)
+                .totalElements(pageRequest.isWithTotal()
+                        ? gageRepository.countSearchMatches(term, "%" + escapeLike(term) + "%") : null)
+                .build();
+    }
+
+    private static String searchTerm(String searchTerm) {
+        String term = searchTerm == null ? "" : searchTerm.trim().toLowerCase();
+        if (term.isEmpty()) {
+            throw new IllegalArgumentException("Search term must not be empty");
+        }
+        return term;
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private List<GageSummary> rankedSummaries(String term, int limit, long offset) {
+        String escaped = escapeLike(term);
+        List<Long> ids = gageRepository.searchRankedIds(term, "%" + escaped + "%", escaped + "%", limit, offset);
+        Map<Long, GageSummary> byId = gageRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(GageSummary::getId, summary -> summary));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<GageResponse> getGagesByType(Long gageTypeId) {
-        return gageRepository.findByGageTypeId(gageTypeId).stream()
-                .map(this::mapToGageResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(gageRepository.findSummariesByGageTypeId(gageTypeId));
     }
 
     @Override
     public List<GageResponse> getGagesBySubType(Long gageSubTypeId) {
-        return gageRepository.findByGageSubTypeId(gageSubTypeId).stream()
-                .map(this::mapToGageResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(gageRepository.findSummariesByGageSubTypeId(gageSubTypeId));
     }
 
     @Override
     public List<GageResponse> getGagesByLocation(Gage.Location location) {
-        return gageRepository.findByLocation(location).stream()
-                .map(this::mapToGageResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(gageRepository.findSummariesByLocation(location));
     }
 
     @Override
     public List<GageResponse> getGagesByCriticality(Gage.Criticality criticality) {
-        return gageRepository.findByCriticality(criticality).stream()
-                .map(this::mapToGageResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(gageRepository.findSummariesByCriticality(criticality));
     }
 
     @Override
     public List<GageResponse> getGagesByStatus(Gage.Status status) {
-        return gageRepository.findByStatus(status).stream()
-                .map(this::mapToGageResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(gageRepository.findSummariesByStatus(status));
     }
 
     @Override
     public List<GageResponse> getGagesByTypeName(String gageTypeName) {
-        return gageRepository.findByGageTypeName(gageTypeName).stream()
-                .map(this::mapToGageResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(gageRepository.findSummariesByGageTypeName(gageTypeName));
     }
 
     @Override
     public List<GageResponse> getGagesByInhouseCalibrationMachine(Long inhouseCalibrationMachineId) {
-        return gageRepository.findByInhouseCalibrationMachineId(inhouseCalibrationMachineId).stream()
-                .map(this::mapToGageResponse)
-                .collect(Collectors.toList());
-    }
-
-    @Override
-    public void updateAllGagesRemainingDays() {
-        System.out.println("🔄 Starting daily update of remaining days for all gages...");
-        List<Gage> allGages = gageRepository.findAll();
-        int updatedCount = 0;
-        for (Gage gage : allGages) {
-            if (gage.getNextCalibrationDate() != null) {
-                Integer newRemainingDays = calculateRemainingDays(gage.getNextCalibrationDate());
-                gage.setRemainingDays(newRemainingDays);
-                gageRepository.save(gage);
-                updatedCount++;
-                System.out.println("📅 Updated gage " + gage.getSerialNumber() +
-                        " - Remaining days: " + newRemainingDays);
-            }
-        }
-        System.out.println("✅ Daily update completed. Updated " + updatedCount + " gages.");
+        return mapSummaries(gageRepository.findSummariesByInhouseCalibrationMachineId(inhouseCalibrationMachineId));
     }
 
     // =============== BUSINESS LOGIC HELPERS ===============
@@ -602,13 +809,6 @@ public class GageServiceImpl implements GageService {
         return nextCalibrationDate.plusDays(extendDays);
     }
 
-    private Integer calculateRemainingDays(LocalDate nextCalibrationDate) {
-        if (nextCalibrationDate == null)
-            return null;
-        LocalDate today = LocalDate.now();
-        return (int) ChronoUnit.DAYS.between(today, nextCalibrationDate);
-    }
-
     private GageSubTypeResponse mapToGageSubTypeResponse(GageSubType gageSubType) {
         return GageSubTypeResponse.builder()
                 .id(gageSubType.getId())
@@ -669,7 +869,7 @@ public class GageServiceImpl implements GageService {
                     .validationMessage("Gage is currently " + gage.getStatus() + " and not available for use")
                     .build();
         }
-        Integer totalUsesUsed = getTotalUsesForGage(serialNumber);
+        Integer totalUsesUsed = gageUsageCounterService.getTotalUses(serialNumber);
         Integer currentUsesCount = gage.getMaxUsersNumber() - totalUsesUsed;
         return GageUsageResponse.builder()
                 .serialNumber(serialNumber)
@@ -686,32 +886,56 @@ public class GageServiceImpl implements GageService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public GageUsageResponse recordGageUsage(GageUsageRequest usageRequest) {
         System.out.println("📝 Recording gage usage for serial: " + usageRequest.getSerialNumber());
+        // Each attempt is its own transaction; a lock or version conflict rolls it back and retries
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> recordGageUsageOnce(usageRequest, status));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_USAGE_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Usage conflict on serial {}, retrying (attempt {}): {}",
+                        usageRequest.getSerialNumber(), attempt, e.getMessage());
+                backOff(attempt);
+            }
+        }
+    }
+
+    private GageUsageResponse recordGageUsageOnce(GageUsageRequest usageRequest, TransactionStatus status) {
         GageUsageResponse validation = validateGageForUsage(usageRequest.getGageType(), usageRequest.getSerialNumber());
         if (!validation.getIsValidSerial()) {
             return validation;
         }
         Gage gage = gageRepository.findBySerialNumber(usageRequest.getSerialNumber())
                 .orElseThrow(() -> new ResourceNotFoundException("Gage not found"));
+        Long gageId = gage.getId();
+        Integer maxUsersNumber = gage.getMaxUsersNumber();
         if (gage.getRemainingDays() != null && gage.getRemainingDays() < usageRequest.getDaysUsed()) {
-            return GageUsageResponse.builder()
-                    .serialNumber(usageRequest.getSerialNumber())
-                    .isValidSerial(false)
-                    .validationMessage("Insufficient remaining calibration days. Remaining: " +
-                            gage.getRemainingDays() + ", Requested: " + usageRequest.getDaysUsed())
-                    .build();
+            return insufficientDays(usageRequest, gage.getRemainingDays());
         }
-        Integer totalUsesUsed = getTotalUsesForGage(usageRequest.getSerialNumber());
-        Integer currentUsesCount = gage.getMaxUsersNumber() - totalUsesUsed;
+        Integer totalUsesUsed = gageUsageCounterService.getTotalUses(usageRequest.getSerialNumber());
+        Integer currentUsesCount = maxUsersNumber - totalUsesUsed;
         if (currentUsesCount < usageRequest.getUsesCount()) {
-            return GageUsageResponse.builder()
-                    .serialNumber(usageRequest.getSerialNumber())
-                    .isValidSerial(false)
-                    .validationMessage("Insufficient remaining uses. Remaining: " +
-                            currentUsesCount + ", Requested: " + usageRequest.getUsesCount())
-                    .build();
+            return insufficientUses(usageRequest, currentUsesCount);
+        }
+
+        // The checks above are only a fast path; these conditional updates are what guarantee
+        // that concurrent requests cannot book more days or uses than the gage has left
+        if (gageRepository.reserveUsageDays(gageId, usageRequest.getDaysUsed(), LocalDate.now()) == 0) {
+            status.setRollbackOnly();
+            Integer remaining = gageRepository.findById(gageId).map(Gage::getRemainingDays).orElse(0);
+            return insufficientDays(usageRequest, remaining);
+        }
+        if (!gageUsageCounterService.tryReserve(usageRequest.getSerialNumber(), usageRequest.getUsesCount(),
+                usageRequest.getDaysUsed(), maxUsersNumber)) {
+            status.setRollbackOnly();
+            int remaining = maxUsersNumber - gageUsageCounterService.getTotalUses(usageRequest.getSerialNumber());
+            return insufficientUses(usageRequest, remaining);
         }
+
         String description = "Gage usage recorded";
         if (usageRequest.getJobDescription() != null && !usageRequest.getJobDescription().trim().isEmpty()) {
             description += " for " + usageRequest.getJobDescription();
@@ -741,13 +965,10 @@ public class GageServiceImpl implements GageService {
                 .usageNotes(usageRequest.getUsageNotes())
                 .build();
         Job savedUsage = jobRepository.save(gageUsage);
-        if (gage.getRemainingDays() != null) {
-            Integer newRemainingDays = gage.getRemainingDays() - usageRequest.getDaysUsed();
-            gage.setRemainingDays(Math.max(0, newRemainingDays));
-            gageRepository.save(gage);
-        }
-        Integer newTotalUsesUsed = getTotalUsesForGage(usageRequest.getSerialNumber());
-        Integer newCurrentUsesCount = gage.getMaxUsersNumber() - newTotalUsesUsed;
+        // Re-read: the reservation cleared the persistence context
+        gage = gageRepository.findById(gageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Gage not found"));
+        Integer newCurrentUsesCount = maxUsersNumber - gageUsageCounterService.getTotalUses(usageRequest.getSerialNumber());
         return GageUsageResponse.builder()
                 .id(savedUsage.getId())
                 .serialNumber(usageRequest.getSerialNumber())
@@ -774,25 +995,51 @@ public class GageServiceImpl implements GageService {
                 .build();
     }
 
+    private GageUsageResponse insufficientDays(GageUsageRequest usageRequest, Integer remainingDays) {
+        return GageUsageResponse.builder()
+                .serialNumber(usageRequest.getSerialNumber())
+                .isValidSerial(false)
+                .validationMessage("Insufficient remaining calibration days. Remaining: " +
+                        remainingDays + ", Requested: " + usageRequest.getDaysUsed())
+                .build();
+    }
+
+    private GageUsageResponse insufficientUses(GageUsageRequest usageRequest, Integer remainingUses) {
+        return GageUsageResponse.builder()
+                .serialNumber(usageRequest.getSerialNumber())
+                .isValidSerial(false)
+                .validationMessage("Insufficient remaining uses. Remaining: " +
+                        remainingUses + ", Requested: " + usageRequest.getUsesCount())
+                .build();
+    }
+
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(10, 50) * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying gage usage", e);
+        }
+    }
+
     @Override
     public List<GageResponse> getGagesByType(String gageTypeName) {
-        return gageRepository.findByGageTypeName(gageTypeName).stream()
-                .map(this::mapToGageResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(gageRepository.findSummariesByGageTypeName(gageTypeName));
     }
 
     @Override
     public List<GageResponse> getFilteredGages(String department, String function, String operation) {
-        return gageRepository.findAll().stream()
-                .map(this::mapToGageResponse)
-                .collect(Collectors.toList());
+        String dept = blankToNull(department);
+        String func = blankToNull(function);
+        String op = blankToNull(operation);
+        if (dept == null && func == null && op == null) {
+            return mapSummaries(gageRepository.findAllSummaries());
+        }
+        return mapSummaries(gageRepository.findSummariesByAllocation(dept, func, op));
     }
 
-    private Integer getTotalUsesForGage(String serialNumber) {
-        List<Job> usageRecords = jobRepository.findByGageSerialNumberAndUsesCountIsNotNull(serialNumber);
-        return usageRecords.stream()
-                .mapToInt(record -> record.getUsesCount() != null ? record.getUsesCount() : 0)
-                .sum();
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.repository.GageUsageCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Per-serial running totals of recorded gage usage. Callers adjust the counter in the
+ * same transaction that inserts, changes or deletes the {@code Job} row, so a usage
+ * check costs one primary-key read no matter how much history a gage has.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+@Slf4j
+public class GageUsageCounterService {
+
+    private final GageUsageCounterRepository counterRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public void increment(String serialNumber, Integer uses, Integer days) {
+        if (serialNumber == null) {
+            return;
+        }
+        long deltaUses = uses != null ? uses : 0;
+        long deltaDays = days != null ? days : 0;
+        if (deltaUses == 0 && deltaDays == 0) {
+            return;
+        }
+        counterRepository.increment(serialNumber, deltaUses, deltaDays);
+    }
+
+    public void decrement(String serialNumber, Integer uses, Integer days) {
+        increment(serialNumber, uses != null ? -uses : null, days != null ? -days : null);
+    }
+
+    /**
+     * Atomically books usage if it fits under {@code maxUses} (null means unlimited).
+     * Returns false, without changing anything, when capacity is exhausted.
+     */
+    public boolean tryReserve(String serialNumber, int uses, int days, Integer maxUses) {
+        long limit = maxUses != null ? maxUses : Long.MAX_VALUE;
+        return counterRepository.reserve(serialNumber, uses, days, limit) == 1;
+    }
+
+    @Transactional(readOnly = true)
+    public int getTotalUses(String serialNumber) {
+        return counterRepository.findById(serialNumber)
+                .map(c -> Math.toIntExact(c.getTotalUses()))
+                .orElse(0);
+    }
+
+    @Transactional(readOnly = true)
+    public int getTotalDaysUsed(String serialNumber) {
+        return counterRepository.findById(serialNumber)
+                .map(c -> Math.toIntExact(c.getTotalDaysUsed()))
+                .orElse(0);
+    }
+
+    // =============== RECONCILIATION ===============
+
+    /**
+     * Recomputes every counter from the jobs table and logs how many had drifted.
+     * Also runs at startup, which backfills the table the first time it is deployed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.usage-counter.reconcile-cron:0 30 2 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconcile() {
+        try {
+            Integer corrected = transactionTemplate.execute(status -> {
+                counterRepository.lockForReconcile();
+                return counterRepository.reconcileFromJobs() + counterRepository.resetOrphans();
+            });
+            if (corrected != null && corrected > 0) {
+                log.warn("Gage usage counter reconciliation corrected {} counters", corrected);
+            } else {
+                log.debug("Gage usage counters are consistent with job history");
+            }
+        } catch (Exception e) {
+            // Counters keep serving the incremental values; the next run tries again
+            log.error("Gage usage counter reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.secureauth.productservice.service;
+
+import com.google.zxing.common.BitMatrix;
+import com.secureauth.productservice.dto.GageSummary;
+import com.secureauth.productservice.entity.Gage;
+import com.secureauth.productservice.repository.GageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Prints barcode/QR labels for many gages as one A4 sheet document (PDF or SVG).
+ * Gages are read in id-ordered chunks, the codes of each page are encoded in parallel,
+ * and every page is written to the output as soon as it is laid out, so memory use is
+ * bounded by one chunk no matter how many labels are requested. Codes are drawn as
+ * vector rectangles, which keeps them sharp on any label printer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LabelSheetService {
+
+    public enum Format { PDF, SVG }
+
+    /** AUTO prints whatever the gage's code type says. */
+    public enum CodeChoice { AUTO, BARCODE, QR, BOTH }
+
+    // A4, 3 x 8 labels
+    private static final double PAGE_WIDTH = PdfDocumentWriter.A4_WIDTH;
+    private static final double PAGE_HEIGHT = PdfDocumentWriter.A4_HEIGHT;
+    private static final double MARGIN = 20;
+    private static final int COLUMNS = 3;
+    private static final int ROWS = 8;
+    private static final int LABELS_PER_PAGE = COLUMNS * ROWS;
+    private static final double LABEL_WIDTH = (PAGE_WIDTH - 2 * MARGIN) / COLUMNS;
+    private static final double LABEL_HEIGHT = (PAGE_HEIGHT - 2 * MARGIN) / ROWS;
+    private static final double PADDING = 6;
+
+    // Ten pages per database round-trip
+    private static final int CHUNK_SIZE = LABELS_PER_PAGE * 10;
+
+    private final GageRepository gageRepository;
+    private final GageCodeService gageCodeService;
+
+    /**
+     * Labels for all gages matching the filters (null filter = any), in id order. An SVG sheet
+     * stops at the number of gages counted for its declared height; gages that start matching
+     * while it is streamed are left for the next print.
+     */
+    public void writeByFilter(Gage.Status status, Gage.Location location, String gageTypeName,
+                              CodeChoice codes, Format format, OutputStream out) throws IOException {
+        long expected = format == Format.SVG ? gageRepository.countForLabels(status, location, gageTypeName) : 0;
+        long remaining = format == Format.SVG ? expected : Long.MAX_VALUE;
+        try (SheetWriter writer = newWriter(format, expected, out)) {
+            long after = 0;
+            while (remaining > 0) {
+                List<GageSummary> chunk = gageRepository.findSummaryChunkForLabels(status, location, gageTypeName,
+                        after, PageRequest.of(0, CHUNK_SIZE));
+                writePages(writer, chunk.size() > remaining ? chunk.subList(0, (int) remaining) : chunk, codes);
+                remaining -= chunk.size();
+                if (chunk.size() < CHUNK_SIZE) {
+                    break;
+                }
+                after = chunk.get(chunk.size() - 1).getId();
+            }
+        }
+    }
+
+    /**
+     * Labels for the given gage ids, in the order given; a repeated id prints one label per
+     * occurrence and unknown ids are skipped. An SVG sheet is sized for every requested label,
+     * so skipped ids leave blank space at its end but nothing can run past it.
+     */
+    public void writeByIds(List<Long> ids, CodeChoice codes, Format format, OutputStream out) throws IOException {
+        try (SheetWriter writer = newWriter(format, ids.size(), out)) {
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                List<Long> chunkIds = ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE));
+                Map<Long, GageSummary> found = gageRepository.findSummariesByIdIn(chunkIds).stream()
+                        .collect(Collectors.toMap(GageSummary::getId, Function.identity()));
+                writePages(writer, chunkIds.stream().map(found::get).filter(s -> s != null).collect(Collectors.toList()),
+                        codes);
+            }
+        }
+    }
+
+    public static String contentType(Format format) {
+        return format == Format.PDF ? "application/pdf" : "image/svg+xml";
+    }
+
+    // =============== LAYOUT ===============
+
+    private record Label(GageSummary gage, BitMatrix barcode, BitMatrix qr) {
+    }
+
+    private void writePages(SheetWriter writer, List<GageSummary> gages, CodeChoice codes) throws IOException {
+        for (int from = 0; from < gages.size(); from += LABELS_PER_PAGE) {
+            List<GageSummary> pageGages = gages.subList(from, Math.min(gages.size(), from + LABELS_PER_PAGE));
+            // Encoding is the CPU-heavy part; spread one page's codes over the cores
+            List<Label> labels = pageGages.parallelStream()
+                    .map(g -> toLabel(g, codes))
+                    .collect(Collectors.toList());
+            writer.startPage();
+            for (int i = 0; i < labels.size(); i++) {
+                double x = MARGIN + (i % COLUMNS) * LABEL_WIDTH;
+                double y = MARGIN + (i / COLUMNS) * LABEL_HEIGHT;
+                drawLabel(writer, labels.get(i), x, y);
+            }
+            writer.endPage();
+        }
+    }
+
+    private Label toLabel(GageSummary gage, CodeChoice codes) {
+        Gage.CodeType type = switch (codes) {
+            case BARCODE -> Gage.CodeType.BARCODE_ONLY;
+            case QR -> Gage.CodeType.QR_ONLY;
+            case BOTH -> Gage.CodeType.BOTH;
+            case AUTO -> gage.getCodeType() != null ? gage.getCodeType() : Gage.CodeType.BARCODE_ONLY;
+        };
+        BitMatrix barcode = null;
+        BitMatrix qr = null;
+        try {
+            if (type != Gage.CodeType.QR_ONLY) {
+                barcode = gageCodeService.modules(GageCodeService.Kind.BARCODE, gage.getSerialNumber());
+            }
+            if (type != Gage.CodeType.BARCODE_ONLY) {
+                qr = gageCodeService.modules(GageCodeService.Kind.QR, gage.getSerialNumber());
+            }
+        } catch (IllegalArgumentException e) {
+            // A serial Code 128 cannot encode still gets its text label
+            log.warn("Skipping code for gage {}: {}", gage.getSerialNumber(), e.getMessage());
+        }
+        return new Label(gage, barcode, qr);
+    }
+
+    private static void drawLabel(SheetWriter writer, Label label, double x, double y) throws IOException {
+        GageSummary gage = label.gage();
+        writer.text(x + PADDING, y + PADDING + 9, 10, true, gage.getSerialNumber());
+        String detail = joinNonBlank(gage.getGageTypeName(), gage.getModelNumber());
+        if (!detail.isEmpty()) {
+            writer.text(x + PADDING, y + PADDING + 19, 7, false, detail);
+        }
+
+        double top = y + PADDING + 24;
+        double width = LABEL_WIDTH - 2 * PADDING;
+        double height = LABEL_HEIGHT - (top - y) - PADDING;
+        double left = x + PADDING;
+        if (label.qr() != null) {
+            double side = Math.min(height, width);
+            double qrLeft = label.barcode() != null ? x + LABEL_WIDTH - PADDING - side : left;
+            writer.modules(label.qr(), qrLeft, top, side, side);
+            width -= side + PADDING;
+        }
+        if (label.barcode() != null && width > 0) {
+            writer.modules(label.barcode(), left, top, width, height);
+        }
+    }
+
+    private static String joinNonBlank(String... parts) {
+        List<String> present = new ArrayList<>();
+        for (String part : parts) {
+            if (part != null && !part.isBlank()) {
+                present.add(part.trim());
+            }
+        }
+        return String.join(" / ", present);
+    }
+
+    private static SheetWriter newWriter(Format format, long expectedLabels, OutputStream out) throws IOException {
+        if (format == Format.PDF) {
+            return new PdfSheetWriter(out);
+        }
+        int pages = (int) Math.max(1, (expectedLabels + LABELS_PER_PAGE - 1) / LABELS_PER_PAGE);
+        return new SvgSheetWriter(out, pages);
+    }
+
+    // =============== WRITERS ===============
+    // Coordinates are in points from the top-left corner of the page; text y is the baseline.
+
+    private interface SheetWriter extends AutoCloseable {
+        void startPage() throws IOException;
+
+        void text(double x, double y, double size, boolean bold, String text) throws IOException;
+
+        /** Draws the dark modules of a code stretched over the given box. */
+        void modules(BitMatrix matrix, double x, double y, double width, double height) throws IOException;
+
+        void endPage() throws IOException;
+
+        /** Finishes the document; does not close the underlying stream. */
+        @Override
+        void close() throws IOException;
+    }
+
+    // Same document writer as calibration certificates
+    private static final class PdfSheetWriter implements SheetWriter {
+
+        private final PdfDocumentWriter pdf;
+
+        PdfSheetWriter(OutputStream out) throws IOException {
+            this.pdf = new PdfDocumentWriter(out, PAGE_WIDTH, PAGE_HEIGHT);
+        }
+
+        @Override
+        public void startPage() {
+            pdf.startPage();
+        }
+
+        @Override
+        public void text(double x, double y, double size, boolean bold, String text) throws IOException {
+            pdf.text(x, y, size, bold, text);
+        }
+
+        @Override
+        public void modules(BitMatrix matrix, double x, double y, double width, double height) throws IOException {
+            pdf.modules(matrix, x, y, width, height);
+        }
+
+        @Override
+        public void endPage() throws IOException {
+            pdf.endPage();
+        }
+
+        @Override
+        public void close() throws IOException {
+            pdf.close();
+        }
+    }
+
+    /**
+     * Single SVG document with the pages stacked vertically, one {@code g} per page. The root
+     * has to declare its height up front, so the caller counts the labels before streaming.
+     */
+    private static final class SvgSheetWriter implements SheetWriter {
+
+        private final OutputStream out;
+        private int pages;
+        private StringBuilder page;
+
+        SvgSheetWriter(OutputStream out, int expectedPages) throws IOException {
+            this.out = out;
+            double height = PAGE_HEIGHT * expectedPages;
+            write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + num(PAGE_WIDTH) + "pt\" height=\""
+                    + num(height) + "pt\" viewBox=\"0 0 " + num(PAGE_WIDTH) + " " + num(height) + "\" "
+                    + "font-family=\"Helvetica, Arial, sans-serif\" shape-rendering=\"crispEdges\">\n");
+        }
+
+        @Override
+        public void startPage() {
+            page = new StringBuilder(16 * 1024);
+            page.append("<g transform=\"translate(0 ").append(num(pages * PAGE_HEIGHT)).append(")\">")
+                    .append("<rect width=\"").append(num(PAGE_WIDTH)).append("\" height=\"").append(num(PAGE_HEIGHT))
+                    .append("\" fill=\"#fff\" stroke=\"#ccc\"/>\n");
+        }
+
+        @Override
+        public void text(double x, double y, double size, boolean bold, String text) {
+            page.append("<text x=\"").append(num(x)).append("\" y=\"").append(num(y)).append("\" font-size=\"")
+                    .append(num(size)).append('"').append(bold ? " font-weight=\"bold\"" : "").append('>')
+                    .append(escape(text)).append("</text>\n");
+        }
+
+        @Override
+        public void modules(BitMatrix matrix, double x, double y, double width, double height) {
+            double cellWidth = width / matrix.getWidth();
+            double cellHeight = height / matrix.getHeight();
+            page.append("<path d=\"");
+            forEachRun(matrix, (row, start, length) -> page.append('M').append(num(x + start * cellWidth)).append(' ')
+                    .append(num(y + row * cellHeight)).append('h').append(num(length * cellWidth))
+                    .append('v').append(num(cellHeight)).append('h').append(num(-length * cellWidth)).append('z'));
+            page.append("\"/>\n");
+        }
+
+        @Override
+        public void endPage() throws IOException {
+            page.append("</g>\n");
+            write(page.toString());
+            page = null;
+            pages++;
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            write("</svg>\n");
+            out.flush();
+        }
+
+        private void write(String s) throws IOException {
+            out.write(s.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static String escape(String text) {
+            return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+    }
+
+    @FunctionalInterface
+    private interface RunConsumer {
+        void accept(int row, int start, int length);
+    }
+
+    // Horizontal runs of dark modules, row by row
+    private static void forEachRun(BitMatrix matrix, RunConsumer consumer) {
+        for (int row = 0; row < matrix.getHeight(); row++) {
+            int x = 0;
+            while (x < matrix.getWidth()) {
+                if (!matrix.get(x, row)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < matrix.getWidth() && matrix.get(x, row)) {
+                    x++;
+                }
+                consumer.accept(row, start, x - start);
+            }
+        }
+    }
+
+    private static String num(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,335 @@
+package com.secureauth.productservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.secureauth.productservice.entity.MediaRendition;
+import com.secureauth.productservice.repository.MediaRenditionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders JPEG thumbnails of uploaded images on a bounded background pool and keeps them in
+ * the {@link BlobStore} as {@link MediaRendition}s. Rendering is queued once the upload commits,
+ * so it never delays the request; the original is read with source subsampling, so a 12 MP
+ * photo is never decoded at full size. When the queue is full the render is skipped and the
+ * next {@link #find} for that image queues it again; until a rendition exists callers serve
+ * the original. Latency is published as the {@code media.thumbnail.render} timer.
+ */
+@Service
+@Slf4j
+public class MediaThumbnailService {
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    private final MediaRenditionRepository mediaRenditionRepository;
+    private final BlobStore blobStore;
+    private final BlobReferenceLocks blobReferenceLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int[] sizes;
+    private final float quality;
+
+    // Sources queued or rendering, so a burst of requests for one image queues it once
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // Sources that could not be decoded are not retried on every request
+    private final Cache<String, Boolean> unreadable = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private final Timer renderedTimer;
+    private final Timer unreadableTimer;
+    private final Timer failedTimer;
+
+    public MediaThumbnailService(MediaRenditionRepository mediaRenditionRepository,
+                                 BlobStore blobStore,
+                                 BlobReferenceLocks blobReferenceLocks,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.media.thumbnails.sizes:160,480,1280}") int[] sizes,
+                                 @Value("${app.media.thumbnails.threads:2}") int threads,
+                                 @Value("${app.media.thumbnails.queue:256}") int queueCapacity,
+                                 @Value("${app.media.thumbnails.quality:0.82}") float quality) {
+        this.mediaRenditionRepository = mediaRenditionRepository;
+        this.blobStore = blobStore;
+        this.blobReferenceLocks = blobReferenceLocks;
+        // discard() is called from an afterCompletion callback, where a joined transaction never commits
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.sizes = Arrays.stream(sizes).filter(size -> size > 0).sorted().distinct().toArray();
+        this.quality = quality;
+
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-thumbnail-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.renderedTimer = renderTimer(meterRegistry, "rendered");
+        this.unreadableTimer = renderTimer(meterRegistry, "unreadable");
+        this.failedTimer = renderTimer(meterRegistry, "failed");
+        Gauge.builder("media.thumbnail.queue", executor, pool -> pool.getQueue().size())
+                .description("Uploaded images waiting for a thumbnail thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens the original image; called on a thumbnail thread, possibly long after the upload.
+     */
+    @FunctionalInterface
+    public interface Source {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Queues thumbnails for the image once the current transaction commits (immediately when
+     * there is none), so the worker never races the upload's own insert.
+     */
+    public void renderAfterCommit(String sourceKey, Source source) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(sourceKey, source);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(sourceKey, source);
+            }
+        });
+    }
+
+    /**
+     * Thumbnails for an image held in the blob store, keyed by its blob key.
+     */
+    public void renderBlobAfterCommit(String blobKey) {
+        renderAfterCommit(blobKey, () -> blobStore.load(blobKey).getInputStream());
+    }
+
+    /**
+     * The smallest rendition whose longest side is at least {@code size}, or empty when the
+     * original should be served: it is smaller than that, or its thumbnails are not rendered
+     * yet (in which case they are queued now).
+     */
+    public Optional<MediaRendition> find(String sourceKey, int size, Source source) {
+        Optional<MediaRendition> rendition = mediaRenditionRepository
+                .findFirstBySourceKeyAndMaxDimensionGreaterThanEqualOrderByMaxDimensionAsc(sourceKey, size);
+        if (rendition.isEmpty() && !pending.contains(sourceKey)
+                && unreadable.getIfPresent(sourceKey) == null
+                && !mediaRenditionRepository.existsBySourceKey(sourceKey)) {
+            submit(sourceKey, source);
+        }
+        return rendition;
+    }
+
+    public Resource load(MediaRendition rendition) {
+        return blobStore.load(rendition.getBlobKey());
+    }
+
+    /**
+     * Drops the renditions of a deleted original and returns their blob keys, which the
+     * caller releases once nothing else references them.
+     */
+    public List<String> discard(String sourceKey) {
+        return transactionTemplate.execute(status -> {
+            List<String> blobKeys = mediaRenditionRepository.findBlobKeysBySourceKey(sourceKey);
+            if (!blobKeys.isEmpty()) {
+                mediaRenditionRepository.deleteBySourceKey(sourceKey);
+            }
+            return blobKeys;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // =============== RENDERING ===============
+
+    private void submit(String sourceKey, Source source) {
+        if (sizes.length == 0 || !pending.add(sourceKey)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(sourceKey, source);
+                } finally {
+                    pending.remove(sourceKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(sourceKey);
+            log.debug("Thumbnail queue is full, skipping {} until it is requested again", sourceKey);
+        }
+    }
+
+    private void render(String sourceKey, Source source) {
+        long start = System.nanoTime();
+        try {
+            if (mediaRenditionRepository.existsBySourceKey(sourceKey)) {
+                return;
+            }
+            BufferedImage image;
+            try (InputStream in = source.open()) {
+                image = readDownsampled(in, sizes[sizes.length - 1]);
+            }
+            if (image == null) {
+                unreadable.put(sourceKey, Boolean.TRUE);
+                unreadableTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.debug("No thumbnails for {}: not a readable image", sourceKey);
+                return;
+            }
+            int longest = Math.max(image.getWidth(), image.getHeight());
+            for (int size : sizes) {
+                // A size at or above the original keeps the original dimensions and ends the list,
+                // so every readable source has at least one rendition
+                BufferedImage scaled = scale(image, Math.min(size, longest));
+                byte[] jpeg = encodeJpeg(scaled);
+                BlobStore.StoredBlob blob = blobStore.put(new ByteArrayInputStream(jpeg));
+                transactionTemplate.executeWithoutResult(status -> {
+                    blobReferenceLocks.reference(blob.getKey());
+                    mediaRenditionRepository.addIfAbsent(sourceKey, size, scaled.getWidth(), scaled.getHeight(),
+                            blob.getKey(), CONTENT_TYPE, blob.getSize(), LocalDateTime.now());
+                });
+                if (size >= longest) {
+                    break;
+                }
+            }
+            renderedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            unreadable.put(sourceKey, Boolean.TRUE);
+            failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.warn("Failed to render thumbnails for {}: {}", sourceKey, e.toString());
+        }
+    }
+
+    /**
+     * Reads the image with source subsampling so that its longer side stays at or just above
+     * {@code atLeast}; the full-resolution raster of a large photo is never allocated.
+     */
+    private static BufferedImage readDownsampled(InputStream in, int atLeast) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = longest / atLeast;
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves with bilinear filtering until close to the target, then one last bilinear step;
+    // a single large reduction would alias. Always returns an opaque RGB image for JPEG.
+    private static BufferedImage scale(BufferedImage source, int longestSide) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double factor = (double) longestSide / Math.max(width, height);
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+
+        BufferedImage current = source;
+        while (width / 2 >= targetWidth && height / 2 >= targetHeight) {
+            width /= 2;
+            height /= 2;
+            current = draw(current, width, height);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static Timer renderTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("media.thumbnail.render")
+                .description("Thumbnail rendering time per uploaded image, all sizes")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
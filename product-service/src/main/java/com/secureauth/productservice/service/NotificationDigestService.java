@@ -0,0 +1,139 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.entity.NotificationDigestEntry;
+import com.secureauth.productservice.repository.NotificationDigestEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Coalesces notifications per recipient. Events are recorded with a dedupe key in the
+ * caller's transaction; once a recipient's oldest pending event has waited {@code window-ms},
+ * everything pending for them goes out as one email through the {@link EmailOutboxService}.
+ * An event whose key the recipient already has (pending, or flushed within
+ * {@code dedupe-ms}) is ignored, so periodic jobs can re-raise the same event freely.
+ */
+@Service
+@Slf4j
+public class NotificationDigestService {
+
+    // Column limits of notification_digest_entry (and email_outbox)
+    private static final int MAX_RECIPIENT_LENGTH = 320;
+    private static final int MAX_SUBJECT_LENGTH = 500;
+
+    private final NotificationDigestEntryRepository digestEntryRepository;
+    private final EmailOutboxService emailOutboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final long windowMillis;
+    private final long dedupeMillis;
+    private final int maxEntries;
+
+    public NotificationDigestService(NotificationDigestEntryRepository digestEntryRepository,
+                                     EmailOutboxService emailOutboxService,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.notification.digest.window-ms:600000}") long windowMillis,
+                                     @Value("${app.notification.digest.dedupe-ms:86400000}") long dedupeMillis,
+                                     @Value("${app.notification.digest.max-entries:100}") int maxEntries) {
+        this.digestEntryRepository = digestEntryRepository;
+        this.emailOutboxService = emailOutboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.windowMillis = windowMillis;
+        this.dedupeMillis = dedupeMillis;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * Adds an event to the recipient's next digest. This joins the caller's transaction, where
+     * a failed insert would abort the business change, so values that do not fit the columns
+     * are dealt with up front: an over-long subject is cut, an unusable recipient is dropped.
+     *
+     * @return false when the recipient already has an event with this key
+     */
+    @Transactional
+    public boolean add(String recipient, String dedupeKey, String subject, String body) {
+        if (recipient == null || recipient.isBlank()) {
+            log.warn("Dropping notification '{}' without a recipient", subject);
+            return false;
+        }
+        if (recipient.trim().length() > MAX_RECIPIENT_LENGTH) {
+            log.warn("Dropping notification '{}' for an over-long recipient address", subject);
+            return false;
+        }
+        if (subject.length() > MAX_SUBJECT_LENGTH) {
+            subject = subject.substring(0, MAX_SUBJECT_LENGTH - 3) + "...";
+        }
+        boolean added = digestEntryRepository.addIfAbsent(recipient.trim(), dedupeKey, subject, body,
+                LocalDateTime.now()) > 0;
+        if (!added) {
+            log.debug("Notification {} for {} already queued or recently sent", dedupeKey, recipient);
+        }
+        return added;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notification.digest.poll-ms:60000}", initialDelayString = "${app.notification.digest.poll-ms:60000}")
+    public void flushDue() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(windowMillis, ChronoUnit.MILLIS);
+        List<String> recipients;
+        try {
+            recipients = digestEntryRepository.findDueRecipients(cutoff);
+        } catch (Exception e) {
+            log.error("Failed to look up due notification digests: {}", e.getMessage());
+            return;
+        }
+        for (String recipient : recipients) {
+            try {
+                Integer sent = transactionTemplate.execute(status -> flush(recipient));
+                log.info("Queued digest of {} notifications for {}", sent, recipient);
+            } catch (Exception e) {
+                log.error("Failed to flush notification digest for {}: {}", recipient, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.notification.digest.purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        LocalDateTime before = LocalDateTime.now().minus(dedupeMillis, ChronoUnit.MILLIS);
+        transactionTemplate.executeWithoutResult(status -> digestEntryRepository.deleteFlushedBefore(before));
+    }
+
+    // Runs in one transaction: the digest is queued in the outbox and its entries marked together
+    private int flush(String recipient) {
+        List<NotificationDigestEntry> entries = digestEntryRepository.lockPending(recipient, maxEntries);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        if (entries.size() == 1) {
+            NotificationDigestEntry only = entries.get(0);
+            emailOutboxService.enqueueText(recipient, only.getSubject(), only.getBody());
+        } else {
+            emailOutboxService.enqueueText(recipient, "GageFX Reallocation Updates (" + entries.size() + ")",
+                    digestBody(entries));
+        }
+        digestEntryRepository.markFlushed(entries.stream().map(NotificationDigestEntry::getId).toList(),
+                LocalDateTime.now());
+        return entries.size();
+    }
+
+    private static String digestBody(List<NotificationDigestEntry> entries) {
+        StringBuilder body = new StringBuilder()
+                .append("You have ").append(entries.size()).append(" gage reallocation updates:\n\n");
+        for (int i = 0; i < entries.size(); i++) {
+            body.append(i + 1).append(". ").append(entries.get(i).getSubject()).append('\n');
+        }
+        for (NotificationDigestEntry entry : entries) {
+            body.append("\n----------------------------------------\n")
+                    .append(entry.getSubject()).append("\n\n")
+                    .append(entry.getBody().strip()).append('\n');
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,170 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.client.OperatorContextClient;
+import com.secureauth.productservice.client.dto.OperatorContextDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory copy of the user directory kept by secure-product-api, indexed by department,
+ * function and operation so "which operators work in this allocation" is a map lookup. The
+ * copy is reloaded lazily once it is older than {@code app.operator-directory.ttl-ms}, or on
+ * the next lookup after secure-product-api reports a change through {@link #invalidate()}.
+ * When a reload fails the previous copy keeps being served and the reload is retried after
+ * {@code app.operator-directory.retry-ms}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OperatorDirectoryService {
+
+    private final OperatorContextClient operatorContextClient;
+
+    @Value("${app.operator-directory.ttl-ms:600000}")
+    private long ttlMillis;
+
+    @Value("${app.operator-directory.retry-ms:30000}")
+    private long retryMillis;
+
+    private volatile Directory directory = Directory.EMPTY;
+    private volatile long reloadAfter;
+    private volatile boolean invalidated;
+
+    /**
+     * Operators assigned to the given allocation. A blank criterion matches every operator,
+     * so (dept, null, null) returns the whole department.
+     */
+    public List<OperatorContextDTO> findOperators(String department, String function, String operation) {
+        Directory current = current();
+        List<Set<String>> criteria = new ArrayList<>(3);
+        if (department != null && !department.isBlank()) {
+            criteria.add(current.byDepartment.getOrDefault(department.trim(), Set.of()));
+        }
+        if (function != null && !function.isBlank()) {
+            criteria.add(current.byFunction.getOrDefault(function.trim(), Set.of()));
+        }
+        if (operation != null && !operation.isBlank()) {
+            criteria.add(current.byOperation.getOrDefault(operation.trim(), Set.of()));
+        }
+        if (criteria.isEmpty()) {
+            return current.operators.stream().map(current.byUsername::get).toList();
+        }
+        // Walk the smallest index and probe the others
+        criteria.sort(Comparator.comparingInt(Set::size));
+        Set<String> smallest = criteria.get(0);
+        List<OperatorContextDTO> matches = new ArrayList<>(smallest.size());
+        for (String username : smallest) {
+            if (criteria.stream().allMatch(index -> index.contains(username))) {
+                matches.add(current.byUsername.get(username));
+            }
+        }
+        return matches;
+    }
+
+    public Optional<OperatorContextDTO> findByUsername(String username) {
+        return username == null ? Optional.empty() : Optional.ofNullable(current().byUsername.get(username));
+    }
+
+    /**
+     * Drops the cached copy; the next lookup reloads it. Called when user assignments change.
+     */
+    public void invalidate() {
+        invalidated = true;
+        reloadAfter = 0;
+        log.info("Operator directory invalidated");
+    }
+
+    // =============== LOADING ===============
+
+    private Directory current() {
+        if (!invalidated && System.currentTimeMillis() < reloadAfter) {
+            return directory;
+        }
+        synchronized (this) {
+            if (!invalidated && System.currentTimeMillis() < reloadAfter) {
+                return directory;
+            }
+            // Cleared before the fetch so an invalidation arriving mid-load triggers another one
+            invalidated = false;
+            try {
+                List<OperatorContextDTO> users = operatorContextClient.directory();
+                directory = Directory.of(users != null ? users : List.of());
+                reloadAfter = System.currentTimeMillis() + ttlMillis;
+                log.info("Operator directory loaded: {} users, {} operators",
+                        directory.byUsername.size(), directory.operators.size());
+            } catch (Exception e) {
+                reloadAfter = System.currentTimeMillis() + retryMillis;
+                log.warn("Could not load operator directory, serving {} cached users: {}",
+                        directory.byUsername.size(), e.getMessage());
+            }
+            return directory;
+        }
+    }
+
+    private static boolean isOperator(OperatorContextDTO user) {
+        if (user.getRoles() == null) {
+            return false;
+        }
+        return user.getRoles().stream()
+                .filter(role -> role != null)
+                .map(String::toUpperCase)
+                .anyMatch(role -> role.contains("OPERATOR") || role.contains("F"));
+    }
+
+    /**
+     * Immutable snapshot; the department/function/operation indexes hold operator usernames only.
+     */
+    private record Directory(Map<String, OperatorContextDTO> byUsername,
+                             Set<String> operators,
+                             Map<String, Set<String>> byDepartment,
+                             Map<String, Set<String>> byFunction,
+                             Map<String, Set<String>> byOperation) {
+
+        static final Directory EMPTY = new Directory(Map.of(), Set.of(), Map.of(), Map.of(), Map.of());
+
+        static Directory of(List<OperatorContextDTO> users) {
+            Map<String, OperatorContextDTO> byUsername = new HashMap<>();
+            Set<String> operators = new LinkedHashSet<>();
+            Map<String, Set<String>> byDepartment = new HashMap<>();
+            Map<String, Set<String>> byFunction = new HashMap<>();
+            Map<String, Set<String>> byOperation = new HashMap<>();
+            for (OperatorContextDTO user : users) {
+                if (user.getUsername() == null || user.getUsername().isBlank()) {
+                    continue;
+                }
+                byUsername.put(user.getUsername(), user);
+                if (!isOperator(user)) {
+                    continue;
+                }
+                operators.add(user.getUsername());
+                index(byDepartment, user.getDepartments(), user.getUsername());
+                index(byFunction, user.getFunctions(), user.getUsername());
+                index(byOperation, user.getOperations(), user.getUsername());
+            }
+            return new Directory(byUsername, operators, byDepartment, byFunction, byOperation);
+        }
+
+        private static void index(Map<String, Set<String>> index, Collection<String> names, String username) {
+            if (names == null) {
+                return;
+            }
+            for (String name : names) {
+                if (name != null && !name.isBlank()) {
+                    index.computeIfAbsent(name.trim(), key -> new LinkedHashSet<>()).add(username);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.secureauth.productservice.service;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Minimal PDF 1.4 writer used for label sheets and calibration certificates: Helvetica text,
+ * lines, boxes and barcode modules on fixed-size pages. Each page's content stream is built in
+ * memory and written immediately; only object offsets and page ids are kept until the trailer.
+ * Coordinates are in points from the top-left corner of the page; text y is the baseline.
+ */
+final class PdfDocumentWriter implements AutoCloseable {
+
+    // A4 in points
+    static final double A4_WIDTH = 595.28;
+    static final double A4_HEIGHT = 841.89;
+
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT_REGULAR = 3;
+    private static final int FONT_BOLD = 4;
+
+    private final CountingOutputStream out;
+    private final double pageWidth;
+    private final double pageHeight;
+    private final List<Long> offsets = new ArrayList<>(Collections.nCopies(5, 0L));
+    private final List<Integer> pageIds = new ArrayList<>();
+    private ByteArrayOutputStream content;
+
+    PdfDocumentWriter(OutputStream target, double pageWidth, double pageHeight) throws IOException {
+        this.out = new CountingOutputStream(target);
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        write("%PDF-1.4\n%âãÏÓ\n");
+        writeObject(CATALOG, "<< /Type /Catalog /Pages " + PAGES + " 0 R >>");
+        writeObject(FONT_REGULAR,
+                "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+        writeObject(FONT_BOLD,
+                "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+    }
+
+    void startPage() {
+        content = new ByteArrayOutputStream(16 * 1024);
+    }
+
+    void text(double x, double y, double size, boolean bold, String text) throws IOException {
+        append("BT /" + (bold ? "F2 " : "F1 ") + num(size) + " Tf " + num(x) + " " + num(pageHeight - y)
+                + " Td (" + escape(text) + ") Tj ET\n");
+    }
+
+    void line(double x1, double y1, double x2, double y2, double lineWidth) throws IOException {
+        append(num(lineWidth) + " w " + num(x1) + " " + num(pageHeight - y1) + " m " + num(x2) + " "
+                + num(pageHeight - y2) + " l S\n");
+    }
+
+    void box(double x, double y, double width, double height, double lineWidth) throws IOException {
+        append(num(lineWidth) + " w " + num(x) + " " + num(pageHeight - y - height) + " " + num(width) + " "
+                + num(height) + " re S\n");
+    }
+
+    /** Fills a box with a shade of grey (0 = black, 1 = white); the fill colour is reset to black. */
+    void shade(double x, double y, double width, double height, double gray) throws IOException {
+        append(num(gray) + " g " + num(x) + " " + num(pageHeight - y - height) + " " + num(width) + " "
+                + num(height) + " re f 0 g\n");
+    }
+
+    /** Draws the dark modules of a code stretched over the given box, as one path. */
+    void modules(BitMatrix matrix, double x, double y, double width, double height) throws IOException {
+        double cellWidth = width / matrix.getWidth();
+        double cellHeight = height / matrix.getHeight();
+        StringBuilder path = new StringBuilder();
+        for (int row = 0; row < matrix.getHeight(); row++) {
+            int col = 0;
+            while (col < matrix.getWidth()) {
+                if (!matrix.get(col, row)) {
+                    col++;
+                    continue;
+                }
+                int start = col;
+                while (col < matrix.getWidth() && matrix.get(col, row)) {
+                    col++;
+                }
+                path.append(num(x + start * cellWidth)).append(' ')
+                        .append(num(pageHeight - y - (row + 1) * cellHeight)).append(' ')
+                        .append(num((col - start) * cellWidth)).append(' ').append(num(cellHeight)).append(" re\n");
+            }
+        }
+        append("0 g\n" + path + "f\n");
+    }
+
+    void endPage() throws IOException {
+        byte[] stream = content.toByteArray();
+        int contentId = nextId();
+        offsets.set(contentId, out.count);
+        write(contentId + " 0 obj\n<< /Length " + stream.length + " >>\nstream\n");
+        out.write(stream);
+        write("\nendstream\nendobj\n");
+        int pageId = nextId();
+        writeObject(pageId, "<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + num(pageWidth) + " "
+                + num(pageHeight) + "] /Resources << /Font << /F1 " + FONT_REGULAR + " 0 R /F2 " + FONT_BOLD
+                + " 0 R >> >> /Contents " + contentId + " 0 R >>");
+        pageIds.add(pageId);
+        content = null;
+        out.flush();
+    }
+
+    /** Finishes the document; does not close the underlying stream. */
+    @Override
+    public void close() throws IOException {
+        if (pageIds.isEmpty()) {
+            // A PDF needs at least one page
+            startPage();
+            endPage();
+        }
+        writeObject(PAGES, "<< /Type /Pages /Count " + pageIds.size() + " /Kids ["
+                + pageIds.stream().map(id -> id + " 0 R").collect(Collectors.joining(" ")) + "] >>");
+        long xref = out.count;
+        StringBuilder table = new StringBuilder("xref\n0 " + offsets.size() + "\n0000000000 65535 f \n");
+        for (int i = 1; i < offsets.size(); i++) {
+            table.append(String.format(Locale.ROOT, "%010d 00000 n \n", offsets.get(i)));
+        }
+        write(table.toString());
+        write("trailer\n<< /Size " + offsets.size() + " /Root " + CATALOG + " 0 R >>\nstartxref\n" + xref
+                + "\n%%EOF\n");
+        out.flush();
+    }
+
+    private int nextId() {
+        offsets.add(0L);
+        return offsets.size() - 1;
+    }
+
+    private void writeObject(int id, String body) throws IOException {
+        offsets.set(id, out.count);
+        write(id + " 0 obj\n" + body + "\nendobj\n");
+    }
+
+    private void append(String s) throws IOException {
+        content.write(s.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private void write(String s) throws IOException {
+        out.write(s.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '(' || c == ')' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 32 || c > 255) {
+                escaped.append('?'); // outside WinAnsi/Latin-1
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String num(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.secureauth.productservice.service;
 
+import com.secureauth.productservice.client.dto.OperatorContextDTO;
 import com.secureauth.productservice.dto.ReallocateResponse;
 import com.secureauth.productservice.entity.Reallocate;
 import lombok.RequiredArgsConstructor;
@@ -7,8 +8,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,15 +19,14 @@ import java.util.List;
 @Slf4j
 public class ReallocateNotificationService {
 
-    private final JavaMailSender mailSender;
+    private final NotificationDigestService notificationDigestService;
+    private final EmailOutboxService emailOutboxService;
+    private final OperatorDirectoryService operatorDirectoryService;
     
     @Autowired
     @Lazy
     private ReallocateService reallocateService;
 
-    @Value("${spring.mail.username:noreply@gagefx.com}")
-    private String fromEmail;
-
     @Value("${app.plant.hod.email:plant.hod@gagefx.com}")
     private String plantHodEmail;
 
@@ -40,7 +38,7 @@ public class ReallocateNotificationService {
             String subject = "New Gage Reallocation Request - " + reallocate.getGageSerialNumber();
             String message = buildReallocationRequestMessage(reallocate);
 
-            sendEmail(plantHodEmail, subject, message);
+            sendEmail(plantHodEmail, "REQUEST:" + reallocate.getId(), subject, message);
             log.info("Reallocation request notification sent to Plant HOD for request ID: {}", reallocate.getId());
         } catch (Exception e) {
             log.error("Error sending reallocation request notification", e);
@@ -59,42 +57,29 @@ public class ReallocateNotificationService {
                 "Gage Reallocation Request Rejected - " + reallocate.getGageSerialNumber();
 
             String message = buildApprovalMessage(reallocate, approved);
+            String key = (approved ? "APPROVED:" : "REJECTED:") + reallocate.getId();
 
             // Notify the requester first
             String operatorEmail = getOperatorEmail(reallocate.getRequestedBy());
-            sendEmail(operatorEmail, subject, message);
+            sendEmail(operatorEmail, key, subject, message);
             notified.add(reallocate.getRequestedBy());
             log.info("Approval notification sent to requester {} for request ID: {}",
                     reallocate.getRequestedBy(), reallocate.getId());
 
-            // Attempt to notify all operators in the current allocation (dept/function/operation)
+            // Notify every operator assigned to the current allocation (dept/function/operation)
+            List<OperatorContextDTO> operators = List.of();
             try {
-                java.util.List<java.util.Map<String, Object>> users = fetchAllUsers();
-                for (java.util.Map<String, Object> user : users) {
-                    try {
-                        String role = (user.getOrDefault("role", "")).toString().toUpperCase();
-                        if (!(role.contains("OPERATOR") || role.contains("F"))) continue;
-
-                        String userDept = (user.getOrDefault("departments", "")).toString();
-                        String userFunc = (user.getOrDefault("functions", "")).toString();
-                        String userOp = (user.getOrDefault("operations", "")).toString();
-
-                        boolean matchDept = reallocate.getCurrentDepartment() == null || reallocate.getCurrentDepartment().isBlank() || userDept.contains(reallocate.getCurrentDepartment());
-                        boolean matchFunc = reallocate.getCurrentFunction() == null || reallocate.getCurrentFunction().isBlank() || userFunc.contains(reallocate.getCurrentFunction());
-                        boolean matchOp = reallocate.getCurrentOperation() == null || reallocate.getCurrentOperation().isBlank() || userOp.contains(reallocate.getCurrentOperation());
-
-                        if (matchDept && matchFunc && matchOp) {
-                            String uName = (user.getOrDefault("username", user.getOrDefault("email", ""))).toString();
-                            String uEmail = (user.getOrDefault("email", uName + "@gagefx.com")).toString();
-                            sendEmail(uEmail, subject, message);
-                            if (!notified.contains(uName) && uName != null && !uName.isBlank()) notified.add(uName);
-                        }
-                    } catch (Exception x) {
-                        log.debug("Skipping user during notification matching: {}", x.getMessage());
-                    }
-                }
+                operators = operatorDirectoryService.findOperators(
+                        reallocate.getCurrentDepartment(), reallocate.getCurrentFunction(), reallocate.getCurrentOperation());
             } catch (Exception ex) {
-                log.warn("Could not fetch users for additional operator notifications: {}", ex.getMessage());
+                log.warn("Could not notify operators of the current allocation: {}", ex.getMessage());
+            }
+            for (OperatorContextDTO operator : operators) {
+                String uName = operator.getUsername();
+                String uEmail = operator.getEmail() != null && !operator.getEmail().isBlank()
+                        ? operator.getEmail() : uName + "@gagefx.com";
+                sendEmail(uEmail, key, subject, message);
+                if (!notified.contains(uName)) notified.add(uName);
             }
 
         } catch (Exception e) {
@@ -111,13 +96,15 @@ public class ReallocateNotificationService {
         try {
             String subject = "Gage Reallocation Expiring Soon - " + reallocate.getGageSerialNumber();
             String message = buildExpirationMessage(reallocate);
+            // One warning per reallocation and expiry time, however often the check runs
+            String key = "EXPIRING:" + reallocate.getId() + ":" + reallocate.getExpiresAt();
 
             // Send to operator
             String operatorEmail = getOperatorEmail(reallocate.getRequestedBy());
-            sendEmail(operatorEmail, subject, message);
+            sendEmail(operatorEmail, key, subject, message);
 
             // Send to Plant HOD
-            sendEmail(plantHodEmail, subject, message);
+            sendEmail(plantHodEmail, key, subject, message);
 
             log.info("Expiration notification sent for reallocation ID: {}", reallocate.getId());
         } catch (Exception e) {
@@ -132,13 +119,14 @@ public class ReallocateNotificationService {
         try {
             String subject = "Gage Automatically Returned - " + reallocate.getGageSerialNumber();
             String message = buildAutoReturnMessage(reallocate);
+            String key = "RETURNED:" + reallocate.getId();
 
             // Send to operator
             String operatorEmail = getOperatorEmail(reallocate.getRequestedBy());
-            sendEmail(operatorEmail, subject, message);
+            sendEmail(operatorEmail, key, subject, message);
 
             // Send to Plant HOD
-            sendEmail(plantHodEmail, subject, message);
+            sendEmail(plantHodEmail, key, subject, message);
 
             log.info("Auto return notification sent for reallocation ID: {}", reallocate.getId());
         } catch (Exception e) {
@@ -147,36 +135,30 @@ public class ReallocateNotificationService {
     }
 
     /**
-     * Send daily summary to Plant HOD
+     * Send daily summary to Plant HOD. It is a digest already, so it goes straight to the
+     * outbox rather than into the Plant HOD's next notification digest.
      */
     public void sendDailySummary() {
         try {
             List<ReallocateResponse> pendingApprovals = reallocateService.getReallocatesByStatus(Reallocate.Status.PENDING_APPROVAL);
             List<ReallocateResponse> expiringSoon = reallocateService.getReallocatesExpiringSoon();
 
-            String subject = "Daily Gage Reallocation Summary - " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            String day = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            String subject = "Daily Gage Reallocation Summary - " + day;
             String message = buildDailySummaryMessage(pendingApprovals, expiringSoon);
 
-            sendEmail(plantHodEmail, subject, message);
+            emailOutboxService.enqueueText(plantHodEmail, subject, message);
             log.info("Daily summary sent to Plant HOD");
         } catch (Exception e) {
             log.error("Error sending daily summary", e);
         }
     }
 
-    private void sendEmail(String to, String subject, String message) {
-        try {
-            SimpleMailMessage mailMessage = new SimpleMailMessage();
-            mailMessage.setFrom(fromEmail);
-            mailMessage.setTo(to);
-            mailMessage.setSubject(subject);
-            mailMessage.setText(message);
-
-            mailSender.send(mailMessage);
-            log.debug("Email sent to: {}", to);
-        } catch (Exception e) {
-            log.error("Error sending email to {}: {}", to, e.getMessage());
-        }
+    // Recorded in the caller's transaction and mailed in the recipient's next digest;
+    // the key identifies the event so repeats of it are dropped. Not caught here: a failed
+    // insert has already aborted the caller's transaction.
+    private void sendEmail(String to, String key, String subject, String message) {
+        notificationDigestService.add(to, key, subject, message);
     }
 
     private String buildReallocationRequestMessage(ReallocateResponse reallocate) {
@@ -381,23 +363,10 @@ public class ReallocateNotificationService {
     }
 
     private String getOperatorEmail(String username) {
-        // TODO: Implement logic to get operator email from user service
-        // For now, return a default email format
-        return username + "@gagefx.com";
-    }
-
-    // Simple fetch of users from the API gateway; returns raw list of user maps.
-    private java.util.List<java.util.Map<String, Object>> fetchAllUsers() {
-        try {
-            org.springframework.web.client.RestTemplate rt = new org.springframework.web.client.RestTemplate();
-            String url = System.getProperty("user.service.url", "http://localhost:8080/api/users");
-            Object resp = rt.getForObject(url, Object.class);
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            java.util.List<java.util.Map<String, Object>> list = mapper.convertValue(resp, new com.fasterxml.jackson.core.type.TypeReference<java.util.List<java.util.Map<String, Object>>>(){});
-            return list == null ? java.util.Collections.emptyList() : list;
-        } catch (Exception e) {
-            log.warn("fetchAllUsers failed: {}", e.getMessage());
-            return java.util.Collections.emptyList();
-        }
+        // Directory email when the user has one, otherwise the default address format
+        return operatorDirectoryService.findByUsername(username)
+                .map(OperatorContextDTO::getEmail)
+                .filter(email -> !email.isBlank())
+                .orElse(username + "@gagefx.com");
     }
 }
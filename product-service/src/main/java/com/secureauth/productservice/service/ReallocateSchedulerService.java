@@ -7,56 +7,36 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
+// Expired reallocations are returned by ReallocationExpiryEngine at the moment they expire
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReallocateSchedulerService {
 
+    private static final String DAILY_SUMMARY_LEASE = "reallocation-daily-summary";
+    // Held past the run so the other replicas, firing at the same time, skip it
+    private static final Duration DAILY_SUMMARY_LEASE_DURATION = Duration.ofHours(1);
+
     private final ReallocateService reallocateService;
     private final ReallocateNotificationService notificationService;
+    private final SchedulerLeaseService schedulerLeaseService;
 
     /**
-     * Process expired reallocations every 30 minutes
-     * This will automatically return gages that have exceeded their time limit
-     */
-    @Scheduled(fixedRate = 1800000) // 30 minutes in milliseconds
-    public void processExpiredReallocations() {
-        try {
-            log.info("Starting scheduled processing of expired reallocations");
-            reallocateService.processAllExpiredReallocations();
-            log.info("Completed scheduled processing of expired reallocations");
-        } catch (Exception e) {
-            log.error("Error in scheduled processing of expired reallocations", e);
-        }
-    }
-
-    /**
-     * Send expiration notifications every hour
-     * This will notify users about gages that are expiring soon
+     * Send the daily summary to the Plant HOD at the configured time, from one replica only
      */
-    @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
-    public void sendExpirationNotifications() {
+    @Scheduled(cron = "${app.notification.daily-summary.cron:0 0 8 * * *}")
+    public void sendDailySummary() {
         try {
-            log.info("Starting scheduled sending of expiration notifications");
+            if (!schedulerLeaseService.tryAcquire(DAILY_SUMMARY_LEASE, DAILY_SUMMARY_LEASE_DURATION)) {
+                return;
+            }
+            log.info("Starting scheduled daily summary");
             notificationService.sendDailySummary();
-            log.info("Completed scheduled sending of expiration notifications");
-        } catch (Exception e) {
-            log.error("Error in scheduled sending of expiration notifications", e);
-        }
-    }
-
-    /**
-     * Process expired reallocations every 5 minutes during business hours
-     * This provides more frequent processing during active hours
-     */
-    @Scheduled(cron = "0 */5 * * * MON-FRI") // Every 5 minutes, Monday to Friday
-    public void processExpiredReallocationsBusinessHours() {
-        try {
-            log.info("Starting business hours processing of expired reallocations");
-            reallocateService.processAllExpiredReallocations();
-            log.info("Completed business hours processing of expired reallocations");
+            log.info("Completed scheduled daily summary");
         } catch (Exception e) {
-            log.error("Error in business hours processing of expired reallocations", e);
+            log.error("Error in scheduled daily summary", e);
         }
     }
 
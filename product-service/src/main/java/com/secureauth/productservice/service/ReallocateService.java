@@ -5,6 +5,7 @@ import com.secureauth.productservice.dto.ReallocateRequest;
 import com.secureauth.productservice.dto.ReallocateResponse;
 import com.secureauth.productservice.entity.Reallocate;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ReallocateService {
@@ -43,6 +44,9 @@ public interface ReallocateService {
     List<ReallocateResponse> getExpiredReallocates();
     List<ReallocateResponse> getReallocatesExpiringSoon();
     ReallocateResponse processExpiredReallocation(Long reallocateId);
+    // Auto-returns up to limit reallocations expired before now, oldest first, in one transaction;
+    // returns how many were processed (fewer than limit means none are left)
+    int processExpiredBatch(LocalDateTime now, int limit);
 
     // Statistics
     Long countActiveReallocationsByDepartment(String department);
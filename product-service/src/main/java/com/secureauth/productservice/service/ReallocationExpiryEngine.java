@@ -0,0 +1,229 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.repository.ReallocateRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single place where approved reallocations are auto-returned when they expire. Every
+ * running reallocation's {@code expiresAt} sits in a time-ordered in-memory set, seeded from
+ * the database at startup and fed by approvals; one timer thread sleeps until the earliest
+ * deadline and then returns everything due in batched transactions. Only the replica holding
+ * the {@code reallocation-expiry} lease processes; the others retry once it could have lapsed.
+ * A periodic resync picks up approvals made on other replicas and is the safety net for
+ * missed wake-ups.
+ */
+@Service
+@Slf4j
+public class ReallocationExpiryEngine {
+
+    static final String LEASE = "reallocation-expiry";
+
+    // Sentinel id for wake-ups that are not tied to a reallocation (lease and failure retries)
+    private static final long RETRY = -1L;
+
+    private final ReallocateService reallocateService;
+    private final ReallocateRepository reallocateRepository;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final int batchSize;
+    private final Duration leaseDuration;
+
+    private final NavigableSet<Deadline> wheel = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Deadline::at).thenComparingLong(Deadline::reallocateId));
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reallocation-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> wakeUp;
+    private LocalDateTime wakeUpAt;
+
+    public ReallocationExpiryEngine(ReallocateService reallocateService,
+                                    ReallocateRepository reallocateRepository,
+                                    SchedulerLeaseService schedulerLeaseService,
+                                    @Value("${app.reallocation.expiry.batch-size:100}") int batchSize,
+                                    @Value("${app.reallocation.expiry.lease-ms:60000}") long leaseMillis) {
+        this.reallocateService = reallocateService;
+        this.reallocateRepository = reallocateRepository;
+        this.schedulerLeaseService = schedulerLeaseService;
+        this.batchSize = Math.max(1, batchSize);
+        this.leaseDuration = Duration.ofMillis(leaseMillis);
+    }
+
+    /**
+     * Arms the timer for a reallocation. Harmless for reallocations that are returned early:
+     * whatever is due is re-read from the database when the timer fires.
+     */
+    public void schedule(Long reallocateId, LocalDateTime expiresAt) {
+        if (reallocateId == null || expiresAt == null) {
+            return;
+        }
+        wheel.add(new Deadline(expiresAt, reallocateId));
+        rearm();
+    }
+
+    /**
+     * Processes everything already expired on the timer thread and waits for it.
+     */
+    public void runNow() {
+        try {
+            timer.submit(this::fire).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to process expired reallocations", e.getCause());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        resync();
+        // Catch up on anything that expired while no instance was running
+        timer.execute(this::fire);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reallocation.expiry.resync-ms:600000}",
+            initialDelayString = "${app.reallocation.expiry.resync-ms:600000}")
+    public void resync() {
+        try {
+            List<ReallocateRepository.ExpiryDeadline> deadlines = reallocateRepository.findExpiryDeadlines();
+            wheel.removeIf(deadline -> deadline.reallocateId() != RETRY);
+            deadlines.forEach(d -> wheel.add(new Deadline(d.getExpiresAt(), d.getId())));
+            log.debug("Expiry timer holds {} reallocations", deadlines.size());
+            rearm();
+        } catch (Exception e) {
+            log.error("Failed to load reallocation expiry times: {}", e.getMessage());
+        }
+    }
+
+    // Hands the lease over right away rather than after it lapses, once a running batch has
+    // stopped; a batch still running after the wait keeps it, and it lapses as on a crash
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        try {
+            if (!timer.awaitTermination(5, TimeUnit.SECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            schedulerLeaseService.release(LEASE);
+        } catch (Exception e) {
+            log.warn("Could not release the {} lease: {}", LEASE, e.getMessage());
+        }
+    }
+
+    // =============== TIMER ===============
+
+    // Points the single pending wake-up at the earliest deadline in the wheel
+    private synchronized void rearm() {
+        if (timer.isShutdown()) {
+            return;
+        }
+        Deadline next = wheel.isEmpty() ? null : wheel.first();
+        if (next == null) {
+            cancelWakeUp();
+            return;
+        }
+        if (wakeUp != null && !wakeUp.isDone() && !next.at().isBefore(wakeUpAt)) {
+            return;
+        }
+        cancelWakeUp();
+        long delayMillis = Math.max(0, Duration.between(LocalDateTime.now(), next.at()).toMillis());
+        wakeUpAt = next.at();
+        wakeUp = timer.schedule(this::fire, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelWakeUp() {
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+            wakeUpAt = null;
+        }
+    }
+
+    // Runs on the timer thread only
+    private void fire() {
+        LocalDateTime now = LocalDateTime.now();
+        wheel.headSet(new Deadline(now, Long.MAX_VALUE), true).clear();
+        try {
+            if (!schedulerLeaseService.tryAcquire(LEASE, leaseDuration)) {
+                // Another replica is on it; take over if its lease lapses without it finishing
+                wheel.add(new Deadline(now.plus(leaseDuration), RETRY));
+                return;
+            }
+            int processed = drain(now);
+            if (processed > 0) {
+                log.info("Expiry engine returned {} reallocations", processed);
+            }
+        } catch (Exception e) {
+            log.error("Error processing expired reallocations, retrying in {}", leaseDuration, e);
+            wheel.add(new Deadline(now.plus(leaseDuration), RETRY));
+        } finally {
+            // Also drops a wake-up that was pending when runNow() got here first
+            synchronized (this) {
+                cancelWakeUp();
+            }
+            rearm();
+        }
+    }
+
+    private int drain(LocalDateTime now) {
+        int total = 0;
+        while (true) {
+            int processed;
+            try {
+                processed = reallocateService.processExpiredBatch(now, batchSize);
+            } catch (Exception e) {
+                log.warn("Expiry batch failed, processing one by one: {}", e.getMessage());
+                return total + processIndividually();
+            }
+            total += processed;
+            if (processed < batchSize) {
+                return total;
+            }
+            // Renew before the next batch so a long catch-up cannot outlive the lease
+            if (!schedulerLeaseService.tryAcquire(LEASE, leaseDuration)) {
+                wheel.add(new Deadline(now.plus(leaseDuration), RETRY));
+                return total;
+            }
+        }
+    }
+
+    // Fallback when a batch rolls back: one transaction per reallocation, so one bad row cannot block the rest
+    private int processIndividually() {
+        int processed = 0;
+        for (var expired : reallocateService.getExpiredReallocates()) {
+            try {
+                reallocateService.processExpiredReallocation(expired.getId());
+                processed++;
+            } catch (Exception e) {
+                log.error("Error processing expired reallocation ID: {}", expired.getId(), e);
+            }
+        }
+        return processed;
+    }
+
+    private record Deadline(LocalDateTime at, long reallocateId) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.repository.SchedulerLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Leader election for background jobs across replicas, backed by the scheduler_lease table.
+ * A job calls {@link #tryAcquire} before each run; the holder renews its lease by calling it
+ * again, and a replica that dies simply lets its lease run out; one that shuts down cleanly
+ * can {@link #release} it.
+ */
+@Service
+@Slf4j
+public class SchedulerLeaseService {
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+    private final String owner;
+
+    public SchedulerLeaseService(SchedulerLeaseRepository schedulerLeaseRepository,
+                                 @Value("${spring.application.name:product-service}") String applicationName) {
+        this.schedulerLeaseRepository = schedulerLeaseRepository;
+        this.owner = applicationName + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * @return true when this instance holds the lease for the next {@code duration}
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean acquired = schedulerLeaseRepository.tryAcquire(name, owner, now.plus(duration), now) > 0;
+        if (!acquired) {
+            log.debug("Lease {} is held by another instance", name);
+        }
+        return acquired;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String name) {
+        schedulerLeaseRepository.release(name, owner);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+}
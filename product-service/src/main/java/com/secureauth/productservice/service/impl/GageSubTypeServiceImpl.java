@@ -1,11 +1,15 @@
 package com.secureauth.productservice.service.impl;
 
+import com.secureauth.productservice.config.CacheConfig;
 import com.secureauth.productservice.dto.GageSubTypeRequest;
 import com.secureauth.productservice.dto.GageSubTypeResponse;
 import com.secureauth.productservice.entity.GageSubType;
 import com.secureauth.productservice.repository.GageSubTypeRepository;
 import com.secureauth.productservice.service.GageSubTypeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -18,6 +22,7 @@ public class GageSubTypeServiceImpl implements GageSubTypeService {
     private GageSubTypeRepository gageSubTypeRepository;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.GAGE_SUB_TYPES, allEntries = true)
     public GageSubTypeResponse createGageSubType(GageSubTypeRequest request) {
         GageSubType gageSubType = GageSubType.builder()
                 .name(request.getName())
@@ -28,6 +33,7 @@ public class GageSubTypeServiceImpl implements GageSubTypeService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.GAGE_SUB_TYPES, key = "#id")
     public GageSubTypeResponse getGageSubTypeById(Long id) {
         GageSubType gageSubType = gageSubTypeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("GageSubType not found with id: " + id));
@@ -35,6 +41,7 @@ public class GageSubTypeServiceImpl implements GageSubTypeService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.GAGE_SUB_TYPES, key = CacheConfig.ALL)
     public List<GageSubTypeResponse> getAllGageSubTypes() {
         return gageSubTypeRepository.findAll()
                 .stream()
@@ -43,6 +50,12 @@ public class GageSubTypeServiceImpl implements GageSubTypeService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.GAGE_SUB_TYPES, allEntries = true),
+            // Gage type and machine responses carry the sub-type name
+            @CacheEvict(cacheNames = CacheConfig.GAGE_TYPES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CALIBRATION_MACHINES, allEntries = true)
+    })
     public GageSubTypeResponse updateGageSubType(Long id, GageSubTypeRequest request) {
         GageSubType gageSubType = gageSubTypeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("GageSubType not found with id: " + id));
@@ -53,6 +66,11 @@ public class GageSubTypeServiceImpl implements GageSubTypeService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.GAGE_SUB_TYPES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.GAGE_TYPES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CALIBRATION_MACHINES, allEntries = true)
+    })
     public void deleteGageSubType(Long id) {
         if (!gageSubTypeRepository.existsById(id)) {
             throw new RuntimeException("GageSubType not found with id: " + id);
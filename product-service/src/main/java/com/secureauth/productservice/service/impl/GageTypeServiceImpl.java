@@ -1,5 +1,6 @@
 package com.secureauth.productservice.service.impl;
 
+import com.secureauth.productservice.config.CacheConfig;
 import com.secureauth.productservice.dto.GageTypeRequest;
 import com.secureauth.productservice.dto.GageTypeResponse;
 import com.secureauth.productservice.entity.GageType;
@@ -8,6 +9,9 @@ import com.secureauth.productservice.repository.GageTypeRepository;
 import com.secureauth.productservice.repository.GageSubTypeRepository;
 import com.secureauth.productservice.service.GageTypeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,6 +27,7 @@ public class GageTypeServiceImpl implements GageTypeService {
     private GageSubTypeRepository gageSubTypeRepository;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.GAGE_TYPES, allEntries = true)
     public GageTypeResponse createGageType(GageTypeRequest request) {
         GageSubType gageSubType = gageSubTypeRepository.findById(request.getGageSubTypeId())
                 .orElseThrow(() -> new RuntimeException("GageSubType not found with id: " + request.getGageSubTypeId()));
@@ -37,6 +42,7 @@ public class GageTypeServiceImpl implements GageTypeService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.GAGE_TYPES, key = "#id")
     public GageTypeResponse getGageTypeById(Long id) {
         GageType gageType = gageTypeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("GageType not found with id: " + id));
@@ -44,6 +50,7 @@ public class GageTypeServiceImpl implements GageTypeService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.GAGE_TYPES, key = CacheConfig.ALL)
     public List<GageTypeResponse> getAllGageTypes() {
         return gageTypeRepository.findAll()
                 .stream()
@@ -52,6 +59,11 @@ public class GageTypeServiceImpl implements GageTypeService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.GAGE_TYPES, allEntries = true),
+            // Machine responses carry the gage type name
+            @CacheEvict(cacheNames = CacheConfig.CALIBRATION_MACHINES, allEntries = true)
+    })
     public GageTypeResponse updateGageType(Long id, GageTypeRequest request) {
         GageType gageType = gageTypeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("GageType not found with id: " + id));
@@ -66,6 +78,10 @@ public class GageTypeServiceImpl implements GageTypeService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.GAGE_TYPES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CALIBRATION_MACHINES, allEntries = true)
+    })
     public void deleteGageType(Long id) {
         if (!gageTypeRepository.existsById(id)) {
             throw new RuntimeException("GageType not found with id: " + id);
@@ -1,5 +1,6 @@
 package com.secureauth.productservice.service.impl;
 
+import com.secureauth.productservice.config.CacheConfig;
 import com.secureauth.productservice.dto.InhouseCalibrationMachineRequest;
 import com.secureauth.productservice.dto.InhouseCalibrationMachineResponse;
 import com.secureauth.productservice.entity.GageSubType;
@@ -10,6 +11,8 @@ import com.secureauth.productservice.repository.GageTypeRepository;
 import com.secureauth.productservice.repository.InhouseCalibrationMachineRepository;
 import com.secureauth.productservice.service.InhouseCalibrationMachineService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -28,6 +31,7 @@ public class InhouseCalibrationMachineServiceImpl implements InhouseCalibrationM
     private GageSubTypeRepository gageSubTypeRepository;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CALIBRATION_MACHINES, allEntries = true)
     public InhouseCalibrationMachineResponse createInhouseCalibrationMachine(InhouseCalibrationMachineRequest request) {
         // Check if machine name is unique
         if (inhouseCalibrationMachineRepository.existsByMachineName(request.getMachineName())) {
@@ -70,6 +74,7 @@ public class InhouseCalibrationMachineServiceImpl implements InhouseCalibrationM
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.CALIBRATION_MACHINES, key = "#id")
     public InhouseCalibrationMachineResponse getInhouseCalibrationMachineById(Long id) {
         InhouseCalibrationMachine machine = inhouseCalibrationMachineRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("InhouseCalibrationMachine not found with id: " + id));
@@ -77,6 +82,7 @@ public class InhouseCalibrationMachineServiceImpl implements InhouseCalibrationM
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.CALIBRATION_MACHINES, key = CacheConfig.ALL)
     public List<InhouseCalibrationMachineResponse> getAllInhouseCalibrationMachines() {
         return inhouseCalibrationMachineRepository.findAll()
                 .stream()
@@ -85,6 +91,7 @@ public class InhouseCalibrationMachineServiceImpl implements InhouseCalibrationM
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CALIBRATION_MACHINES, allEntries = true)
     public InhouseCalibrationMachineResponse updateInhouseCalibrationMachine(Long id, InhouseCalibrationMachineRequest request) {
         InhouseCalibrationMachine machine = inhouseCalibrationMachineRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("InhouseCalibrationMachine not found with id: " + id));
@@ -128,6 +135,7 @@ public class InhouseCalibrationMachineServiceImpl implements InhouseCalibrationM
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CALIBRATION_MACHINES, allEntries = true)
     public void deleteInhouseCalibrationMachine(Long id) {
         if (!inhouseCalibrationMachineRepository.existsById(id)) {
             throw new RuntimeException("InhouseCalibrationMachine not found with id: " + id);
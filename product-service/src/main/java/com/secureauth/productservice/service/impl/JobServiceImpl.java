@@ -4,9 +4,11 @@ import com.secureauth.productservice.dto.JobRequest;
 import com.secureauth.productservice.dto.JobResponse;
 import com.secureauth.productservice.entity.Job;
 import com.secureauth.productservice.repository.JobRepository;
+import com.secureauth.productservice.service.GageUsageCounterService;
 import com.secureauth.productservice.service.JobService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,7 +19,11 @@ public class JobServiceImpl implements JobService {
     @Autowired
     private JobRepository jobRepository;
 
+    @Autowired
+    private GageUsageCounterService gageUsageCounterService;
+
     @Override
+    @Transactional
     public JobResponse createJob(JobRequest jobRequest) {
         // Check if job with same job number already exists
         if (jobRepository.existsByJobNumber(jobRequest.getJobNumber())) {
@@ -26,10 +32,12 @@ public class JobServiceImpl implements JobService {
 
         Job job = mapToJob(jobRequest);
         Job savedJob = jobRepository.save(job);
+        gageUsageCounterService.increment(savedJob.getGageSerialNumber(), savedJob.getUsesCount(), savedJob.getDaysUsed());
         return mapToJobResponse(savedJob);
     }
 
     @Override
+    @Transactional
     public JobResponse createJobWithGageUsage(JobRequest jobRequest) {
         // Check if job with same job number already exists
         if (jobRepository.existsByJobNumber(jobRequest.getJobNumber())) {
@@ -44,10 +52,12 @@ public class JobServiceImpl implements JobService {
 
         Job job = mapToJob(jobRequest);
         Job savedJob = jobRepository.save(job);
+        gageUsageCounterService.increment(savedJob.getGageSerialNumber(), savedJob.getUsesCount(), savedJob.getDaysUsed());
         return mapToJobResponse(savedJob);
     }
 
     @Override
+    @Transactional
     public JobResponse updateJob(Long id, JobRequest jobRequest) {
         Job existingJob = jobRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Job not found with id: " + id));
@@ -58,8 +68,11 @@ public class JobServiceImpl implements JobService {
             throw new IllegalArgumentException("Job with job number '" + jobRequest.getJobNumber() + "' already exists");
         }
 
+        // Usage fields may change, so move the old contribution out of the counters and the new one in
+        gageUsageCounterService.decrement(existingJob.getGageSerialNumber(), existingJob.getUsesCount(), existingJob.getDaysUsed());
         updateJobFromRequest(existingJob, jobRequest);
         Job updatedJob = jobRepository.save(existingJob);
+        gageUsageCounterService.increment(updatedJob.getGageSerialNumber(), updatedJob.getUsesCount(), updatedJob.getDaysUsed());
         return mapToJobResponse(updatedJob);
     }
 
@@ -153,11 +166,12 @@ public class JobServiceImpl implements JobService {
     }
 
     @Override
+    @Transactional
     public void deleteJob(Long id) {
-        if (!jobRepository.existsById(id)) {
-            throw new IllegalArgumentException("Job not found with id: " + id);
-        }
-        jobRepository.deleteById(id);
+        Job job = jobRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Job not found with id: " + id));
+        jobRepository.delete(job);
+        gageUsageCounterService.decrement(job.getGageSerialNumber(), job.getUsesCount(), job.getDaysUsed());
     }
 
     @Override
@@ -182,18 +196,12 @@ public class JobServiceImpl implements JobService {
     
     @Override
     public Integer getTotalUsesForGage(String serialNumber) {
-        List<Job> usageRecords = jobRepository.findByGageSerialNumberAndUsesCountIsNotNull(serialNumber);
-        return usageRecords.stream()
-                .mapToInt(record -> record.getUsesCount() != null ? record.getUsesCount() : 0)
-                .sum();
+        return gageUsageCounterService.getTotalUses(serialNumber);
     }
     
     @Override
     public Integer getTotalDaysUsedForGage(String serialNumber) {
-        List<Job> usageRecords = jobRepository.findByGageSerialNumberAndDaysUsedIsNotNull(serialNumber);
-        return usageRecords.stream()
-                .mapToInt(record -> record.getDaysUsed() != null ? record.getDaysUsed() : 0)
-                .sum();
+        return gageUsageCounterService.getTotalDaysUsed(serialNumber);
     }
 
     // Helper methods for mapping
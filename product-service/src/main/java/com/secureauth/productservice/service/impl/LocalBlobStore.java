@@ -0,0 +1,115 @@
+package com.secureauth.productservice.service.impl;
+
+import com.secureauth.productservice.exception.ResourceNotFoundException;
+import com.secureauth.productservice.service.BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Filesystem blob store. Files are laid out as {@code root/ab/cd/abcd...} by SHA-256,
+ * written to a temp file first and moved into place atomically, so a reader never sees
+ * a partially written blob and concurrent uploads of the same content are harmless.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.blob-store.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+
+    private final Path root;
+    private final Path tmpDir;
+
+    public LocalBlobStore(@Value("${app.blob-store.local.root:./data/blobs}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmpDir = this.root.resolve("tmp");
+        try {
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create blob store directory " + this.root, e);
+        }
+        log.info("Local blob store at {}", this.root);
+    }
+
+    @Override
+    public StoredBlob put(InputStream content) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest digest = newDigest();
+            long size;
+            try (DigestInputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(tmp)) {
+                size = in.transferTo(out);
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(key);
+            if (Files.exists(target)) {
+                log.debug("Blob {} already stored, deduplicated", key);
+                return new StoredBlob(key, size);
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Same content stored concurrently by another request
+                log.debug("Blob {} stored concurrently, deduplicated", key);
+            }
+            return new StoredBlob(key, size);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public Resource load(String key) {
+        Path path = pathFor(key);
+        if (!Files.isRegularFile(path)) {
+            throw new ResourceNotFoundException("Blob not found: " + key);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(pathFor(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(pathFor(key));
+    }
+
+    private Path pathFor(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.secureauth.productservice.service.impl;
 
+import com.secureauth.productservice.config.CacheConfig;
 import com.secureauth.productservice.dto.ManufacturerRequest;
 import com.secureauth.productservice.dto.ManufacturerResponse;
 import com.secureauth.productservice.entity.Manufacturer;
@@ -11,11 +12,16 @@ import com.secureauth.productservice.service.ManufacturerService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,13 +29,20 @@ public class ManufacturerServiceImpl implements ManufacturerService {
 
     private static final Logger logger = LoggerFactory.getLogger(ManufacturerServiceImpl.class);
 
+    // Same key as CacheConfig.ALL, which is a SpEL literal for the annotations
+    private static final String ALL_KEY = "all";
+
     @Autowired
     private ManufacturerRepository manufacturerRepository;
 
     @Autowired
     private GageRepository gageRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
+    @CacheEvict(cacheNames = CacheConfig.MANUFACTURERS, allEntries = true)
     public ManufacturerResponse createManufacturer(ManufacturerRequest manufacturerRequest) {
         if (manufacturerRepository.existsByName(manufacturerRequest.getName())) {
             throw new IllegalArgumentException("Manufacturer with name '" + manufacturerRequest.getName() + "' already exists");
@@ -52,11 +65,20 @@ public class ManufacturerServiceImpl implements ManufacturerService {
         return ManufacturerResponse.fromEntity(savedManufacturer);
     }
 
+    // The cache holds manufacturer rows only; gage ids change with every gage write, so they are
+    // attached per call and gage writes never have to evict the manufacturers cache
     @Override
+    @Transactional(readOnly = true)
     public ManufacturerResponse getManufacturerById(Long id) {
-        Manufacturer manufacturer = manufacturerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Manufacturer not found with id: " + id));
-        return ManufacturerResponse.fromEntity(manufacturer);
+        Cache cache = manufacturersCache();
+        ManufacturerResponse manufacturer = cache.get(id, ManufacturerResponse.class);
+        if (manufacturer == null) {
+            manufacturer = ManufacturerResponse.fromEntity(manufacturerRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Manufacturer not found with id: " + id)), null);
+            cache.put(id, manufacturer);
+        }
+        List<Long> gageIds = gageRepository.findIdsByManufacturerId(id);
+        return manufacturer.toBuilder().gageIds(gageIds.isEmpty() ? null : Set.copyOf(gageIds)).build();
     }
 
     @Override
@@ -70,22 +92,33 @@ public class ManufacturerServiceImpl implements ManufacturerService {
     @Transactional(readOnly = true)
     public List<ManufacturerResponse> getAllManufacturers() {
         try {
-            logger.info("Starting to fetch all manufacturers from database...");
-            List<Manufacturer> manufacturers = manufacturerRepository.findAll();
-            logger.info("Found {} manufacturers in database", manufacturers.size());
-
-            List<ManufacturerResponse> responses = manufacturers.stream()
-                    .map(ManufacturerResponse::fromEntity)
+            Cache cache = manufacturersCache();
+            @SuppressWarnings("unchecked")
+            List<ManufacturerResponse> manufacturers = cache.get(ALL_KEY, List.class);
+            if (manufacturers == null) {
+                logger.info("Loading all manufacturers from database...");
+                manufacturers = manufacturerRepository.findAll().stream()
+                        .map(manufacturer -> ManufacturerResponse.fromEntity(manufacturer, null))
+                        .collect(Collectors.toList());
+                cache.put(ALL_KEY, manufacturers);
+            }
+
+            Map<Long, Set<Long>> gageIds = gageRepository.findManufacturerGageIds().stream()
+                    .collect(Collectors.groupingBy(GageRepository.ManufacturerGageId::getManufacturerId,
+                            Collectors.mapping(GageRepository.ManufacturerGageId::getGageId, Collectors.toSet())));
+            return manufacturers.stream()
+                    .map(manufacturer -> manufacturer.toBuilder().gageIds(gageIds.get(manufacturer.getId())).build())
                     .collect(Collectors.toList());
-
-            logger.info("Successfully converted {} manufacturers to response objects", responses.size());
-            return responses;
         } catch (Exception e) {
             logger.error("Error fetching all manufacturers: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to fetch manufacturers: " + e.getMessage(), e);
         }
     }
 
+    private Cache manufacturersCache() {
+        return cacheManager.getCache(CacheConfig.MANUFACTURERS);
+    }
+
     @Override
     public List<ManufacturerResponse> getManufacturersByCountry(String country) {
         return manufacturerRepository.findByCountry(country).stream()
@@ -108,6 +141,7 @@ public class ManufacturerServiceImpl implements ManufacturerService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.MANUFACTURERS, allEntries = true)
     public ManufacturerResponse updateManufacturer(Long id, ManufacturerRequest manufacturerRequest) {
         Manufacturer existingManufacturer = manufacturerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Manufacturer not found with id: " + id));
@@ -134,6 +168,7 @@ public class ManufacturerServiceImpl implements ManufacturerService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.MANUFACTURERS, allEntries = true)
     @Transactional
     public void deleteManufacturer(Long id) {
         Manufacturer manufacturer = manufacturerRepository.findById(id)
@@ -11,11 +11,13 @@ import com.secureauth.productservice.repository.GageRepository;
 import com.secureauth.productservice.repository.ReallocateRepository;
 import com.secureauth.productservice.service.ReallocateService;
 import com.secureauth.productservice.service.ReallocateNotificationService;
+import com.secureauth.productservice.service.ReallocationExpiryEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -37,6 +39,12 @@ public class ReallocateServiceImpl implements ReallocateService {
     @Lazy
     private ReallocateNotificationService notificationService;
 
+    @Autowired
+    @Lazy
+    private ReallocationExpiryEngine expiryEngine;
+
+    private static final String AUTO_RETURN_REASON = "Automatically returned due to expiration";
+
     @Override
     public ReallocateResponse createReallocateRequest(ReallocateRequest request) {
         log.info("Creating reallocate request for gage ID: {}", request.getGageId());
@@ -202,6 +210,7 @@ public class ReallocateServiceImpl implements ReallocateService {
         reallocate.calculateExpiryTime();
 
         Reallocate savedReallocate = reallocateRepository.save(reallocate);
+        expiryEngine.schedule(savedReallocate.getId(), savedReallocate.getExpiresAt());
 
         // Update gage status to ISSUED
         Gage gage = savedReallocate.getGage();
@@ -281,40 +290,19 @@ public class ReallocateServiceImpl implements ReallocateService {
 
     @Override
     public ReallocateResponse returnGage(Long reallocateId, String returnedBy, String reason) {
-        Reallocate reallocate = reallocateRepository.findById(reallocateId)
+        Reallocate reallocate = reallocateRepository.findByIdForUpdate(reallocateId)
                 .orElseThrow(() -> new RuntimeException("Reallocate not found with ID: " + reallocateId));
 
         if (reallocate.getStatus() != Reallocate.Status.APPROVED) {
             throw new RuntimeException("Cannot return gage that is not approved");
         }
 
-        reallocate.setStatus(Reallocate.Status.RETURNED);
-        reallocate.setNotes(reason);
-        reallocate.setApprovedBy(returnedBy);
-        reallocate.setApprovedAt(LocalDateTime.now());
-
-        // Update gage status back to ACTIVE
-        Gage gage = reallocate.getGage();
-        gage.setStatus(Gage.Status.ACTIVE);
-        gageRepository.save(gage);
-
-        // Revert gage issue allocation back to original dept/function/operation
-        revertAllocationOnLatestIssue(reallocate);
-
-        // Set status to COMPLETED to allow new requests
-        reallocate.setStatus(Reallocate.Status.COMPLETED);
-        Reallocate savedReallocate = reallocateRepository.save(reallocate);
-        
-        // Send notification about return
-        ReallocateResponse response = convertToResponse(savedReallocate);
-        notificationService.sendAutoReturnNotification(response);
-        
-        return response;
+        return completeReturn(reallocate, returnedBy, reason);
     }
 
     @Override
     public ReallocateResponse forceReturnGage(Long reallocateId, String returnedBy, String reason) {
-        Reallocate reallocate = reallocateRepository.findById(reallocateId)
+        Reallocate reallocate = reallocateRepository.findByIdForUpdate(reallocateId)
                 .orElseThrow(() -> new RuntimeException("Reallocate not found with ID: " + reallocateId));
 
         reallocate.setStatus(Reallocate.Status.RETURNED);
@@ -440,7 +428,7 @@ public class ReallocateServiceImpl implements ReallocateService {
 
     @Override
     public ReallocateResponse processExpiredReallocation(Long reallocateId) {
-        Reallocate reallocate = reallocateRepository.findById(reallocateId)
+        Reallocate reallocate = reallocateRepository.findByIdForUpdate(reallocateId)
                 .orElseThrow(() -> new RuntimeException("Reallocate not found with ID: " + reallocateId));
 
         if (reallocate.getStatus() != Reallocate.Status.APPROVED) {
@@ -452,13 +440,21 @@ public class ReallocateServiceImpl implements ReallocateService {
         }
 
         // Auto-return the gage and mark as completed
-        returnGage(reallocateId, "SYSTEM", "Automatically returned due to expiration");
-        
-        // Mark the reallocation as completed to allow new requests
-        reallocate.setStatus(Reallocate.Status.COMPLETED);
-        reallocateRepository.save(reallocate);
-        
-        return convertToResponse(reallocate);
+        return completeReturn(reallocate, "SYSTEM", AUTO_RETURN_REASON);
+    }
+
+    @Override
+    public int processExpiredBatch(LocalDateTime now, int limit) {
+        List<Long> ids = reallocateRepository.lockExpiredIds(now, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Reallocate> expired = reallocateRepository.findByIdInOrderByExpiresAt(ids);
+        for (Reallocate reallocate : expired) {
+            completeReturn(reallocate, "SYSTEM", AUTO_RETURN_REASON);
+        }
+        log.info("Auto-returned {} expired reallocations", expired.size());
+        return expired.size();
     }
 
     @Override
@@ -521,18 +517,10 @@ public class ReallocateServiceImpl implements ReallocateService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processAllExpiredReallocations() {
         log.info("Processing all expired reallocations");
-        List<Reallocate> expiredReallocations = reallocateRepository.findExpiredReallocations(LocalDateTime.now());
-        
-        for (Reallocate reallocate : expiredReallocations) {
-            try {
-                processExpiredReallocation(reallocate.getId());
-                log.info("Processed expired reallocation ID: {}", reallocate.getId());
-            } catch (Exception e) {
-                log.error("Error processing expired reallocation ID: {}", reallocate.getId(), e);
-            }
-        }
+        expiryEngine.runNow();
     }
 
     @Override
@@ -584,6 +572,32 @@ public class ReallocateServiceImpl implements ReallocateService {
         }
     }
 
+    // Returns the gage to its original allocation and closes the reallocation so the gage can be requested again
+    private ReallocateResponse completeReturn(Reallocate reallocate, String returnedBy, String reason) {
+        reallocate.setStatus(Reallocate.Status.RETURNED);
+        reallocate.setNotes(reason);
+        reallocate.setApprovedBy(returnedBy);
+        reallocate.setApprovedAt(LocalDateTime.now());
+
+        // Update gage status back to ACTIVE
+        Gage gage = reallocate.getGage();
+        gage.setStatus(Gage.Status.ACTIVE);
+        gageRepository.save(gage);
+
+        // Revert gage issue allocation back to original dept/function/operation
+        revertAllocationOnLatestIssue(reallocate);
+
+        // Set status to COMPLETED to allow new requests
+        reallocate.setStatus(Reallocate.Status.COMPLETED);
+        Reallocate savedReallocate = reallocateRepository.save(reallocate);
+
+        // Send notification about return
+        ReallocateResponse response = convertToResponse(savedReallocate);
+        notificationService.sendAutoReturnNotification(response);
+
+        return response;
+    }
+
     private void revertAllocationOnLatestIssue(Reallocate reallocate) {
         try {
             String serial = reallocate.getGage().getSerialNumber();
@@ -0,0 +1,57 @@
+package com.secureauth.productservice;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A {@link SpringBootTest} without a web environment against an embedded PostgreSQL, for tests
+ * that rely on PostgreSQL behaviour (row locking, ON CONFLICT, large objects). The schema is
+ * created from the entities and dropped afterwards; Eureka and SQL logging are off. Test-specific
+ * settings go in {@link #properties()} and override the defaults here.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "eureka.client.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "app.blob-store.local.root=target/test-blobs"
+})
+// Inlined @TestPropertySource properties take precedence over @SpringBootTest ones
+@TestPropertySource
+@Import(EmbeddedPostgresTest.EmbeddedDatabase.class)
+public @interface EmbeddedPostgresTest {
+
+    @AliasFor(annotation = TestPropertySource.class, attribute = "properties")
+    String[] properties() default {};
+
+    @TestConfiguration(proxyBeanMethods = false)
+    class EmbeddedDatabase {
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws Exception {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+    }
+}
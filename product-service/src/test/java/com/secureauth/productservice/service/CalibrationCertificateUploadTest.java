@@ -0,0 +1,70 @@
+package com.secureauth.productservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * How the stored {@code calibration_history.certificate} value is read back: uploads in each
+ * accepted encoding, and the placeholders earlier versions stored where nothing was uploaded.
+ */
+class CalibrationCertificateUploadTest {
+
+    private static final byte[] PDF = "%PDF-1.7\n%test\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void rawPdfIsServedAsIs() {
+        CalibrationCertificateService.UploadedCertificate upload = read(PDF).orElseThrow();
+        assertArrayEquals(PDF, upload.content());
+        assertEquals("application/pdf", upload.contentType());
+        assertEquals("pdf", upload.extension());
+    }
+
+    @Test
+    void base64PdfIsDecoded() {
+        byte[] stored = Base64.getMimeEncoder().encode(PDF);
+        CalibrationCertificateService.UploadedCertificate upload = read(stored).orElseThrow();
+        assertArrayEquals(PDF, upload.content());
+        assertEquals("application/pdf", upload.contentType());
+    }
+
+    @Test
+    void dataUrlIsDecoded() {
+        byte[] stored = ("data:application/pdf;base64," + Base64.getEncoder().encodeToString(PDF))
+                .getBytes(StandardCharsets.US_ASCII);
+        CalibrationCertificateService.UploadedCertificate upload = read(stored).orElseThrow();
+        assertArrayEquals(PDF, upload.content());
+        assertEquals("pdf", upload.extension());
+    }
+
+    @Test
+    void inwardPlaceholderIsNoUpload() {
+        byte[] stored = String.format("Calibration Certificate\nInstrument: %s\nSerial: %s\nCalibration Date: %s\nNext Due: %s\nStatus: %s",
+                "Vernier", "SN-1", "2024-01-10", "2025-01-10", "ACTIVE").getBytes();
+        assertTrue(read(stored).isEmpty());
+    }
+
+    @Test
+    void completeCalibrationPlaceholderIsNoUpload() {
+        byte[] stored = Base64.getEncoder()
+                .encodeToString("Calibration Certificate for Gage SN: SN-1".getBytes())
+                .getBytes();
+        assertTrue(read(stored).isEmpty());
+    }
+
+    @Test
+    void undecodableContentIsServedAsBinary() {
+        byte[] stored = {0x00, 0x01, (byte) 0xfe, ':'};
+        CalibrationCertificateService.UploadedCertificate upload = read(stored).orElseThrow();
+        assertArrayEquals(stored, upload.content());
+        assertEquals("application/octet-stream", upload.contentType());
+    }
+
+    private static Optional<CalibrationCertificateService.UploadedCertificate> read(byte[] stored) {
+        return CalibrationCertificateService.readUpload(stored);
+    }
+}
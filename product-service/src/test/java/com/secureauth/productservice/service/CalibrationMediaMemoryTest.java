@@ -0,0 +1,194 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.EmbeddedPostgresTest;
+import com.secureauth.productservice.dto.InwardRequest;
+import com.secureauth.productservice.entity.CalibrationHistory;
+import com.secureauth.productservice.entity.CalibrationMedia;
+import com.secureauth.productservice.entity.Gage;
+import com.secureauth.productservice.entity.GageSubType;
+import com.secureauth.productservice.entity.GageType;
+import com.secureauth.productservice.repository.GageRepository;
+import com.secureauth.productservice.repository.GageSubTypeRepository;
+import com.secureauth.productservice.repository.GageTypeRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Inwards 1 GB of calibration media in a JVM limited to a 256 MB heap (see the
+ * {@code memory-ceiling} surefire execution). Uploads are generated on the fly, so any code
+ * path that buffers a whole file, or the whole request, runs out of memory.
+ */
+@Tag("memory-ceiling")
+@EmbeddedPostgresTest(properties = "app.blob-store.local.root=" + CalibrationMediaMemoryTest.BLOB_ROOT)
+class CalibrationMediaMemoryTest {
+
+    static final String BLOB_ROOT = "target/memory-ceiling-blobs";
+
+    private static final long HEAP_CEILING = 256L * 1024 * 1024;
+    // Each file alone is as large as the heap, so buffering even one of them fails
+    private static final long FILE_SIZE = 256L * 1024 * 1024;
+    private static final int FILES = 4;
+
+    @Autowired
+    private CalibrationHistoryService calibrationHistoryService;
+
+    @Autowired
+    private GageRepository gageRepository;
+
+    @Autowired
+    private GageTypeRepository gageTypeRepository;
+
+    @Autowired
+    private GageSubTypeRepository gageSubTypeRepository;
+
+    @AfterAll
+    static void removeBlobs() throws IOException {
+        FileSystemUtils.deleteRecursively(Paths.get(BLOB_ROOT));
+    }
+
+    @Test
+    void inwardOfOneGigabyteStaysUnderHeapCeiling() throws IOException {
+        assertTrue(Runtime.getRuntime().maxMemory() <= HEAP_CEILING,
+                "Expected a heap of at most 256 MB but it is " + (Runtime.getRuntime().maxMemory() >> 20) + " MB");
+
+        GageSubType subType = gageSubTypeRepository.save(GageSubType.builder().name("MEM-Sub").build());
+        GageType type = gageTypeRepository.save(GageType.builder().name("MEM-Type").gageSubType(subType).build());
+        Gage gage = gageRepository.save(Gage.builder()
+                .serialNumber("MEM-1")
+                .gageType(type)
+                .gageSubType(subType)
+                .status(Gage.Status.OUT_FOR_CALIBRATION)
+                .nextCalibrationDate(LocalDate.now())
+                .build());
+
+        List<MultipartFile> videos = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            videos.add(new GeneratedFile("video-" + i + ".mp4", FILE_SIZE, i));
+        }
+        InwardRequest request = new InwardRequest();
+        request.setVideos(videos);
+
+        CalibrationHistory history = calibrationHistoryService.processInward(gage.getId(), request);
+
+        List<CalibrationMedia> media = calibrationHistoryService.getMediaByHistoryId(history.getId());
+        assertEquals(FILES, media.size());
+        media.forEach(m -> assertEquals(FILE_SIZE, m.getFileSize()));
+        assertEquals(FILES, media.stream().map(CalibrationMedia::getBlobKey).distinct().count());
+
+        // Downloads are streamed from the blob store as well
+        Resource resource = calibrationHistoryService.loadMedia(media.get(0));
+        try (InputStream in = resource.getInputStream()) {
+            assertEquals(FILE_SIZE, in.transferTo(OutputStream.nullOutputStream()));
+        }
+    }
+
+    /**
+     * Upload whose content is generated while it is read; only {@link #getBytes()} would
+     * ever materialise it.
+     */
+    private static class GeneratedFile implements MultipartFile {
+
+        private final String name;
+        private final long size;
+        private final int seed;
+
+        GeneratedFile(String name, long size, int seed) {
+            this.name = name;
+            this.size = size;
+            this.seed = seed;
+        }
+
+        @Override
+        public String getName() {
+            return "videos";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return name;
+        }
+
+        @Override
+        public String getContentType() {
+            return "video/mp4";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return getInputStream().readAllBytes();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private long position;
+
+                @Override
+                public int read() {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    return byteAt(position++);
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    if (position >= size) {
+                        return -1;
+                    }
+                    int count = (int) Math.min(length, size - position);
+                    for (int i = 0; i < count; i++) {
+                        buffer[offset + i] = (byte) byteAt(position++);
+                    }
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            try (InputStream in = getInputStream()) {
+                Files.copy(in, dest.toPath());
+            }
+        }
+
+        @Override
+        public void transferTo(Path dest) throws IOException {
+            try (InputStream in = getInputStream()) {
+                Files.copy(in, dest);
+            }
+        }
+
+        private int byteAt(long position) {
+            return (int) ((position * 31 + seed * 7 + (position >>> 12)) & 0xFF);
+        }
+    }
+}
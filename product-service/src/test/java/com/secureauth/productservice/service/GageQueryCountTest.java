@@ -0,0 +1,208 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.EmbeddedPostgresTest;
+import com.secureauth.productservice.dto.GagePage;
+import com.secureauth.productservice.dto.GagePageRequest;
+import com.secureauth.productservice.dto.GageResponse;
+import com.secureauth.productservice.dto.ReallocateResponse;
+import com.secureauth.productservice.dto.ScheduleCalibrationResponse;
+import com.secureauth.productservice.entity.CalibrationSchedule;
+import com.secureauth.productservice.entity.Gage;
+import com.secureauth.productservice.entity.GageSubType;
+import com.secureauth.productservice.entity.GageType;
+import com.secureauth.productservice.entity.InhouseCalibrationMachine;
+import com.secureauth.productservice.entity.Manufacturer;
+import com.secureauth.productservice.entity.Reallocate;
+import com.secureauth.productservice.repository.CalibrationScheduleRepository;
+import com.secureauth.productservice.repository.GageRepository;
+import com.secureauth.productservice.repository.GageSubTypeRepository;
+import com.secureauth.productservice.repository.GageTypeRepository;
+import com.secureauth.productservice.repository.InhouseCalibrationMachineRepository;
+import com.secureauth.productservice.repository.ManufacturerRepository;
+import com.secureauth.productservice.repository.ReallocateRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements behind gage-related read paths with Hibernate statistics. Every
+ * gage, reallocation and schedule points at different types, manufacturers and machines, so
+ * any lazy association touched while mapping would show up as extra statements per row.
+ */
+@EmbeddedPostgresTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Statistics are global; keep the background mail pollers out of the counts
+        "app.mail.outbox.poll-ms=3600000",
+        "app.notification.digest.poll-ms=3600000"
+})
+class GageQueryCountTest {
+
+    private static final int ROWS = 25;
+    private static final int VARIANTS = 5;
+    private static final String SERIAL_PREFIX = "QC-";
+
+    @Autowired
+    private GageService gageService;
+
+    @Autowired
+    private ReallocateService reallocateService;
+
+    @Autowired
+    private CalibrationService calibrationService;
+
+    @Autowired
+    private GageRepository gageRepository;
+
+    @Autowired
+    private GageTypeRepository gageTypeRepository;
+
+    @Autowired
+    private GageSubTypeRepository gageSubTypeRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private InhouseCalibrationMachineRepository machineRepository;
+
+    @Autowired
+    private ReallocateRepository reallocateRepository;
+
+    @Autowired
+    private CalibrationScheduleRepository calibrationScheduleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Gage> gages = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // The context, and with it the database, is shared between test methods
+        if (gageRepository.existsBySerialNumber(SERIAL_PREFIX + 0)) {
+            for (int i = 0; i < ROWS; i++) {
+                gages.add(gageRepository.findBySerialNumber(SERIAL_PREFIX + i).orElseThrow());
+            }
+            return;
+        }
+        List<GageType> types = new ArrayList<>();
+        List<Manufacturer> manufacturers = new ArrayList<>();
+        List<InhouseCalibrationMachine> machines = new ArrayList<>();
+        for (int v = 0; v < VARIANTS; v++) {
+            GageSubType subType = gageSubTypeRepository.save(GageSubType.builder().name("QC-Sub-" + v).build());
+            GageType type = gageTypeRepository.save(GageType.builder().name("QC-Type-" + v).gageSubType(subType).build());
+            types.add(type);
+            manufacturers.add(manufacturerRepository.save(Manufacturer.builder()
+                    .name("QC-Maker-" + v)
+                    .country("IN")
+                    .build()));
+            machines.add(machineRepository.save(InhouseCalibrationMachine.builder()
+                    .machineName("QC-Machine-" + v)
+                    .instrumentName("QC-Instrument-" + v)
+                    .instrumentCode("QC-IC-" + v)
+                    .machineEquipmentNumber("QC-EQ-" + v)
+                    .accuracy("0.01")
+                    .resolution("0.001")
+                    .location("Lab")
+                    .status("ACTIVE")
+                    .manufacturer("QC")
+                    .guaranteeExpiryDate(LocalDate.now().plusYears(1))
+                    .gageType(type)
+                    .gageSubType(subType)
+                    .build()));
+        }
+        for (int i = 0; i < ROWS; i++) {
+            int v = i % VARIANTS;
+            Gage gage = gageRepository.save(Gage.builder()
+                    .serialNumber(SERIAL_PREFIX + i)
+                    .gageType(types.get(v))
+                    .gageSubType(types.get(v).getGageSubType())
+                    .manufacturer(manufacturers.get(v))
+                    .inhouseCalibrationMachine(machines.get(v))
+                    .status(Gage.Status.ACTIVE)
+                    .nextCalibrationDate(LocalDate.now().plusDays(90))
+                    .build());
+            gages.add(gage);
+            reallocateRepository.save(Reallocate.builder()
+                    .gage(gage)
+                    .originalDepartment("D").originalFunction("F").originalOperation("O")
+                    .currentDepartment("D2").currentFunction("F2").currentOperation("O2")
+                    .requestedBy("operator" + i).requestedByRole("F")
+                    .requestedByFunction("F1").requestedByOperation("OT1")
+                    .timeLimit(Reallocate.TimeLimit.ONE_DAY)
+                    .status(Reallocate.Status.APPROVED)
+                    .expiresAt(LocalDateTime.now().plusDays(1))
+                    .build());
+        }
+        for (int i = 0; i < VARIANTS; i++) {
+            calibrationScheduleRepository.save(CalibrationSchedule.builder()
+                    .gage(gages.get(0))
+                    .scheduledDate(LocalDate.now().plusDays(i + 1))
+                    .assignedTo("technician")
+                    .laboratory("Lab")
+                    .build());
+        }
+    }
+
+    @Test
+    void gagePageIsOneStatement() {
+        GagePageRequest request = GagePageRequest.builder().page(0).size(ROWS).build();
+
+        GagePage page = countStatements(1, () -> gageService.getAllGages(Collections.emptySet(), request));
+
+        assertTrue(page.getContent().size() >= ROWS);
+        page.getContent().forEach(g -> assertNotNull(g.getManufacturerName()));
+    }
+
+    @Test
+    void gageDetailLoadsAllAssociationsInOneStatement() {
+        Gage gage = gages.get(ROWS - 1);
+
+        GageResponse response = countStatements(1, () -> gageService.getGageById(gage.getId()));
+
+        assertNotNull(response.getInhouseCalibrationMachine().getGageTypeName());
+        assertNotNull(response.getInhouseCalibrationMachine().getGageSubTypeName());
+        assertNotNull(response.getGageSubType().getName());
+        assertNotNull(response.getManufacturerName());
+    }
+
+    @Test
+    void reallocationListIsOneStatement() {
+        List<ReallocateResponse> reallocations = countStatements(1, () -> reallocateService.getAllReallocates());
+
+        assertEquals(ROWS, reallocations.size());
+        reallocations.forEach(r -> assertNotNull(r.getGageTypeName()));
+    }
+
+    @Test
+    void scheduleListIsOneStatement() {
+        List<ScheduleCalibrationResponse> schedules =
+                countStatements(1, () -> calibrationService.getGageSchedules(gages.get(0).getId()));
+
+        assertEquals(VARIANTS, schedules.size());
+        schedules.forEach(s -> assertNotEquals("Unknown", s.getGageName()));
+    }
+
+    private <T> T countStatements(long maxStatements, Supplier<T> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = call.get();
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= maxStatements,
+                "Expected at most " + maxStatements + " statements but " + statements + " were prepared");
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package com.secureauth.productservice.service;
+
+import com.secureauth.productservice.EmbeddedPostgresTest;
+import com.secureauth.productservice.dto.GageUsageRequest;
+import com.secureauth.productservice.dto.GageUsageResponse;
+import com.secureauth.productservice.entity.Gage;
+import com.secureauth.productservice.entity.GageSubType;
+import com.secureauth.productservice.entity.GageType;
+import com.secureauth.productservice.repository.GageRepository;
+import com.secureauth.productservice.repository.GageSubTypeRepository;
+import com.secureauth.productservice.repository.GageTypeRepository;
+import com.secureauth.productservice.repository.JobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires 100 simultaneous usage recordings at one gage and checks that the conditional
+ * reservations never book more uses or days than the gage has. Runs against an embedded
+ * PostgreSQL because the reservation relies on PostgreSQL row locking and ON CONFLICT.
+ */
+@EmbeddedPostgresTest(properties = "spring.datasource.hikari.maximum-pool-size=20")
+class GageUsageConcurrencyTest {
+
+    private static final int PARALLEL_REQUESTS = 100;
+
+    @Autowired
+    private GageService gageService;
+
+    @Autowired
+    private GageUsageCounterService gageUsageCounterService;
+
+    @Autowired
+    private GageRepository gageRepository;
+
+    @Autowired
+    private GageTypeRepository gageTypeRepository;
+
+    @Autowired
+    private GageSubTypeRepository gageSubTypeRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    private GageType gageType;
+
+    @BeforeEach
+    void setUp() {
+        // The context, and with it the database, is shared between test methods
+        gageType = gageTypeRepository.findByName("Caliper").orElseGet(() -> {
+            GageSubType subType = gageSubTypeRepository.save(GageSubType.builder().name("Vernier").build());
+            return gageTypeRepository.save(GageType.builder().name("Caliper").gageSubType(subType).build());
+        });
+    }
+
+    @Test
+    void parallelUsageNeverExceedsMaxUses() throws Exception {
+        Gage gage = createGage("CONC-USES", 40, LocalDate.now().plusDays(1000));
+
+        int recorded = recordInParallel(gage.getSerialNumber());
+
+        assertEquals(40, recorded);
+        assertEquals(40, gageUsageCounterService.getTotalUses(gage.getSerialNumber()));
+        assertEquals(40, jobRepository.findByGageSerialNumber(gage.getSerialNumber()).size());
+        assertEquals(40, gageRepository.findById(gage.getId()).orElseThrow().getUsageDaysConsumed());
+    }
+
+    @Test
+    void parallelUsageNeverExceedsRemainingDays() throws Exception {
+        Gage gage = createGage("CONC-DAYS", 1000, LocalDate.now().plusDays(25));
+
+        int recorded = recordInParallel(gage.getSerialNumber());
+
+        Gage reloaded = gageRepository.findById(gage.getId()).orElseThrow();
+        assertEquals(25, recorded);
+        assertEquals(25, reloaded.getUsageDaysConsumed());
+        assertEquals(0, reloaded.getRemainingDays());
+        assertEquals(25, gageUsageCounterService.getTotalUses(gage.getSerialNumber()));
+        assertEquals(25, jobRepository.findByGageSerialNumber(gage.getSerialNumber()).size());
+    }
+
+    private Gage createGage(String serialNumber, int maxUses, LocalDate nextCalibrationDate) {
+        return gageRepository.save(Gage.builder()
+                .serialNumber(serialNumber)
+                .gageType(gageType)
+                .gageSubType(gageType.getGageSubType())
+                .status(Gage.Status.ACTIVE)
+                .maxUsersNumber(maxUses)
+                .nextCalibrationDate(nextCalibrationDate)
+                .build());
+    }
+
+    // Releases all requests at once and returns how many were accepted
+    private int recordInParallel(String serialNumber) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < PARALLEL_REQUESTS; i++) {
+                GageUsageRequest request = usageRequest(serialNumber, i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    GageUsageResponse response = gageService.recordGageUsage(request);
+                    if (Boolean.TRUE.equals(response.getIsValidSerial())) {
+                        accepted.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return accepted.get();
+    }
+
+    private GageUsageRequest usageRequest(String serialNumber, int index) {
+        return GageUsageRequest.builder()
+                .gageType(gageType.getName())
+                .serialNumber(serialNumber)
+                .daysUsed(1)
+                .usesCount(1)
+                .operatorUsername("operator" + index)
+                .operatorRole("F")
+                .usageDate(LocalDate.now())
+                .jobNumber(serialNumber + "-JOB-" + index)
+                .jobDescription("Concurrent usage " + index)
+                .build();
+    }
+}
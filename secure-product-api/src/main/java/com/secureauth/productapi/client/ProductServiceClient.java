@@ -0,0 +1,11 @@
+package com.secureauth.productapi.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+
+@FeignClient(name = "product-service", contextId = "operatorDirectoryClient", path = "/api/operator-directory")
+public interface ProductServiceClient {
+
+    @PostMapping("/invalidate")
+    void invalidateOperatorDirectory();
+}
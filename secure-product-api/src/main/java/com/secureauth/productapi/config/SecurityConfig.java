@@ -57,6 +57,8 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/functions/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/operations/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/roles/**").permitAll()
+                // Operator directory pulled by product-service for reallocation notifications
+                .requestMatchers(HttpMethod.GET, "/api/operator/context/directory").permitAll()
 
                 .requestMatchers("/ws/**").permitAll()
                 .requestMatchers("/topic/**").permitAll()
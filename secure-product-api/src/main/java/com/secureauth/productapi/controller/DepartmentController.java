@@ -2,6 +2,7 @@ package com.secureauth.productapi.controller;
 
 import com.secureauth.productapi.entity.Department;
 import com.secureauth.productapi.repository.DepartmentRepository;
+import com.secureauth.productapi.service.OperatorDirectoryNotifier;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +15,7 @@ import java.util.List;
 public class DepartmentController {
 
     @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private OperatorDirectoryNotifier operatorDirectoryNotifier;
 
     @GetMapping
     public List<Department> list() {
@@ -37,7 +39,10 @@ public class DepartmentController {
                     d.setCostCenter(incoming.getCostCenter());
                     d.setBudget(incoming.getBudget());
                     d.setIsActive(incoming.getIsActive());
-                    return ResponseEntity.ok(departmentRepository.save(d));
+                    Department saved = departmentRepository.save(d);
+                    // Users carry department names, so a rename changes their operator context
+                    operatorDirectoryNotifier.directoryChanged();
+                    return ResponseEntity.ok(saved);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -48,6 +53,7 @@ public class DepartmentController {
                 .map(d -> {
                     d.setIsActive(active);
                     departmentRepository.save(d);
+                    operatorDirectoryNotifier.directoryChanged();
                     return ResponseEntity.ok().build();
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
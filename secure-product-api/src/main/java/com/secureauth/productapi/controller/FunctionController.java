@@ -2,6 +2,7 @@ package com.secureauth.productapi.controller;
 
 import com.secureauth.productapi.entity.Function;
 import com.secureauth.productapi.repository.FunctionRepository;
+import com.secureauth.productapi.service.OperatorDirectoryNotifier;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +15,7 @@ import java.util.List;
 public class FunctionController {
 
     @Autowired private FunctionRepository functionRepository;
+    @Autowired private OperatorDirectoryNotifier operatorDirectoryNotifier;
 
     @GetMapping
     public List<Function> list() {
@@ -35,7 +37,10 @@ public class FunctionController {
                     f.setSortOrder(incoming.getSortOrder());
                     f.setIsCritical(incoming.getIsCritical());
                     f.setIsActive(incoming.getIsActive());
-                    return ResponseEntity.ok(functionRepository.save(f));
+                    Function saved = functionRepository.save(f);
+                    // Users carry function names, so a rename changes their operator context
+                    operatorDirectoryNotifier.directoryChanged();
+                    return ResponseEntity.ok(saved);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -46,6 +51,7 @@ public class FunctionController {
                 .map(f -> {
                     f.setIsActive(active);
                     functionRepository.save(f);
+                    operatorDirectoryNotifier.directoryChanged();
                     return ResponseEntity.ok().build();
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
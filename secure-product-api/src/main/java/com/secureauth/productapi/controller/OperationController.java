@@ -2,6 +2,7 @@ package com.secureauth.productapi.controller;
 
 import com.secureauth.productapi.entity.Operation;
 import com.secureauth.productapi.repository.OperationRepository;
+import com.secureauth.productapi.service.OperatorDirectoryNotifier;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +15,7 @@ import java.util.List;
 public class OperationController {
 
     @Autowired private OperationRepository operationRepository;
+    @Autowired private OperatorDirectoryNotifier operatorDirectoryNotifier;
 
     @GetMapping
     public List<Operation> list() {
@@ -36,7 +38,10 @@ public class OperationController {
                     o.setRequiredSkills(incoming.getRequiredSkills());
                     o.setIsMandatory(incoming.getIsMandatory());
                     o.setIsActive(incoming.getIsActive());
-                    return ResponseEntity.ok(operationRepository.save(o));
+                    Operation saved = operationRepository.save(o);
+                    // Users carry operation names, so a rename changes their operator context
+                    operatorDirectoryNotifier.directoryChanged();
+                    return ResponseEntity.ok(saved);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -47,6 +52,7 @@ public class OperationController {
                 .map(o -> {
                     o.setIsActive(active);
                     operationRepository.save(o);
+                    operatorDirectoryNotifier.directoryChanged();
                     return ResponseEntity.ok().build();
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
@@ -7,6 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -39,6 +40,20 @@ public class OperatorContextController {
         }
     }
 
+    /**
+     * Contexts of all active users, used by product-service to build its operator directory
+     * @return OperatorContext per active user
+     */
+    @GetMapping("/directory")
+    public ResponseEntity<List<OperatorContext>> getOperatorDirectory() {
+        try {
+            return ResponseEntity.ok(operatorContextService.getOperatorDirectory());
+        } catch (Exception e) {
+            log.error("Error building operator directory: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Get operator context by user ID
      * @param userId The user ID to get context for
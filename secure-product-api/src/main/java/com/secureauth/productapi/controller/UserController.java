@@ -4,6 +4,7 @@ import com.secureauth.productapi.dto.UserCreateRequest;
 import com.secureauth.productapi.dto.UserResponse;
 import com.secureauth.productapi.entity.*;
 import com.secureauth.productapi.repository.*;
+import com.secureauth.productapi.service.OperatorDirectoryNotifier;
 import com.secureauth.productapi.service.interfaces.EmailService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +31,7 @@ public class UserController {
     @Autowired private OperationRepository operationRepository;
     @Autowired private PasswordEncoder passwordEncoder;
     @Autowired private EmailService emailService;
+    @Autowired private OperatorDirectoryNotifier operatorDirectoryNotifier;
 
     @GetMapping
     public List<UserResponse> list() {
@@ -100,6 +102,7 @@ public class UserController {
         }
 
         user = userRepository.save(user);
+        operatorDirectoryNotifier.directoryChanged();
 
         // Send credentials email (non-blocking for failures) only if email is provided and admin didn't set password manually
         if (!adminSetsPassword && user.getEmail() != null && !user.getEmail().isBlank()) {
@@ -183,6 +186,7 @@ public class UserController {
                     }
 
                     user = userRepository.save(user);
+                    operatorDirectoryNotifier.directoryChanged();
                     return ResponseEntity.ok(toResponse(user));
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
@@ -245,6 +249,7 @@ public class UserController {
                     }
 
                     user = userRepository.save(user);
+                    operatorDirectoryNotifier.directoryChanged();
                     return ResponseEntity.ok(toResponse(user));
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
@@ -267,6 +272,7 @@ public class UserController {
                 .map(u -> {
                     u.setIsActive(active);
                     userRepository.save(u);
+                    operatorDirectoryNotifier.directoryChanged();
                     return ResponseEntity.ok().build();
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
@@ -12,6 +12,7 @@ public class OperatorContext {
     
     private Long userId;
     private String username;
+    private String email;
     private String firstName;
     private String lastName;
     
@@ -1,11 +1,20 @@
 package com.secureauth.productapi.repository;
 
 import com.secureauth.productapi.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    // Roles and assignments are EAGER sets; fetch them with the users instead of four selects per user
+    @EntityGraph(attributePaths = {"roles", "departments", "functions", "operations"})
+    @Query("SELECT DISTINCT u FROM User u WHERE u.isActive IS NULL OR u.isActive = true")
+    List<User> findAllActiveWithContext();
 }
@@ -11,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -34,6 +35,7 @@ public class OperatorContextService {
             OperatorContext context = OperatorContext.builder()
                     .userId(user.getId())
                     .username(user.getUsername())
+                    .email(user.getEmail())
                     .firstName(user.getFirstName())
                     .lastName(user.getLastName())
                     .departments(extractNames(user.getDepartments()))
@@ -64,6 +66,7 @@ public class OperatorContextService {
             OperatorContext context = OperatorContext.builder()
                     .userId(user.getId())
                     .username(user.getUsername())
+                    .email(user.getEmail())
                     .firstName(user.getFirstName())
                     .lastName(user.getLastName())
                     .departments(extractNames(user.getDepartments()))
@@ -81,6 +84,29 @@ public class OperatorContextService {
         }
     }
 
+    /**
+     * Contexts of every active user in one query; product-service builds its operator
+     * directory (department/function/operation lookups for notifications) from this list.
+     * @return OperatorContext per active user
+     */
+    public List<OperatorContext> getOperatorDirectory() {
+        List<OperatorContext> directory = userRepository.findAllActiveWithContext().stream()
+                .map(user -> OperatorContext.builder()
+                        .userId(user.getId())
+                        .username(user.getUsername())
+                        .email(user.getEmail())
+                        .firstName(user.getFirstName())
+                        .lastName(user.getLastName())
+                        .departments(extractNames(user.getDepartments()))
+                        .functions(extractNames(user.getFunctions()))
+                        .operations(extractNames(user.getOperations()))
+                        .roles(extractRoleNames(user.getRoles()))
+                        .build())
+                .toList();
+        log.info("Built operator directory with {} users", directory.size());
+        return directory;
+    }
+
     /**
      * Check if a user has access to a specific department
      * @param username The username to check
@@ -0,0 +1,66 @@
+package com.secureauth.productapi.service;
+
+import com.secureauth.productapi.client.ProductServiceClient;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tells product-service that user assignments changed so it drops its cached operator
+ * directory. Calls are made off the request thread after the change commits, and a burst of
+ * changes (e.g. a bulk upload) collapses into a single call. Failures are only logged; the
+ * product-service cache also expires on its own TTL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OperatorDirectoryNotifier {
+
+    private final ProductServiceClient productServiceClient;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "operator-directory-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void directoryChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule();
+                }
+            });
+        } else {
+            schedule();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void schedule() {
+        if (!pending.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            pending.set(false);
+            try {
+                productServiceClient.invalidateOperatorDirectory();
+                log.debug("Operator directory invalidation sent to product-service");
+            } catch (Exception e) {
+                log.warn("Could not invalidate product-service operator directory: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -8,6 +8,7 @@ import com.secureauth.productapi.entity.User;
 import com.secureauth.productapi.repository.RoleRepository;
 import com.secureauth.productapi.repository.UserRepository;
 import com.secureauth.productapi.security.JwtTokenProvider;
+import com.secureauth.productapi.service.OperatorDirectoryNotifier;
 import com.secureauth.productapi.service.interfaces.AuthService;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,6 +46,9 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private OperatorDirectoryNotifier operatorDirectoryNotifier;
+
     @Transactional
     public JwtResponse authenticateUser(LoginRequest loginRequest) {
         // Support login by username or email
@@ -111,6 +115,7 @@ public class AuthServiceImpl implements AuthService {
         user.setRoles(roles);
 
         userRepository.save(user);
+        operatorDirectoryNotifier.directoryChanged();
 
         return "User registered successfully!";
     }